@@ -46,22 +46,32 @@ import com.dataartisans.flink.cascading.planner.rules.BoundaryBeforeMergeTransfo
 import com.dataartisans.flink.cascading.planner.rules.BoundaryAfterSourceTapTransformer;
 import com.dataartisans.flink.cascading.planner.rules.DoubleBoundaryRemovalTransformer;
 import com.dataartisans.flink.cascading.planner.rules.TopDownSplitBoundariesNodePartitioner;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
 
 public class FlinkConnector extends FlowConnector {
 
 	List<String> classPath = new ArrayList<String>();
 
+	// bounds the concurrently running jobs of all flows of this connector, null if unbounded
+	private Semaphore jobSlots;
+
 	public FlinkConnector() {
 		this(new Properties());
 	}
 
 	public FlinkConnector(Map<Object, Object> properties) {
 		super(properties);
+
+		Object maxConcurrentJobs = properties.get(FlinkConfigConstants.MAX_CONCURRENT_JOBS);
+		if(maxConcurrentJobs != null && Integer.parseInt(maxConcurrentJobs.toString()) > 0) {
+			this.jobSlots = new Semaphore(Integer.parseInt(maxConcurrentJobs.toString()), true);
+		}
 	}
 
 	@Override
@@ -71,7 +81,7 @@ public class FlinkConnector extends FlowConnector {
 
 	@Override
 	protected FlowPlanner createFlowPlanner() {
-		return new FlinkPlanner(classPath);
+		return new FlinkPlanner(classPath, jobSlots);
 	}
 
 	@Override
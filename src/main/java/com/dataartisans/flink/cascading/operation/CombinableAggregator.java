@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.operation;
+
+import cascading.operation.Aggregator;
+
+/**
+ * An Aggregator whose result can be computed from partial results.
+ * The aggregator is applied to subsets of a group before the data is shuffled and each call of
+ * complete() must emit exactly one tuple. After the shuffle, the emitted tuples are passed as
+ * arguments to the merge aggregator which must declare the same fields as this aggregator.
+ */
+public interface CombinableAggregator<Context> extends Aggregator<Context> {
+
+	/**
+	 * Returns the aggregator that merges the partial results of this aggregator.
+	 * Aggregators which can be applied to their own results (such as sum, min, or max) may return themselves.
+	 *
+	 * @return The aggregator to merge partial results.
+	 */
+	Aggregator getMergeAggregator();
+
+}
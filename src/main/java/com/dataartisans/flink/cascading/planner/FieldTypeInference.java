@@ -0,0 +1,340 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowElement;
+import cascading.flow.FlowNode;
+import cascading.flow.planner.Scope;
+import cascading.flow.planner.graph.ElementGraph;
+import cascading.flow.planner.process.FlowNodeGraph;
+import cascading.operation.Operation;
+import cascading.operation.aggregator.Count;
+import cascading.pipe.Boundary;
+import cascading.pipe.Checkpoint;
+import cascading.pipe.CoGroup;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.HashJoin;
+import cascading.pipe.Merge;
+import cascading.pipe.Operator;
+import cascading.pipe.Pipe;
+import cascading.pipe.Splice;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.pipe.joiner.Joiner;
+import cascading.pipe.joiner.LeftJoin;
+import cascading.pipe.joiner.MixedJoin;
+import cascading.pipe.joiner.OuterJoin;
+import cascading.pipe.joiner.RightJoin;
+import cascading.scheme.hadoop.TextDelimited;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Infers the types of fields which are not declared by the assembly.
+ * Types are propagated in topological order from the source taps through all nodes of a step. Known types
+ * originate from typed source fields, from delimited text sources (which produce Strings if no types are
+ * declared), from declared operation results, and from the results of Cascading's Count aggregator.
+ * A field which is passed on unmodified by an element keeps its type.
+ * Fields of a Merge or GroupBy are only typed if all inputs agree. Joins concatenate the types of their inputs
+ * if they use one of Cascading's built-in joiners.
+ */
+public class FieldTypeInference {
+
+	private final Map<FlowElement, Map<Comparable, Type>> types = new HashMap<>();
+
+	// joins may rename fields, their types are tracked by position
+	private final Map<FlowElement, List<Type>> joinTypes = new HashMap<>();
+
+	public FieldTypeInference(FlowNodeGraph flowNodeGraph) {
+
+		Iterator<FlowNode> nodes = flowNodeGraph.getTopologicalIterator();
+		while(nodes.hasNext()) {
+			FlowNode node = nodes.next();
+			for(FlowElement sink : node.getSinkElements()) {
+				if(!(sink instanceof Tap)) {
+					getTypes(node, sink);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the output fields of a node with all types that were inferred for them.
+	 * Fields without declared or inferred type are typed as Object.
+	 *
+	 * @param node The node.
+	 * @param fields The output fields of the node.
+	 * @return The output fields with inferred types or the given fields if no type was inferred.
+	 */
+	public Fields getTypedFields(FlowNode node, Fields fields) {
+
+		Set<FlowElement> sinks = node.getSinkElements();
+		if(sinks.size() != 1 || !fields.isDefined()) {
+			return fields;
+		}
+		Map<Comparable, Type> known = types.get(sinks.iterator().next());
+		if(known == null || known.isEmpty()) {
+			return fields;
+		}
+
+		Type[] fieldTypes = new Type[fields.size()];
+		boolean inferred = false;
+		for(int i=0; i<fieldTypes.length; i++) {
+			Type declared = fields.getType(i);
+			Type type = known.get(fields.get(i));
+			if(isKnown(declared)) {
+				fieldTypes[i] = declared;
+			}
+			else if(type != null) {
+				fieldTypes[i] = type;
+				inferred = true;
+			}
+			else {
+				fieldTypes[i] = Object.class;
+			}
+		}
+		return inferred ? fields.applyTypes(fieldTypes) : fields;
+	}
+
+	/**
+	 * Returns the known types of the outgoing fields of an element by field name.
+	 */
+	private Map<Comparable, Type> getTypes(FlowNode node, FlowElement element) {
+
+		Map<Comparable, Type> known = types.get(element);
+		if(known != null) {
+			return known;
+		}
+
+		ElementGraph graph = node.getElementGraph();
+		Set<Scope> inScopes = graph.incomingEdgesOf(element);
+
+		if(element instanceof Tap) {
+			known = getSourceTypes((Tap)element);
+		}
+		else if(inScopes.isEmpty()) {
+			known = Collections.emptyMap();
+		}
+		else if(element instanceof CoGroup || element instanceof HashJoin) {
+			joinTypes.put(element, getJoinTypes(node, (Splice)element));
+			known = Collections.emptyMap();
+		}
+		else if(element instanceof Each || element instanceof Every) {
+			Scope inScope = inScopes.iterator().next();
+			known = getOperatorTypes((Operator)element, ForwardedFields.getFields(inScope),
+					getScopeTypes(node, inScope));
+		}
+		else if(element instanceof Boundary || element instanceof Checkpoint || element instanceof Merge ||
+				element instanceof GroupBy || element.getClass().equals(Pipe.class)) {
+			// passes all fields unmodified
+			List<Map<Comparable, Type>> inTypes = new ArrayList<>(inScopes.size());
+			for(Scope inScope : inScopes) {
+				inTypes.add(getScopeTypes(node, inScope));
+			}
+			known = intersect(inTypes);
+		}
+		else {
+			known = Collections.emptyMap();
+		}
+
+		types.put(element, known);
+		return known;
+	}
+
+	/**
+	 * Returns the known types of the fields of a scope, including the types declared by the scope.
+	 */
+	private Map<Comparable, Type> getScopeTypes(FlowNode node, Scope scope) {
+
+		FlowElement source = node.getElementGraph().getEdgeSource(scope);
+		Map<Comparable, Type> sourceTypes = getTypes(node, source);
+		Fields fields = ForwardedFields.getFields(scope);
+		if(!fields.isDefined()) {
+			return Collections.emptyMap();
+		}
+
+		List<Type> positionalTypes = joinTypes.get(source);
+		if(positionalTypes != null && positionalTypes.size() != fields.size()) {
+			positionalTypes = Collections.emptyList();
+		}
+
+		Map<Comparable, Type> known = new HashMap<>();
+		for(int i=0; i<fields.size(); i++) {
+			Type type;
+			if(isKnown(fields.getType(i))) {
+				type = fields.getType(i);
+			}
+			else if(positionalTypes != null) {
+				type = positionalTypes.isEmpty() ? null : positionalTypes.get(i);
+			}
+			else {
+				type = sourceTypes.get(fields.get(i));
+			}
+			if(type != null) {
+				known.put(fields.get(i), type);
+			}
+		}
+		return known;
+	}
+
+	private Map<Comparable, Type> getOperatorTypes(Operator operator, Fields inFields, Map<Comparable, Type> inTypes) {
+
+		boolean modifiesValues = operator instanceof Each ? ((Each)operator).isFunction() :
+				!((Every)operator).isGroupAssertion();
+		if(!modifiesValues) {
+			// filters and assertions do not modify values
+			return inTypes;
+		}
+
+		Map<Comparable, Type> known = new HashMap<>();
+
+		// incoming fields which are passed on unmodified
+		Set<Comparable> modified = ForwardedFields.getModifiedFields(operator, inFields);
+		if(modified != null) {
+			for(Map.Entry<Comparable, Type> entry : inTypes.entrySet()) {
+				if(!modified.contains(entry.getKey())) {
+					known.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+
+		// results of the operation
+		Fields declared = operator.getOperation().getFieldDeclaration();
+		if(declared.isDefined()) {
+			Type resultType = getResultType(operator.getOperation());
+			for(int i=0; i<declared.size(); i++) {
+				Type type = isKnown(declared.getType(i)) ? declared.getType(i) : resultType;
+				if(type != null) {
+					known.put(declared.get(i), type);
+				}
+				else {
+					known.remove(declared.get(i));
+				}
+			}
+		}
+		return known;
+	}
+
+	/**
+	 * Returns the types of the outgoing fields of a join by position.
+	 */
+	private List<Type> getJoinTypes(FlowNode node, Splice join) {
+
+		if(join.isSelfJoin() || !isBuiltInJoiner(join.getJoiner())) {
+			return Collections.emptyList();
+		}
+
+		// concatenate the fields of all inputs in the order of the join's pipes
+		Map<String, Integer> posMap = join.getPipePos();
+		Scope[] inScopes = new Scope[posMap.size()];
+		for(Scope inScope : node.getElementGraph().incomingEdgesOf(join)) {
+			Integer pos = posMap.get(inScope.getName());
+			if(pos == null) {
+				return Collections.emptyList();
+			}
+			inScopes[pos] = inScope;
+		}
+
+		List<Type> joinedTypes = new ArrayList<>();
+		for(Scope inScope : inScopes) {
+			if(inScope == null) {
+				return Collections.emptyList();
+			}
+			Fields inFields = ForwardedFields.getFields(inScope);
+			if(!inFields.isDefined()) {
+				return Collections.emptyList();
+			}
+			Map<Comparable, Type> inTypes = getScopeTypes(node, inScope);
+			for(int i=0; i<inFields.size(); i++) {
+				joinedTypes.add(inTypes.get(inFields.get(i)));
+			}
+		}
+		return joinedTypes;
+	}
+
+	private static Map<Comparable, Type> getSourceTypes(Tap tap) {
+
+		Fields fields = tap.getSourceFields();
+		if(!fields.isDefined()) {
+			return Collections.emptyMap();
+		}
+
+		// delimited text is not parsed if no types are declared
+		boolean strings = tap.getScheme() instanceof TextDelimited;
+
+		Map<Comparable, Type> known = new HashMap<>();
+		for(int i=0; i<fields.size(); i++) {
+			if(isKnown(fields.getType(i))) {
+				known.put(fields.get(i), fields.getType(i));
+			}
+			else if(strings) {
+				known.put(fields.get(i), String.class);
+			}
+		}
+		return known;
+	}
+
+	/**
+	 * Returns the type of the results of an operation if it does not depend on the values of its arguments.
+	 */
+	private static Type getResultType(Operation operation) {
+
+		// Sum and Average are not typed, their result type can be set without declaring it on the result fields
+		if(operation instanceof Count) {
+			return Long.class;
+		}
+		else {
+			return null;
+		}
+	}
+
+	private static boolean isBuiltInJoiner(Joiner joiner) {
+
+		return joiner instanceof InnerJoin || joiner instanceof LeftJoin || joiner instanceof RightJoin ||
+				joiner instanceof OuterJoin || joiner instanceof MixedJoin;
+	}
+
+	private static Map<Comparable, Type> intersect(List<Map<Comparable, Type>> inTypes) {
+
+		Map<Comparable, Type> known = new HashMap<>(inTypes.get(0));
+		for(Map<Comparable, Type> other : inTypes.subList(1, inTypes.size())) {
+			Iterator<Map.Entry<Comparable, Type>> entries = known.entrySet().iterator();
+			while(entries.hasNext()) {
+				Map.Entry<Comparable, Type> entry = entries.next();
+				if(!entry.getValue().equals(other.get(entry.getKey()))) {
+					entries.remove();
+				}
+			}
+		}
+		return known;
+	}
+
+	private static boolean isKnown(Type type) {
+		return type != null && type != Object.class;
+	}
+
+}
@@ -102,6 +102,13 @@ public class FlinkFlow extends BaseFlow<Configuration> {
 		}
 	}
 
+	/**
+	 * Prepares the sinks of a flow whose step is executed by the job of another flow.
+	 */
+	void prepareFusedExecution() {
+		internalStart();
+	}
+
 	@Override
 	protected void internalClean(boolean b) {
 		// TODO: clean-up execution
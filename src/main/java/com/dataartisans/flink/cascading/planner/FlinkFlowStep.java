@@ -30,12 +30,12 @@ import cascading.flow.planner.process.FlowNodeGraph;
 import cascading.management.state.ClientState;
 import cascading.pipe.Boundary;
 import cascading.pipe.CoGroup;
+import cascading.pipe.Every;
 import cascading.pipe.GroupBy;
 import cascading.pipe.HashJoin;
 import cascading.pipe.Merge;
 import cascading.pipe.Pipe;
 import cascading.pipe.Splice;
-import cascading.pipe.joiner.BufferJoin;
 import cascading.pipe.joiner.InnerJoin;
 import cascading.pipe.joiner.Joiner;
 import cascading.pipe.joiner.LeftJoin;
@@ -46,23 +46,39 @@ import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import com.dataartisans.flink.cascading.runtime.coGroup.bufferJoin.BufferJoinKeyExtractor;
 import com.dataartisans.flink.cascading.runtime.coGroup.bufferJoin.CoGroupBufferReducer;
+import com.dataartisans.flink.cascading.runtime.coGroup.bufferJoin.SkewedCoGroupCombiner;
 import com.dataartisans.flink.cascading.runtime.coGroup.regularJoin.CoGroupReducer;
-import com.dataartisans.flink.cascading.runtime.coGroup.regularJoin.TupleAppendOuterJoiner;
-import com.dataartisans.flink.cascading.runtime.coGroup.regularJoin.TupleOuterJoiner;
+import com.dataartisans.flink.cascading.runtime.groupBy.GroupByCombiner;
+import com.dataartisans.flink.cascading.runtime.groupBy.GroupByPartitionReducer;
 import com.dataartisans.flink.cascading.runtime.groupBy.GroupByReducer;
+import com.dataartisans.flink.cascading.runtime.groupBy.PartialAggregation;
 import com.dataartisans.flink.cascading.runtime.hashJoin.NaryHashJoinJoiner;
+import com.dataartisans.flink.cascading.runtime.hashJoin.SelfHashJoinReducer;
 import com.dataartisans.flink.cascading.runtime.util.FlinkFlowProcess;
 import com.dataartisans.flink.cascading.runtime.hashJoin.BinaryHashJoinJoiner;
+import com.dataartisans.flink.cascading.runtime.hashJoin.BroadcastHashJoinMapper;
 import com.dataartisans.flink.cascading.runtime.hashJoin.JoinPrepareMapper;
 import com.dataartisans.flink.cascading.runtime.hashJoin.TupleAppendCrosser;
 import com.dataartisans.flink.cascading.runtime.hashJoin.TupleAppendJoiner;
 import com.dataartisans.flink.cascading.runtime.hashJoin.HashJoinMapper;
 import com.dataartisans.flink.cascading.runtime.each.EachMapper;
+import com.dataartisans.flink.cascading.runtime.semiJoin.BloomFilter;
+import com.dataartisans.flink.cascading.runtime.semiJoin.BloomFilterBuilder;
+import com.dataartisans.flink.cascading.runtime.semiJoin.BloomFilterMerger;
+import com.dataartisans.flink.cascading.runtime.semiJoin.BloomFilterPruner;
 import com.dataartisans.flink.cascading.runtime.sink.TapOutputFormat;
+import com.dataartisans.flink.cascading.runtime.skew.HeavyKeyFilter;
+import com.dataartisans.flink.cascading.runtime.skew.HeavyKeyReducer;
+import com.dataartisans.flink.cascading.runtime.skew.ReplicatedKeyLimiter;
+import com.dataartisans.flink.cascading.runtime.skew.TaggedInputFilter;
+import com.dataartisans.flink.cascading.runtime.skew.TaggedKeySelector;
+import com.dataartisans.flink.cascading.runtime.skew.TupleKeySelector;
 import com.dataartisans.flink.cascading.runtime.source.TapInputFormat;
 import com.dataartisans.flink.cascading.runtime.util.IdMapper;
 import com.dataartisans.flink.cascading.types.tuple.TupleTypeInfo;
+import com.dataartisans.flink.cascading.types.tuple.TupleWireFormat;
 import com.dataartisans.flink.cascading.types.tuplearray.TupleArrayTypeInfo;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
 import com.dataartisans.flink.cascading.util.FlinkConfigConverter;
 import org.apache.flink.api.common.Plan;
 import org.apache.flink.api.common.operators.Order;
@@ -71,16 +87,27 @@ import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.java.operators.DataSource;
+import org.apache.flink.api.java.operators.FlatMapOperator;
 import org.apache.flink.api.java.operators.GroupReduceOperator;
 import org.apache.flink.api.java.operators.JoinOperator;
+import org.apache.flink.api.java.operators.MapOperator;
+import org.apache.flink.api.java.operators.MapPartitionOperator;
 import org.apache.flink.api.java.operators.Operator;
 import org.apache.flink.api.java.operators.PartitionOperator;
+import org.apache.flink.api.java.operators.SingleInputUdfOperator;
 import org.apache.flink.api.java.operators.SortPartitionOperator;
 import org.apache.flink.api.java.operators.SortedGrouping;
+import org.apache.flink.api.java.operators.UnionOperator;
 import org.apache.flink.api.java.operators.UnsortedGrouping;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.api.java.typeutils.GenericTypeInfo;
 import org.apache.flink.api.java.typeutils.ObjectArrayTypeInfo;
+import org.apache.flink.api.java.utils.DataSetUtils;
+import org.apache.flink.client.program.OptimizerPlanEnvironment;
+import org.apache.flink.runtime.jobgraph.JobGraph;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapred.JobConf;
@@ -88,27 +115,59 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(FlinkFlowStep.class);
 
+	private static final int DEFAULT_SKEW_SAMPLE_SIZE = 10000;
+	private static final long DEFAULT_SKEW_MAX_REPLICATED_RECORDS = 100000;
+	private static final float DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE = 0.01f;
+	private static final long DEFAULT_BLOOM_FILTER_MAX_BYTES = 16 * 1024 * 1024;
+
 	private ExecutionEnvironment env;
 	private List<String> classPath;
+	private Semaphore jobSlots;
+	private SizeEstimator sizeEstimator;
+	private ParallelismPlanner parallelismPlanner;
+	private Set<DataSet<?>> adaptedToSingleTask;
+	private Map<FlowElement, List<FlowNode>> boundaryConsumers;
+	private Map<FlowElement, Integer> bloomFilterInputs;
+	private FieldTypeInference fieldTypes;
+	private Map<Comparable, String[]> stringDictionaries;
+
+	private FusedProgram fusedProgram;
+
+	private PlanCache planCache;
+	private String planFingerprint;
+	private JobGraph cachedJobGraph;
+	private boolean inputDependentPlan;
 
 	public FlinkFlowStep(ExecutionEnvironment env, ElementGraph elementGraph, FlowNodeGraph flowNodeGraph, List<String> classPath) {
+		this(env, elementGraph, flowNodeGraph, classPath, null);
+	}
+
+	public FlinkFlowStep(ExecutionEnvironment env, ElementGraph elementGraph, FlowNodeGraph flowNodeGraph, List<String> classPath,
+							Semaphore jobSlots) {
 		super(elementGraph, flowNodeGraph);
 		this.env = env;
-		this.classPath = classPath;
+		// the class path of the connector grows with every connected flow
+		this.classPath = new ArrayList<>(classPath);
+		this.jobSlots = jobSlots;
 	}
 
 	/**
@@ -128,7 +187,26 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 	}
 
 	protected FlowStepJob<Configuration> createFlowStepJob( ClientState clientState, FlowProcess<Configuration> flowProcess, Configuration initializedStepConfig ) {
-		this.buildFlinkProgram(flowProcess);
+		if(fusedProgram != null) {
+			// the program of all fused flows is built by the step of the first flow
+			if(fusedProgram.isLeader(this)) {
+				fusedProgram.build(this, flowProcess);
+			}
+			return new FlinkFlowStepJob(clientState, this, initializedStepConfig, classPath);
+		}
+
+		this.planCache = PlanCache.fromConfig(initializedStepConfig);
+		if(planCache != null && !(env instanceof OptimizerPlanEnvironment)) {
+			this.planFingerprint = planCache.fingerprint(this, initializedStepConfig, env.getParallelism(), classPath);
+			if(planFingerprint != null) {
+				this.cachedJobGraph = planCache.load(planFingerprint);
+			}
+		}
+
+		// a cached plan is submitted without translating the step
+		if(cachedJobGraph == null) {
+			this.buildFlinkProgram(flowProcess);
+		}
 		return new FlinkFlowStepJob(clientState, this, initializedStepConfig, classPath);
 	}
 
@@ -145,10 +223,60 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		return this.env;
 	}
 
+	void setExecutionEnvironment(ExecutionEnvironment env) {
+		this.env = env;
+	}
+
+	void setFusedProgram(FusedProgram fusedProgram) {
+		this.fusedProgram = fusedProgram;
+	}
+
+	/**
+	 * Returns true if this step is executed by the job of another flow.
+	 */
+	boolean isFusedFollower() {
+		return fusedProgram != null && !fusedProgram.isLeader(this);
+	}
+
+	/**
+	 * Returns the semaphore which bounds the number of concurrently running jobs or null if the number is unbounded.
+	 */
+	public Semaphore getJobSlots() {
+		return this.jobSlots;
+	}
+
 	public Plan getFlinkPlan() {
 		return this.env.createProgramPlan();
 	}
 
+	/**
+	 * Returns the cached JobGraph of this step or null if the plan of this step was not cached.
+	 */
+	public JobGraph getCachedJobGraph() {
+		return this.cachedJobGraph;
+	}
+
+	/**
+	 * Adds the compiled JobGraph of this step to the plan cache, if plan caching is enabled
+	 * and the program does not depend on the size or content of the current inputs.
+	 */
+	public void cacheJobGraph(JobGraph jobGraph) {
+		if(planCache != null && planFingerprint != null && !inputDependentPlan) {
+			planCache.store(planFingerprint, jobGraph);
+		}
+	}
+
+	/**
+	 * Marks the program of this step as depending on the size or content of the current inputs.
+	 * Such programs are not cached because they might not fit later inputs.
+	 */
+	private void setInputDependentPlan(String reason) {
+		if(!inputDependentPlan && planCache != null) {
+			LOG.info("Plan of step {} is not cached: {}", getName(), reason);
+		}
+		this.inputDependentPlan = true;
+	}
+
 	private void printFlowStep() {
 		Iterator<FlowNode> iterator = getFlowNodeGraph().getTopologicalIterator();
 
@@ -198,6 +326,28 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		Iterator<FlowNode> iterator = flowNodeGraph.getTopologicalIterator();
 
 		Map<FlowElement, DataSet<?>> flinkMemo = new HashMap<>();
+		this.sizeEstimator = new SizeEstimator();
+		this.parallelismPlanner = new ParallelismPlanner(((FlinkFlowProcess) flowProcess).getConfig());
+		this.adaptedToSingleTask = Collections.newSetFromMap(new IdentityHashMap<DataSet<?>, Boolean>());
+		this.bloomFilterInputs = new HashMap<>();
+		this.fieldTypes = getConfig().getBoolean(FlinkConfigConstants.FIELD_TYPE_INFERENCE, true) ?
+				new FieldTypeInference(getFlowNodeGraph()) : null;
+		configureTupleWireFormat();
+		// dictionaries only affect the size of shuffled records, so a cached plan reuses them without sampling
+		StringDictionarySampler dictionarySampler = new StringDictionarySampler(getConfig());
+		this.stringDictionaries = dictionarySampler.isEnabled() ?
+				dictionarySampler.sample(flowProcess, getSourceTaps()) : Collections.<Comparable, String[]>emptyMap();
+
+		// parallelism of CoGroups, chosen when their inputs are prepared
+		Map<FlowElement, Integer> coGroupDops = new HashMap<>();
+
+		// consumer nodes of all boundaries and map nodes whose translation is deferred for fusion
+		this.boundaryConsumers = getBoundaryConsumers(flowNodeGraph);
+		Map<FlowElement, List<FlowNode>> fusedMapNodes = new HashMap<>();
+
+		// results of nodes which are shared with other flows via the result cache
+		ResultCache resultCache = ResultCache.fromConfig(this.getConfig());
+		Map<FlowElement, List<FlowNode>> producers = resultCache != null ? getProducers(flowNodeGraph) : null;
 
 		while(iterator.hasNext()) {
 			FlowNode node = iterator.next();
@@ -207,6 +357,22 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 			Set<FlowElement> sinks = getSinks(node);
 			Set<FlowElement> inner = getInnerElements(node);
 
+			// substitute the result of the node if it was cached by a previous flow
+			String resultFingerprint = null;
+			if(resultCache != null && isCacheableResult(node, sources, sinks, inner)) {
+				resultFingerprint = getResultFingerprint(resultCache, node, producers);
+				DataSet<Tuple> cached = resultFingerprint != null ?
+						resultCache.read(env, resultFingerprint, numMappers) : null;
+				if(cached != null) {
+					// translated predecessors without other consumers are not part of the program
+					for(FlowElement source : sources) {
+						fusedMapNodes.remove(source);
+					}
+					flinkMemo.put(getSingle(sinks), cached);
+					continue;
+				}
+			}
+
 			// SOURCE
 			if (sources.size() == 1 &&
 					allOfType(sources, Tap.class) &&
@@ -214,6 +380,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					allOfType(sinks, Boundary.class)) {
 
 				DataSet<Tuple> sourceFlow = translateSource(flowProcess, env, node, numMappers);
+				applySelectivityHints(sourceFlow, Collections.singletonList(node));
 				for(FlowElement sink : sinks) {
 					flinkMemo.put(sink, sourceFlow);
 				}
@@ -264,7 +431,13 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					allOfType(sources, GroupBy.class)) {
 
 				DataSet<Tuple> input = (DataSet<Tuple>)flinkMemo.get(getSingle(sources));
-				DataSet<Tuple> grouped = translateGroupBy(input, node, numReducers);
+				int dop = parallelismPlanner.getParallelism("reduce-" + node.getID(),
+						sizeEstimator.getEstimatedBytes(input), numReducers);
+				DataSet<Tuple> grouped = translateGroupBy(input, node, dop);
+				if(dop == 1 && numReducers != 1) {
+					adaptedToSingleTask.add(grouped);
+				}
+				applySelectivityHints(grouped, Collections.singletonList(node));
 				for(FlowElement sink : sinks) {
 					flinkMemo.put(sink, grouped);
 				}
@@ -283,8 +456,16 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					coGroupInputs.add((DataSet<Tuple>)flinkMemo.get(e));
 				}
 
+				long inputBytes = 0;
+				for(DataSet<Tuple> coGroupInput : coGroupInputs) {
+					long bytes = sizeEstimator.getEstimatedBytes(coGroupInput);
+					inputBytes = (inputBytes < 0 || bytes < 0) ? -1 : inputBytes + bytes;
+				}
+				int dop = parallelismPlanner.getParallelism("coGroup " + coGroup.getName(), inputBytes, numReducers);
+				coGroupDops.put(coGroup, dop);
+
 				// prepare coGroup input
-				DataSet<?> input = prepareCoGroupInput(coGroupInputs, node, numReducers);
+				DataSet<?> input = prepareCoGroupInput(coGroupInputs, node, dop);
 				flinkMemo.put(coGroup, input);
 			}
 			// COGROUP (Single CoGroup source)
@@ -294,7 +475,12 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 				CoGroup coGroup = (CoGroup)getSingle(sources);
 
 				DataSet<?> input = flinkMemo.get(coGroup);
-				DataSet<Tuple> coGrouped = translateCoGroup(input, node, numReducers);
+				int dop = coGroupDops.get(coGroup);
+				DataSet<Tuple> coGrouped = translateCoGroup(input, node, dop);
+				if(dop == 1 && numReducers != 1) {
+					adaptedToSingleTask.add(coGrouped);
+				}
+				applySelectivityHints(coGrouped, Collections.singletonList(node));
 
 				for(FlowElement sink : sinks) {
 					flinkMemo.put(sink, coGrouped);
@@ -312,6 +498,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 				}
 
 				DataSet<Tuple> joined = translateHashJoin(hashJoinInputs, node);
+				applySelectivityHints(joined, Collections.singletonList(node));
 				for(FlowElement sink : sinks) {
 					flinkMemo.put(sink, joined);
 				}
@@ -330,7 +517,9 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					mergeInputs.add((DataSet<Tuple>)flinkMemo.get(e));
 				}
 
-				DataSet<Tuple> unioned = translateMerge(mergeInputs, node);
+				List<FlowNode> mergeConsumers = boundaryConsumers.get(getSingle(sinks));
+				boolean materialize = mergeConsumers == null || mergeConsumers.size() > 1;
+				DataSet<Tuple> unioned = translateMerge(mergeInputs, node, materialize);
 				for(FlowElement sink : sinks) {
 					flinkMemo.put(sink, unioned);
 				}
@@ -339,45 +528,159 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 			else if (sources.size() == 1 &&
 					allOfType(sources, Boundary.class)) {
 
-				DataSet<Tuple> input = (DataSet<Tuple>)flinkMemo.get(getSingle(sources));
-				DataSet<Tuple> mapped = translateMap(input, node);
-				for(FlowElement sink : sinks) {
-					flinkMemo.put(sink, mapped);
+				FlowElement source = getSingle(sources);
+				List<FlowNode> mapNodes = fusedMapNodes.remove(source);
+				if(mapNodes == null) {
+					mapNodes = new ArrayList<>();
+				}
+				mapNodes.add(node);
+
+				if(isFusableWithSuccessor(node, boundaryConsumers)) {
+					// defer translation and fuse node with its successor
+					FlowElement sink = getSingle(sinks);
+					fusedMapNodes.put(sink, mapNodes);
+					flinkMemo.put(sink, flinkMemo.get(source));
+				}
+				else {
+					DataSet<Tuple> input = (DataSet<Tuple>)flinkMemo.get(source);
+					DataSet<Tuple> mapped = translateMap(input, mapNodes);
+					applySelectivityHints(mapped, mapNodes);
+					for(FlowElement sink : sinks) {
+						flinkMemo.put(sink, mapped);
+					}
 				}
 			}
 			else {
 				throw new RuntimeException("Could not translate this node: "+node.getElementGraph().vertexSet());
 			}
+
+			// cache the result of the node unless its translation was deferred for fusion
+			if(resultFingerprint != null && !fusedMapNodes.containsKey(getSingle(sinks))) {
+				resultCache.write((DataSet<Tuple>)flinkMemo.get(getSingle(sinks)), resultFingerprint);
+			}
+		}
+
+	}
+
+	/**
+	 * Returns true if the result of a node may be cached, i.e., if caching was requested for the node and
+	 * the node computes a single result which is not a plain copy of its input.
+	 */
+	private boolean isCacheableResult(FlowNode node, Set<FlowElement> sources, Set<FlowElement> sinks, Set<FlowElement> inner) {
+
+		if(sinks.size() != 1 || !allOfType(sinks, Boundary.class) || allOfType(sources, Tap.class)) {
+			return false;
 		}
+		if(inner.size() == 0 && allOfType(sources, Boundary.class)) {
+			return false;
+		}
+		return getNodeConfig(node).getBoolean(FlinkConfigConstants.RESULT_CACHE, false);
+	}
+
+	private String getResultFingerprint(ResultCache resultCache, FlowNode node, Map<FlowElement, List<FlowNode>> producers) {
+
+		// collect the node and all nodes it transitively consumes
+		List<FlowNode> lineage = new ArrayList<>();
+		List<Configuration> configs = new ArrayList<>();
+		Set<FlowNode> visited = new HashSet<>();
+		ArrayDeque<FlowNode> open = new ArrayDeque<>();
+		open.add(node);
+
+		while(!open.isEmpty()) {
+			FlowNode next = open.poll();
+			if(!visited.add(next)) {
+				continue;
+			}
+			lineage.add(next);
+			configs.add(getNodeConfig(next));
+			for(FlowElement source : getSources(next)) {
+				List<FlowNode> sourceProducers = producers.get(source);
+				if(sourceProducers != null) {
+					open.addAll(sourceProducers);
+				}
+			}
+		}
+
+		return resultCache.fingerprint(lineage, configs);
+	}
 
+	/**
+	 * Scales the size estimate of the output of one or more (fused) nodes by their selectivity hints.
+	 */
+	private void applySelectivityHints(DataSet<?> output, List<FlowNode> nodes) {
+
+		float selectivity = 1.0f;
+		for(FlowNode node : nodes) {
+			selectivity *= getNodeConfig(node).getFloat(FlinkConfigConstants.SELECTIVITY, 1.0f);
+		}
+		if(selectivity != 1.0f) {
+			sizeEstimator.applySelectivity(output, selectivity);
+		}
 	}
 
 	private DataSet<Tuple> translateSource(FlowProcess flowProcess, ExecutionEnvironment env, FlowNode node, int dop) {
 
 		Tap tap = this.getSingle(node.getSourceTaps());
+		if(fusedProgram != null && fusedProgram.isPassed(tap)) {
+			// data is passed from a fused flow
+			return fusedProgram.getResult(tap);
+		}
+
 		JobConf tapConfig = new JobConf(this.getNodeConfig(node));
 		tap.sourceConfInit(flowProcess, tapConfig);
 		tapConfig.set( "cascading.step.source", Tap.id( tap ) );
 
-		Fields outFields = tap.getSourceFields();
+		Fields outFields = inferTypes(node, tap.getSourceFields());
 		registerKryoTypes(outFields);
 
+		// null source fields which are not referenced by any subsequent pipe.
+		// traps must receive the tuples as they were read, so projection is disabled if the step has traps.
+		int[] projection = null;
+		if(getNodeConfig(node).getBoolean(FlinkConfigConstants.PROJECTION_PUSHDOWN, false) && getTrapMap().isEmpty()) {
+			projection = SourceProjection.getReferencedPositions(node, tap, boundaryConsumers);
+		}
+		if(projection != null) {
+			// schemes may use the referenced fields to skip parsing the others
+			tapConfig.setStrings(FlinkConfigConstants.SOURCE_PROJECTED_FIELDS, getFieldNames(outFields, projection));
+			LOG.info("Source {} reads {} of {} fields.", tap.getIdentifier(), projection.length, outFields.size());
+		}
+
 		JobConf sourceConfig = new JobConf(this.getNodeConfig(node));
 		MultiInputFormat.addInputFormat(sourceConfig, tapConfig);
 
-		DataSet<Tuple> src = env
-				.createInput(new TapInputFormat(node), new TupleTypeInfo(outFields))
+		DataSource<Tuple> src = env
+				.createInput(new TapInputFormat(node, projection), new TupleTypeInfo(outFields))
 						.name(tap.getIdentifier())
 						.setParallelism(dop)
 						.withParameters(FlinkConfigConverter.toFlinkConfig(new Configuration(sourceConfig)));
 
+		// adapt parallelism to estimated source size
+		src.setParallelism(parallelismPlanner.getParallelism(tap.getIdentifier(), sizeEstimator.getEstimatedBytes(src), dop));
+
 		return src;
 
 	}
 
+	private String[] getFieldNames(Fields fields, int[] positions) {
+
+		String[] names = new String[positions.length];
+		for(int i=0; i<positions.length; i++) {
+			names[i] = fields.get(positions[i]).toString();
+		}
+		return names;
+	}
+
 	private void translateSink(FlowProcess flowProcess, DataSet<Tuple> input, FlowNode node) {
 
 		Tap tap = this.getSingle(node.getSinkTaps());
+		if(fusedProgram != null && fusedProgram.isPassed(tap)) {
+			// pass data to fused flows
+			fusedProgram.putResult(tap, input, "pass-" + node.getID());
+			if(!fusedProgram.isWritten(tap)) {
+				return;
+			}
+		}
+
 		Configuration sinkConfig = this.getNodeConfig(node);
 		tap.sinkConfInit(flowProcess, sinkConfig);
 
@@ -385,7 +688,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		int inputDop = ((Operator)input).getParallelism();
 		int dop;
 
-		if (inputDop == 1) {
+		if (inputDop == 1 && !adaptedToSingleTask.contains(input)) {
 			// input operators have dop 1. Probably because they perform a non-keyed reduce or coGroup
 			dop = 1;
 		}
@@ -397,6 +700,10 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					// we must set the desired dop also for reduce and related operators
 					adjustDopOfReduceOrCoGroup((GroupReduceOperator) input, desiredDop);
 				}
+				else if (isRangeSortedGroupBy(input)) {
+					// input is a parallel total-order sort. Each sink task must write exactly one sorted range.
+					adjustDopOfRangeSortedGroupBy((MapPartitionOperator) input, desiredDop);
+				}
 				dop = desiredDop;
 			}
 			else {
@@ -413,7 +720,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 	}
 
 	/**
-	 * Adjusts the parallelism of a GroupReduce operator (and all associated operators) that
+	 * Adjusts the parallelism of a GroupReduce operator that
 	 * belongs to a Cascading GroupBy or CoGroup pipe.
 	 * This needs to be done if the result must be emitted in order and a specific sink
 	 * parallelism is requested.
@@ -424,59 +731,165 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 	private void adjustDopOfReduceOrCoGroup(GroupReduceOperator reduceOp, int dop) {
 
 		reduceOp.setParallelism(dop);
+	}
 
-		DataSet reduceInput = reduceOp.getInput();
-		if (reduceInput instanceof SortPartitionOperator) {
-			// We have a Reduce operator whose grouping keys need to be reversely ordered.
-			// This yields: input -> PartitionOperator -> SortPartitionOperator -> GroupReduceOperator.
-			// The DOPs of the PartitionOperator and SortPartitionOperator must be adjusted.
-			SortPartitionOperator sortOp = (SortPartitionOperator)reduceInput;
-			sortOp.setParallelism(dop);
-			DataSet sortInput = sortOp.getInput();
-			if (sortInput instanceof PartitionOperator) {
-				PartitionOperator partitionOp = (PartitionOperator)sortInput;
-				partitionOp.setParallelism(dop);
-			}
-		}
-		else if (reduceInput instanceof JoinOperator &&
-				((JoinOperator)reduceInput).getJoinHint() == JoinHint.REPARTITION_SORT_MERGE) {
-			// We have a CoGroup operator whose input is processed by one or more sort-merge outer joins.
-			// The DOPs of all outer joins must be adjusted.
-			JoinOperator joinOp = (JoinOperator)reduceInput;
-			while (joinOp != null && joinOp.getJoinHint() == JoinHint.REPARTITION_SORT_MERGE) {
-
-				joinOp.setParallelism(dop);
-				DataSet leftJoinInput = joinOp.getInput1();
-				if (leftJoinInput instanceof JoinOperator) {
-					joinOp = (JoinOperator)leftJoinInput;
-				}
-				else {
-					joinOp = null;
-				}
-			}
+	/**
+	 * Checks whether a DataSet is the result of a parallel total-order sort, i.e.,
+	 * input -> PartitionOperator -> SortPartitionOperator -> MapPartitionOperator.
+	 */
+	private boolean isRangeSortedGroupBy(DataSet<?> dataSet) {
+
+		if (!(dataSet instanceof MapPartitionOperator)) {
+			return false;
 		}
+		DataSet<?> mapInput = ((MapPartitionOperator) dataSet).getInput();
+		return mapInput instanceof SortPartitionOperator &&
+				((SortPartitionOperator) mapInput).getInput() instanceof PartitionOperator;
+	}
+
+	/**
+	 * Adjusts the parallelism of a parallel total-order sort, including its range partitioning.
+	 *
+	 * @param mapOp The operator that emits the sorted partitions
+	 * @param dop The parallelism to set
+	 */
+	private void adjustDopOfRangeSortedGroupBy(MapPartitionOperator mapOp, int dop) {
+
+		mapOp.setParallelism(dop);
+
+		SortPartitionOperator sortOp = (SortPartitionOperator) mapOp.getInput();
+		sortOp.setParallelism(dop);
+		((PartitionOperator) sortOp.getInput()).setParallelism(dop);
 	}
 
+	private DataSet<Tuple> translateMap(DataSet<Tuple> input, List<FlowNode> nodes) {
 
-	private DataSet<Tuple> translateMap(DataSet<Tuple> input, FlowNode node) {
+		FlowNode firstNode = nodes.get(0);
+		FlowNode lastNode = nodes.get(nodes.size() - 1);
 
-		Fields outFields = getOutScope(node).getOutValuesFields();
+		Fields outFields = inferTypes(lastNode, getOutScope(lastNode).getOutValuesFields());
 		registerKryoTypes(outFields);
 
 		int dop = ((Operator)input).getParallelism();
 
-		return input
-				.mapPartition(new EachMapper(node))
+		List<org.apache.flink.configuration.Configuration> fusedNodeConfigs = new ArrayList<>(nodes.size() - 1);
+		StringBuilder name = new StringBuilder("map-").append(firstNode.getID());
+		for(FlowNode fusedNode : nodes.subList(1, nodes.size())) {
+			fusedNodeConfigs.add(this.getFlinkNodeConfig(fusedNode));
+			name.append(",").append(fusedNode.getID());
+		}
+
+		MapPartitionOperator<Tuple, Tuple> mapper = input
+				.mapPartition(new EachMapper(nodes, fusedNodeConfigs))
 				.returns(new TupleTypeInfo(outFields))
-				.withParameters(this.getFlinkNodeConfig(node))
+				.withParameters(this.getFlinkNodeConfig(firstNode))
 				.setParallelism(dop)
-				.name("map-" + node.getID());
+				.name(name.toString());
+
+		return withForwardedFields(mapper, getForwardedSourcesOfMap(((TupleTypeInfo)input.getType()).getSchema(), nodes));
+
+	}
+
+	/**
+	 * Tracks the fields of the input of fused map nodes to the output of the last node.
+	 */
+	private String[] getForwardedSourcesOfMap(Fields inputFields, List<FlowNode> nodes) {
+
+		String[] forwarded = null;
+
+		for(int i=0; i<nodes.size(); i++) {
+			FlowNode node = nodes.get(i);
+			FlowElement source = getSingle(getSources(node));
 
+			Fields nodeInputFields = i == 0 ? inputFields : getOutScope(nodes.get(i - 1)).getOutValuesFields();
+			String[] sources = ForwardedFields.getSourcesByName(
+					ForwardedFields.getOutgoingFields(node, source), nodeInputFields, Fields.ALL);
+			String[] nodeForwarded = ForwardedFields.getForwardedSources(node, source, sources);
+
+			forwarded = i == 0 ? nodeForwarded : ForwardedFields.compose(forwarded, nodeForwarded);
+			if(forwarded == null) {
+				return null;
+			}
+		}
+		return forwarded;
+	}
+
+	/**
+	 * Checks whether a map node can be fused with its successor, i.e.,
+	 * if the node has a single Boundary sink which is consumed by a single map node.
+	 */
+	private boolean isFusableWithSuccessor(FlowNode node, Map<FlowElement, List<FlowNode>> boundaryConsumers) {
+
+		Set<FlowElement> sinks = getSinks(node);
+		if(sinks.size() != 1 || !allOfType(sinks, Boundary.class)) {
+			return false;
+		}
+
+		List<FlowNode> consumers = boundaryConsumers.get(getSingle(sinks));
+		return consumers != null && consumers.size() == 1 && isMapNode(consumers.get(0));
+	}
+
+	/**
+	 * Checks whether a node only streams tuples from a single Boundary source to a single Boundary sink
+	 * and would be translated into an EachMapper.
+	 */
+	private boolean isMapNode(FlowNode node) {
+
+		Set<FlowElement> sources = getSources(node);
+		Set<FlowElement> sinks = getSinks(node);
+		Set<FlowElement> inner = getInnerElements(node);
+
+		if(sources.size() != 1 || !allOfType(sources, Boundary.class) ||
+				sinks.size() != 1 || !allOfType(sinks, Boundary.class) ||
+				inner.size() == 0) {
+			return false;
+		}
+		for(FlowElement e : inner) {
+			if(e instanceof Splice) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Map<FlowElement, List<FlowNode>> getProducers(FlowNodeGraph flowNodeGraph) {
+
+		Map<FlowElement, List<FlowNode>> producers = new HashMap<>();
+		for(FlowNode node : flowNodeGraph.vertexSet()) {
+			for(FlowElement sink : getSinks(node)) {
+				List<FlowNode> sinkProducers = producers.get(sink);
+				if(sinkProducers == null) {
+					sinkProducers = new ArrayList<>();
+					producers.put(sink, sinkProducers);
+				}
+				sinkProducers.add(node);
+			}
+		}
+		return producers;
+	}
+
+	private Map<FlowElement, List<FlowNode>> getBoundaryConsumers(FlowNodeGraph flowNodeGraph) {
+
+		Map<FlowElement, List<FlowNode>> consumers = new HashMap<>();
+		for(FlowNode node : flowNodeGraph.vertexSet()) {
+			for(FlowElement source : getSources(node)) {
+				if(source instanceof Boundary) {
+					List<FlowNode> sourceConsumers = consumers.get(source);
+					if(sourceConsumers == null) {
+						sourceConsumers = new ArrayList<>();
+						consumers.put(source, sourceConsumers);
+					}
+					sourceConsumers.add(node);
+				}
+			}
+		}
+		return consumers;
 	}
 
 	private DataSet<Tuple> prepareGroupByInput(List<DataSet<Tuple>> inputs, FlowNode node) {
 
 		DataSet<Tuple> merged = null;
+		inputs = alignFieldTypes(inputs);
 
 		for(int i=0; i<inputs.size(); i++) {
 
@@ -492,7 +905,56 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 			}
 		}
 
-		return merged;
+		return applyStringDictionaries(merged, node);
+	}
+
+	/**
+	 * Maps the input to a copy of its type, such that key fields can be registered in descending order
+	 * without affecting other consumers of the input. Fields are not forwarded because an existing
+	 * ascending order of the input must not be reused for descending keys.
+	 */
+	private DataSet<Tuple> withPrivateType(DataSet<Tuple> input, FlowNode node) {
+
+		TupleTypeInfo privateType = new TupleTypeInfo(((TupleTypeInfo)input.getType()).getSchema());
+		if(!this.stringDictionaries.isEmpty()) {
+			privateType.setStringDictionaries(this.stringDictionaries);
+		}
+
+		return input
+				.map(new IdMapper())
+				.returns(privateType)
+				.setParallelism(((Operator)input).getParallelism())
+				.name("reduce-" + node.getID());
+	}
+
+	/**
+	 * Maps the input of a shuffle to a type whose String fields are serialized with the sampled dictionaries.
+	 * Returns the input if no field has a dictionary.
+	 */
+	private DataSet<Tuple> applyStringDictionaries(DataSet<Tuple> input, FlowNode node) {
+
+		if(this.stringDictionaries.isEmpty() || !(input.getType() instanceof TupleTypeInfo)) {
+			return input;
+		}
+
+		TupleTypeInfo dictionaryType = new TupleTypeInfo(((TupleTypeInfo)input.getType()).getSchema());
+		if(!dictionaryType.setStringDictionaries(this.stringDictionaries)) {
+			return input;
+		}
+
+		// all fields are forwarded, such that an existing partitioning of the input is preserved
+		String[] sources = new String[dictionaryType.getSchema().size()];
+		for(int i=0; i<sources.length; i++) {
+			sources[i] = Integer.toString(i);
+		}
+
+		MapOperator<Tuple, Tuple> mapper = input
+				.map(new IdMapper())
+				.returns(dictionaryType)
+				.setParallelism(((Operator)input).getParallelism())
+				.name("stringDictionary-" + node.getID());
+
+		return withForwardedFields(mapper, sources);
 	}
 
 	private DataSet<Tuple> translateGroupBy(DataSet<Tuple> input, FlowNode node, int dop) {
@@ -509,6 +971,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		else {
 			outFields = outScope.getOutValuesFields();
 		}
+		outFields = inferTypes(node, outFields);
 		registerKryoTypes(outFields);
 
 		// get input scope
@@ -519,59 +982,484 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		// get group sorting keys
 		Fields sortKeyFields = groupBy.getSortingSelectors().get(inScope.getName());
 
-		String[] groupKeys = registerKeyFields(input, groupKeyFields);
+		// reversed grouping keys are compared in descending order
+		boolean reversed = groupBy.isSortReversed();
+		Order sortOrder = reversed ? Order.DESCENDING : Order.ASCENDING;
+		if(reversed) {
+			// the key order is part of the type, which must not be shared with other consumers of the input
+			input = withPrivateType(input, node);
+		}
+
+		String[] groupKeys = ((TupleTypeInfo)input.getType()).registerKeyFields(groupKeyFields, sortOrder);
 		String[] sortKeys = null;
 		if (sortKeyFields != null) {
 			sortKeys = registerKeyFields(input, sortKeyFields);
 		}
-		Order sortOrder = groupBy.isSortReversed() ? Order.DESCENDING : Order.ASCENDING;
 
-		if(sortOrder == Order.DESCENDING) {
-			// translate groupBy with inverse sort order
-			return translateInverseSortedGroupBy(input, node, dop, groupKeys, sortKeys, outFields);
-		}
-		else if(groupKeys == null || groupKeys.length == 0) {
+		if(groupKeys == null || groupKeys.length == 0) {
 			// translate key-less (global) groupBy
-			return translateGlobalGroupBy(input, node, dop, sortKeys, sortOrder, outFields);
+			return translateGlobalGroupBy(input, node, dop, sortKeyFields, sortKeys, sortOrder, outFields);
 		}
 		else {
 
-			UnsortedGrouping<Tuple> grouping = input
+			// partition on a subset of the keys if a subsequent GroupBy can reuse the partitioning
+			Fields sharedKeyFields = reversed || isSkewMitigated(node, dop) ? null :
+					getSharedPartitionKeys(node, groupBy, input, groupKeyFields);
+
+			UnsortedGrouping<Tuple> grouping = partitionForReuse(input, sharedKeyFields, node, dop)
 					.groupBy(groupKeys);
 
 			if(sortKeys != null && sortKeys.length > 0) {
 				// translate groupBy with group sorting
 
 				SortedGrouping<Tuple> sortedGrouping = grouping
-						.sortGroup(sortKeys[0], Order.ASCENDING);
+						.sortGroup(sortKeys[0], sortOrder);
 				for(int i=1; i<sortKeys.length; i++) {
 					sortedGrouping = sortedGrouping
-							.sortGroup(sortKeys[i], Order.DESCENDING);
+							.sortGroup(sortKeys[i], sortOrder);
 				}
 
-				return sortedGrouping
+				GroupReduceOperator<Tuple, Tuple> reduceOp = sortedGrouping
 						.reduceGroup(new GroupByReducer(node))
 						.returns(new TupleTypeInfo(outFields))
 						.withParameters(this.getFlinkNodeConfig(node))
 						.setParallelism(dop)
 						.name("reduce-" + node.getID());
+
+				return withForwardedGroupKeys(reduceOp, node, groupBy, input, groupKeyFields);
 			}
 			else {
 				// translate groupBy without group sorting
 
-				return grouping
-						.reduceGroup(new GroupByReducer(node))
-						.returns(new TupleTypeInfo(outFields))
-						.withParameters(this.getFlinkNodeConfig(node))
-						.setParallelism(dop)
-						.name("reduce-" + node.getID());
+				PartialAggregation partialAggregation = getPartialAggregation(input, node, groupBy, groupKeyFields);
+				GroupReduceOperator<Tuple, Tuple> reduceOp;
+
+				if(partialAggregation != null) {
+					if(isSkewMitigated(node, dop)) {
+						// spread heavy keys over all tasks before combining
+						reduceOp = translateSkewedGroupBy(input, node, dop, groupKeys, groupKeyFields, sortOrder, partialAggregation, outFields);
+					}
+					else {
+						// combine aggregators before shuffling
+						reduceOp = translateCombinedGroupBy(input, node, dop, groupKeys, groupKeyFields, sortOrder, partialAggregation,
+								sharedKeyFields, outFields);
+					}
+				}
+				else {
+					reduceOp = grouping
+							.reduceGroup(new GroupByReducer(node))
+							.returns(new TupleTypeInfo(outFields))
+							.withParameters(this.getFlinkNodeConfig(node))
+							.setParallelism(dop)
+							.name("reduce-" + node.getID());
+				}
+
+				return withForwardedGroupKeys(reduceOp, node, groupBy, input, groupKeyFields);
 			}
 		}
 
 	}
 
+	private PartialAggregation getPartialAggregation(DataSet<Tuple> input, FlowNode node, GroupBy groupBy, Fields groupKeyFields) {
+
+		if(getNodeConfig(node).getBoolean(FlinkConfigConstants.COMBINE_AGGREGATORS, false)) {
+			return PartialAggregation.forNode(node, groupBy,
+					((TupleTypeInfo)input.getType()).getSchema(), groupKeyFields);
+		}
+		else {
+			return null;
+		}
+	}
+
+	private GroupReduceOperator<Tuple, Tuple> translateCombinedGroupBy(DataSet<Tuple> input, FlowNode node, int dop,
+													String[] groupKeys, Fields groupKeyFields, Order keyOrder,
+													PartialAggregation partialAggregation, Fields sharedKeyFields,
+													Fields outFields) {
+
+		// combined tuples start with the incoming fields, followed by the partial results
+		TupleTypeInfo combinedType = new TupleTypeInfo(partialAggregation.getCombinedFields());
+		String[] combinedKeys = combinedType.registerKeyFields(
+				groupKeyFields.isAll() ? partialAggregation.getIncomingFields() : groupKeyFields, keyOrder);
+
+		DataSet<Tuple> combined = input
+				.groupBy(groupKeys)
+				.combineGroup(new GroupByCombiner(node, partialAggregation))
+				.returns(combinedType)
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(((Operator)input).getParallelism())
+				.name("combine-" + node.getID());
+
+		return partitionForReuse(combined, sharedKeyFields, node, dop)
+				.groupBy(combinedKeys)
+				.reduceGroup(new GroupByReducer(node, partialAggregation))
+				.returns(new TupleTypeInfo(outFields))
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(dop)
+				.name("reduce-" + node.getID());
+	}
+
+	/**
+	 * Translates a GroupBy with combinable aggregators whose input might be skewed.
+	 * Heavy keys are identified on a sample of the input. Records with regular keys are combined and shuffled
+	 * as usual. Records with heavy keys are evenly distributed over all tasks and combined there.
+	 * All partial aggregates are merged by key. The output of skew-mitigated GroupBys is not sorted by key.
+	 */
+	private GroupReduceOperator<Tuple, Tuple> translateSkewedGroupBy(DataSet<Tuple> input, FlowNode node, int dop,
+													String[] groupKeys, Fields groupKeyFields, Order keyOrder,
+													PartialAggregation partialAggregation, Fields outFields) {
+
+		TupleTypeInfo combinedType = new TupleTypeInfo(partialAggregation.getCombinedFields());
+		String[] combinedKeys = combinedType.registerKeyFields(
+				groupKeyFields.isAll() ? partialAggregation.getIncomingFields() : groupKeyFields, keyOrder);
+
+		int inputDop = ((Operator)input).getParallelism();
+		TupleKeySelector keySelector = new TupleKeySelector(
+				partialAggregation.getIncomingFields().getPos(partialAggregation.getGroupingFields()));
+		DataSet<Tuple> heavyKeys = sampleHeavyKeys(input, keySelector, node, dop);
+
+		DataSet<Tuple> regularPartials = input
+				.filter(new HeavyKeyFilter<>(keySelector, false))
+				.withBroadcastSet(heavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.setParallelism(inputDop)
+				.name("skew-" + node.getID())
+				.groupBy(groupKeys)
+				.combineGroup(new GroupByCombiner(node, partialAggregation))
+				.returns(combinedType)
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(inputDop)
+				.name("combine-" + node.getID());
+
+		DataSet<Tuple> heavyPartials = input
+				.filter(new HeavyKeyFilter<>(keySelector, true))
+				.withBroadcastSet(heavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.setParallelism(inputDop)
+				.name("skew-" + node.getID())
+				.rebalance()
+				.setParallelism(dop)
+				.groupBy(groupKeys)
+				.combineGroup(new GroupByCombiner(node, partialAggregation))
+				.returns(combinedType)
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(dop)
+				.name("combine-" + node.getID());
+
+		return regularPartials
+				.union(heavyPartials)
+				.groupBy(combinedKeys)
+				.reduceGroup(new GroupByReducer(node, partialAggregation))
+				.returns(new TupleTypeInfo(outFields))
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(dop)
+				.name("reduce-" + node.getID());
+	}
+
+	/**
+	 * Hash partitions the input of a GroupBy on a subset of its keys, if the subset is given.
+	 */
+	private DataSet<Tuple> partitionForReuse(DataSet<Tuple> input, Fields sharedKeyFields, FlowNode node, int dop) {
+
+		if(sharedKeyFields == null) {
+			return input;
+		}
+		return input
+				.partitionByHash(registerKeyFields(input, sharedKeyFields))
+				.setParallelism(dop)
+				.name("reduce-" + node.getID());
+	}
+
+	/**
+	 * Looks for a GroupBy which directly follows a GroupBy (possibly separated by map nodes) and groups on a
+	 * subset of its keys. If the keys of the following GroupBy are forwarded from the keys of the first one,
+	 * the first GroupBy can be partitioned on the shared keys. Its output is then partitioned as required by
+	 * the following GroupBy and Flink does not shuffle it again.
+	 *
+	 * @return The shared keys if they are a proper subset of the group keys, null otherwise.
+	 */
+	private Fields getSharedPartitionKeys(FlowNode node, GroupBy groupBy, DataSet<Tuple> input, Fields groupKeyFields) {
+
+		if(!getNodeConfig(node).getBoolean(FlinkConfigConstants.PARTITIONING_REUSE, true) ||
+				groupKeyFields.hasComparators()) {
+			return null;
+		}
+
+		Fields inputFields = ((TupleTypeInfo)input.getType()).getSchema();
+		if(!inputFields.isDefined()) {
+			return null;
+		}
+		Fields keyFields = groupKeyFields.isAll() ? inputFields : groupKeyFields;
+
+		// track the grouping keys through all following map nodes
+		String[] sources = ForwardedFields.getForwardedSources(node, groupBy,
+				ForwardedFields.getSourcesByName(ForwardedFields.getOutgoingFields(node, groupBy), inputFields, keyFields));
+		FlowNode current = node;
+
+		while(sources != null) {
+
+			Set<FlowElement> sinks = getSinks(current);
+			if(sinks.size() != 1 || !allOfType(sinks, Boundary.class)) {
+				return null;
+			}
+			List<FlowNode> consumers = boundaryConsumers.get(getSingle(sinks));
+			if(consumers == null || consumers.size() != 1) {
+				return null;
+			}
+			FlowNode next = consumers.get(0);
+
+			if(isMapNode(next)) {
+				Scope outScope = getOutScope(current);
+				Fields outFields = outScope.isEvery() ? outScope.getOutGroupingFields() : outScope.getOutValuesFields();
+				sources = ForwardedFields.compose(sources, getForwardedSourcesOfMap(outFields, Collections.singletonList(next)));
+				current = next;
+			}
+			else if(getSources(next).size() == 1 && getInnerElements(next).isEmpty() &&
+					getSinks(next).size() == 1 && allOfType(getSinks(next), GroupBy.class)) {
+				// single input of a GroupBy
+				return getSharedKeys(node, inputFields, keyFields, (GroupBy)getSingle(getSinks(next)),
+						getOutScope(next), sources);
+			}
+			else {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private Fields getSharedKeys(FlowNode node, Fields inputFields, Fields keyFields,
+									GroupBy nextGroupBy, Scope nextInScope, String[] sources) {
+
+		Fields nextInputFields = nextInScope.getOutValuesFields();
+		Fields nextKeyFields = nextGroupBy.getKeySelectors().get(nextInScope.getName());
+		if(nextGroupBy.isSortReversed() || nextKeyFields.hasComparators() ||
+				!nextInputFields.isDefined() || nextInputFields.size() != sources.length) {
+			return null;
+		}
+		if(nextKeyFields.isAll()) {
+			nextKeyFields = nextInputFields;
+		}
+
+		// input positions of this GroupBy which are keys of the next GroupBy
+		Set<String> nextKeySources = new HashSet<>();
+		for(int pos : nextInputFields.getPos(nextKeyFields)) {
+			if(sources[pos] != null) {
+				nextKeySources.add(sources[pos]);
+			}
+		}
+
+		List<Comparable> shared = new ArrayList<>();
+		for(int i=0; i<keyFields.size(); i++) {
+			int pos = inputFields.getPos(keyFields.select(new Fields(i)))[0];
+			if(nextKeySources.contains(Integer.toString(pos))) {
+				shared.add(inputFields.get(pos));
+			}
+		}
+
+		if(shared.isEmpty()) {
+			return null;
+		}
+		else if(shared.size() == keyFields.size()) {
+			LOG.info("GroupBy {} reuses the partitioning of node {}.", nextGroupBy.getName(), node.getID());
+			return null;
+		}
+		else {
+			Fields sharedFields = new Fields(shared.toArray(new Comparable[shared.size()]));
+			LOG.info("Partitioning node {} on {} instead of {} so that GroupBy {} reuses the partitioning.",
+					node.getID(), sharedFields, keyFields, nextGroupBy.getName());
+			return sharedFields;
+		}
+	}
+
+	/**
+	 * Declares the grouping keys of a GroupBy as forwarded to the output fields of the node that still hold them.
+	 * Flink can then reuse the partitioning of the GroupBy for subsequent operators on the same keys.
+	 */
+	private GroupReduceOperator<Tuple, Tuple> withForwardedGroupKeys(GroupReduceOperator<Tuple, Tuple> reduceOp,
+																		FlowNode node, GroupBy groupBy, DataSet<Tuple> input, Fields groupKeyFields) {
+
+		if(groupKeyFields.hasComparators()) {
+			// custom comparators might group keys which are not equal
+			return reduceOp;
+		}
+
+		Fields inputFields = ((TupleTypeInfo)input.getType()).getSchema();
+		String[] sources = ForwardedFields.getSourcesByName(
+				ForwardedFields.getOutgoingFields(node, groupBy), inputFields, groupKeyFields);
+
+		return withForwardedFields(reduceOp, ForwardedFields.getForwardedSources(node, groupBy, sources));
+	}
+
+	/**
+	 * Tracks fields of the first input of a HashJoin or CoGroup to the output of the node.
+	 * The joiner must emit the fields of the first input first.
+	 */
+	private String[] getForwardedFirstInputSources(FlowNode node, Splice splice, Fields firstInputFields, String[] firstInputExpressions) {
+
+		Fields spliceFields = ForwardedFields.getOutgoingFields(node, splice);
+		if(spliceFields == null || !spliceFields.isDefined() || !firstInputFields.isDefined() ||
+				spliceFields.size() < firstInputFields.size()) {
+			return null;
+		}
+
+		String[] sources = new String[spliceFields.size()];
+		System.arraycopy(firstInputExpressions, 0, sources, 0, firstInputExpressions.length);
+
+		return ForwardedFields.getForwardedSources(node, splice, sources);
+	}
+
+	private <I, O extends SingleInputUdfOperator<I, Tuple, O>> O withForwardedFields(O operator, String[] sources) {
+
+		String[] forwardedFields = ForwardedFields.toAnnotations(sources);
+		if(forwardedFields.length > 0) {
+			operator.withForwardedFields(forwardedFields);
+		}
+		return operator;
+	}
+
+	private boolean isBloomFilterJoin(FlowNode node) {
+		return getNodeConfig(node).getBoolean(FlinkConfigConstants.BLOOM_FILTER_JOIN, false);
+	}
+
+	/**
+	 * Returns the input of an inner join with the fewest estimated records or -1 if no input has an estimate
+	 * or keys are compared with custom comparators, which might not be consistent with the filter's hashing.
+	 */
+	private int selectBloomFilterInput(List<DataSet<Tuple>> inputs, Fields[] keyFields) {
+
+		setInputDependentPlan("Bloom filter input is chosen by input size");
+
+		int filterInput = -1;
+		long minRecords = Long.MAX_VALUE;
+
+		for(int i=0; i<inputs.size(); i++) {
+			if(keyFields[i].hasComparators()) {
+				return -1;
+			}
+			long records = sizeEstimator.getEstimatedRecords(inputs.get(i));
+			if(records >= 0 && records < minRecords) {
+				filterInput = i;
+				minRecords = records;
+			}
+		}
+		return filterInput;
+	}
+
+	/**
+	 * Builds a Bloom filter over the keys of one input of an inner join and drops all tuples of the other
+	 * inputs whose keys are not contained in the filter. The filter is sized for the estimated number of
+	 * records of the filter input, which bounds its number of distinct keys.
+	 *
+	 * @return The filtered inputs or the original inputs if the filter would exceed its maximum size.
+	 */
+	private List<DataSet<Tuple>> applyBloomFilter(List<DataSet<Tuple>> inputs, FlowNode node, int filterInput,
+													Fields[] inputFields, Fields[] keyFields) {
+
+		setInputDependentPlan("Bloom filter is sized by input size");
+
+		long numKeys = sizeEstimator.getEstimatedRecords(inputs.get(filterInput));
+		if(numKeys < 0) {
+			LOG.info("Not filtering join of node {}, number of keys is unknown.", node.getID());
+			return inputs;
+		}
+
+		Configuration config = getNodeConfig(node);
+		double falsePositiveRate = config.getFloat(FlinkConfigConstants.BLOOM_FILTER_FALSE_POSITIVE_RATE,
+				DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_RATE);
+		long maxBytes = config.getLong(FlinkConfigConstants.BLOOM_FILTER_MAX_BYTES, DEFAULT_BLOOM_FILTER_MAX_BYTES);
+
+		long numBits = BloomFilter.getOptimalNumBits(numKeys, falsePositiveRate);
+		if(numBits / 8 > maxBytes) {
+			LOG.info("Not filtering join of node {}, a Bloom filter for {} keys would exceed {} bytes.",
+					node.getID(), numKeys, maxBytes);
+			return inputs;
+		}
+		int numHashFunctions = BloomFilter.getOptimalNumHashFunctions(numKeys, numBits);
+
+		LOG.info("Filtering join of node {} with a Bloom filter of {} bytes over the keys of input {}.",
+				node.getID(), numBits / 8, filterInput);
+
+		DataSet<Tuple> filterSource = inputs.get(filterInput);
+		DataSet<BloomFilter> filter = filterSource
+				.mapPartition(new BloomFilterBuilder(inputFields[filterInput].getPos(keyFields[filterInput]),
+						numBits, numHashFunctions))
+				.returns(new GenericTypeInfo<>(BloomFilter.class))
+				.setParallelism(((Operator)filterSource).getParallelism())
+				.name("bloomfilter-" + node.getID())
+				.reduce(new BloomFilterMerger())
+				.name("bloomfilter-" + node.getID());
+
+		List<DataSet<Tuple>> filtered = new ArrayList<>(inputs.size());
+		for(int i=0; i<inputs.size(); i++) {
+			DataSet<Tuple> input = inputs.get(i);
+			if(i == filterInput) {
+				filtered.add(input);
+			}
+			else {
+				filtered.add(input
+						.filter(new BloomFilterPruner(inputFields[i].getPos(keyFields[i])))
+						.withBroadcastSet(filter, BloomFilterPruner.BLOOM_FILTER)
+						.setParallelism(((Operator)input).getParallelism())
+						.name("bloomfilter-" + node.getID()));
+			}
+		}
+		return filtered;
+	}
+
+	private boolean isSkewMitigated(FlowNode node, int dop) {
+		return dop > 1 && getNodeConfig(node).getBoolean(FlinkConfigConstants.SKEW_MITIGATION, false);
+	}
+
+	/**
+	 * Samples an input and returns the keys whose share of the sample exceeds the heavy key fraction.
+	 * By default, a key is heavy if its records alone exceed the fair share of a single task.
+	 */
+	private <T> DataSet<Tuple> sampleHeavyKeys(DataSet<T> input, KeySelector<T, Tuple> keySelector, FlowNode node, int dop) {
+
+		Configuration config = getNodeConfig(node);
+		int sampleSize = config.getInt(FlinkConfigConstants.SKEW_MITIGATION_SAMPLE_SIZE, DEFAULT_SKEW_SAMPLE_SIZE);
+		float heavyKeyFraction = config.getFloat(FlinkConfigConstants.SKEW_MITIGATION_HEAVY_KEY_FRACTION, 1.0f / dop);
+
+		return DataSetUtils.sampleWithSize(input, false, sampleSize)
+				.reduceGroup(new HeavyKeyReducer<>(keySelector, heavyKeyFraction))
+				.returns(new TupleTypeInfo(Fields.UNKNOWN))
+				.setParallelism(1)
+				.name("sample-" + node.getID());
+	}
+
 	private DataSet<Tuple> translateGlobalGroupBy(DataSet<Tuple> input, FlowNode node, int dop,
-													String[] sortKeys, Order sortOrder, Fields outFields) {
+													Fields sortKeyFields, String[] sortKeys, Order sortOrder, Fields outFields) {
+
+		if(sortKeys != null && sortKeys.length > 0 && dop > 1 &&
+				getNodeConfig(node).getBoolean(FlinkConfigConstants.PARALLEL_GLOBAL_SORT, false)) {
+
+			if(!containsEvery(node)) {
+				// sort in parallel
+				return translateRangeSortedGroupBy(input, node, dop, sortKeyFields, sortKeys, sortOrder, outFields);
+			}
+			else {
+				LOG.warn("Cannot sort GroupBy of node " + node.getID() + " in parallel because it is followed by an Every. " +
+						"Sorting with parallelism 1.");
+			}
+		}
+
+		if(sortKeys == null || sortKeys.length == 0) {
+
+			GroupBy groupBy = (GroupBy) node.getSourceElements().iterator().next();
+			PartialAggregation partialAggregation = getPartialAggregation(input, node, groupBy, Fields.NONE);
+
+			if(partialAggregation != null) {
+				// compute partial aggregates in parallel and merge them in a single reducer
+				return input
+						.combineGroup(new GroupByCombiner(node, partialAggregation))
+						.returns(new TupleTypeInfo(partialAggregation.getCombinedFields()))
+						.withParameters(this.getFlinkNodeConfig(node))
+						.setParallelism(((Operator)input).getParallelism())
+						.name("combine-" + node.getID())
+						.reduceGroup(new GroupByReducer(node, partialAggregation))
+						.returns(new TupleTypeInfo(outFields))
+						.withParameters(this.getFlinkNodeConfig(node))
+						.setParallelism(1)
+						.name("reduce-" + node.getID());
+			}
+		}
 
 		DataSet<Tuple> result = input;
 
@@ -599,63 +1487,58 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 
 	}
 
-	private DataSet<Tuple> translateInverseSortedGroupBy(DataSet<Tuple> input, FlowNode node, int dop,
-															String[] groupKeys, String[] sortKeys, Fields outFields) {
-
-		DataSet<Tuple> result = input;
-
-		// hash partition and sort on grouping keys if necessary
-		if(groupKeys != null && groupKeys.length > 0) {
-			// hash partition
-			result = result
-					.partitionByHash(groupKeys)
-					.setParallelism(dop)
-					.name("reduce-" + node.getID());
+	/**
+	 * Translates a key-less GroupBy with sort fields and without Every pipes into a parallel total-order sort.
+	 * The input is range partitioned on the sort keys and each partition is sorted. The concatenation of all
+	 * partitions in order of their index is globally sorted.
+	 */
+	private DataSet<Tuple> translateRangeSortedGroupBy(DataSet<Tuple> input, FlowNode node, int dop,
+														Fields sortKeyFields, String[] sortKeys, Order sortOrder, Fields outFields) {
 
-			// sort on grouping keys
-			result = result
-					.sortPartition(groupKeys[0], Order.DESCENDING)
-					.setParallelism(dop)
-					.name("reduce-" + node.getID());
-			for(int i=1; i<groupKeys.length; i++) {
-				result = result
-						.sortPartition(groupKeys[i], Order.DESCENDING)
-						.setParallelism(dop)
-						.name("reduce-" + node.getID());
-			}
-		}
+		// range partition in sort order
+		String[] rangeKeys = ((TupleTypeInfo)input.getType()).registerKeyFields(sortKeyFields, sortOrder);
 
-		// sort on sorting keys if necessary
-		if(sortKeys != null && sortKeys.length > 0) {
+		DataSet<Tuple> result = input
+				.partitionByRange(rangeKeys)
+				.setParallelism(dop)
+				.name("reduce-" + node.getID());
 
+		// sort partitions
+		result = result
+				.sortPartition(sortKeys[0], sortOrder)
+				.setParallelism(dop)
+				.name("reduce-" + node.getID());
+		for(int i=1; i<sortKeys.length; i++) {
 			result = result
-					.sortPartition(sortKeys[0], Order.DESCENDING)
-					.setParallelism(dop)
-					.name("reduce-" + node.getID());
-			for(int i=1; i<sortKeys.length; i++) {
-				result = result
-						.sortPartition(sortKeys[i], Order.DESCENDING)
-						.setParallelism(dop)
-						.name("reduce-" + node.getID());
-			}
+					.sortPartition(sortKeys[i], sortOrder)
+					.setParallelism(dop);
 		}
 
 		return result
-				.groupBy(groupKeys)
-				.reduceGroup(new GroupByReducer(node))
+				.mapPartition(new GroupByPartitionReducer(node))
 				.returns(new TupleTypeInfo(outFields))
 				.withParameters(this.getFlinkNodeConfig(node))
 				.setParallelism(dop)
 				.name("reduce-" + node.getID());
 	}
 
-	private DataSet<Tuple> translateMerge(List<DataSet<Tuple>> inputs, FlowNode node) {
+	private boolean containsEvery(FlowNode node) {
+		for(FlowElement e : node.getElementGraph().vertexSet()) {
+			if(e instanceof Every) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private DataSet<Tuple> translateMerge(List<DataSet<Tuple>> inputs, FlowNode node, boolean materialize) {
 
 		DataSet<Tuple> unioned = null;
 		TypeInformation<Tuple> type = null;
 
 		int maxDop = -1;
 
+		inputs = alignFieldTypes(inputs);
 		for(DataSet<Tuple> input : inputs) {
 			maxDop = Math.max(maxDop, ((Operator)input).getParallelism());
 			if(unioned == null) {
@@ -666,9 +1549,18 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 				unioned = unioned.union(input);
 			}
 		}
-		return unioned.map(new IdMapper())
-				.returns(type)
-				.setParallelism(maxDop);
+		if(materialize) {
+			// forward union through a single operator if it is consumed by multiple nodes
+			return unioned.map(new IdMapper())
+					.returns(type)
+					.setParallelism(maxDop);
+		}
+		else if(unioned instanceof UnionOperator) {
+			return ((UnionOperator<Tuple>) unioned).setParallelism(maxDop);
+		}
+		else {
+			return unioned;
+		}
 
 	}
 
@@ -685,81 +1577,29 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		String[][] flinkKeys = new String[numJoinInputs][];
 		List<DataSet<Tuple>> joinInputs = computeSpliceInputsFieldsKeys(coGroup, node, inputs, inputFields, keyFields, flinkKeys);
 
-		if(joiner.getClass().equals(InnerJoin.class)) {
-			if(!keyFields[0].isNone()) {
-				return prepareFullOuterCoGroupInput(joinInputs, node, inputFields, keyFields, flinkKeys, dop);
-			}
-			else {
-				// Cartesian product
-				return prepareInnerCrossInput(joinInputs, node, inputFields, dop);
-			}
-		}
-		else if(joiner.getClass().equals(BufferJoin.class)) {
-			return prepareBufferCoGroupInput(joinInputs, node, inputFields, keyFields, flinkKeys, dop);
+		if(joiner.getClass().equals(InnerJoin.class) && keyFields[0].isNone()) {
+			// Cartesian product
+			return prepareInnerCrossInput(joinInputs, node, inputFields, dop);
 		}
 		else {
-			return prepareFullOuterCoGroupInput(joinInputs, node, inputFields, keyFields, flinkKeys, dop);
-		}
-
-	}
-
-	private DataSet<Tuple2<Tuple, Tuple[]>> prepareFullOuterCoGroupInput(List<DataSet<Tuple>> inputs,
-						FlowNode node, Fields[] inputFields, Fields[] keyFields, String[][] flinkKeys, int dop) {
-
-		int numJoinInputs = inputs.size();
-
-		TupleTypeInfo keysTypeInfo = inputFields[0].isDefined() ?
-				new TupleTypeInfo(inputFields[0].select(keyFields[0])) :
-				new TupleTypeInfo(Fields.UNKNOWN);
-		keysTypeInfo.registerKeyFields(keyFields[0]);
-
-		TypeInformation<Tuple2<Tuple, Tuple[]>> tupleJoinListsTypeInfo =
-				new org.apache.flink.api.java.typeutils.TupleTypeInfo<>(
-						keysTypeInfo,
-						new TupleArrayTypeInfo(numJoinInputs, Arrays.copyOf(inputFields, 2))
-				);
-
-		String[] listKeys = new String[flinkKeys[0].length];
-		String[] listKeysFwd = new String[flinkKeys[0].length];
-
-		for(int i=0; i<flinkKeys[0].length; i++) {
-			listKeys[i] = "f0."+i;
-			listKeysFwd[i] = flinkKeys[0][i]+" -> "+listKeys[i];
-		}
-
-		// first outer join with CoGroup
-		DataSet<Tuple2<Tuple, Tuple[]>> tupleJoinLists = inputs.get(0)
-				.fullOuterJoin(inputs.get(1), JoinHint.REPARTITION_SORT_MERGE)
-				.where(flinkKeys[0]).equalTo(flinkKeys[1])
-				.with(new TupleOuterJoiner(numJoinInputs,
-						inputFields[0], keyFields[0],
-						inputFields[1], keyFields[1]))
-				.returns(tupleJoinListsTypeInfo)
-				.withForwardedFieldsFirst(listKeysFwd)
-				.setParallelism(dop)
-				.name("coGroup-" + node.getID());
-
-		// further outer joins with CoGroup
-		for (int i = 2; i < inputs.size(); i++) {
-
-			tupleJoinListsTypeInfo =
-					new org.apache.flink.api.java.typeutils.TupleTypeInfo<>(
-							keysTypeInfo,
-							new TupleArrayTypeInfo(numJoinInputs, Arrays.copyOf(inputFields, i+1))
-					);
-
-			tupleJoinLists = tupleJoinLists
-					.fullOuterJoin(inputs.get(i), JoinHint.REPARTITION_SORT_MERGE)
-					.where(listKeys).equalTo(flinkKeys[i])
-					.with(new TupleAppendOuterJoiner(i, numJoinInputs, inputFields[i], keyFields[i]))
-					.returns(tupleJoinListsTypeInfo)
-					.withForwardedFieldsFirst(listKeys)
-					.setParallelism(dop)
-					.name("coGroup-" + node.getID());
+			if(coGroup.isSelfJoin()) {
+				// the join closure shares a single tuple collection among all positions of a self join.
+				// Hence, the input must be shipped only once.
+				joinInputs = joinInputs.subList(0, 1);
+			}
+			else if(joiner.getClass().equals(InnerJoin.class) && isBloomFilterJoin(node)) {
+				// drop tuples without join partner before the shuffle
+				int filterInput = selectBloomFilterInput(joinInputs, keyFields);
+				if(filterInput >= 0) {
+					joinInputs = applyBloomFilter(joinInputs, node, filterInput, inputFields, keyFields);
+					bloomFilterInputs.put(coGroup, filterInput);
+				}
+			}
+			// all inputs are tagged with their position, unioned, and co-sorted.
+			// The joiner iterates over all inputs of a key without materializing pairs of tuples.
+			return prepareTaggedCoGroupInput(joinInputs, node, inputFields, keyFields);
 		}
 
-		return tupleJoinLists;
-
 	}
 
 	private DataSet<Tuple2<Tuple, Tuple[]>> prepareInnerCrossInput(List<DataSet<Tuple>> inputs, FlowNode node, Fields[] inputFields, int dop) {
@@ -799,8 +1639,36 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		return tupleJoinLists;
 	}
 
-	private DataSet<Tuple3<Tuple, Integer, Tuple>> prepareBufferCoGroupInput(List<DataSet<Tuple>> inputs,
-						FlowNode node, Fields[] inputFields, Fields[] keyFields, String[][] flinkKeys, int dop) {
+	private DataSet<Tuple3<Tuple, Integer, Tuple>> prepareTaggedCoGroupInput(List<DataSet<Tuple>> inputs,
+						FlowNode node, Fields[] inputFields, Fields[] keyFields) {
+
+		// all tagged inputs are unioned and must be of the same type.
+		// keys are typed by the first input, values only if all inputs share the same schema.
+		TupleTypeInfo keysTypeInfo = inputFields[0].isDefined() && !keyFields[0].isNone() ?
+				new TupleTypeInfo(inputFields[0].select(keyFields[0])) :
+				new TupleTypeInfo(Fields.UNKNOWN);
+		if(!keyFields[0].isNone()) {
+			keysTypeInfo.registerKeyFields(keyFields[0]);
+		}
+
+		boolean sameSchema = inputFields[0].isDefined();
+		for(int i=1; i<inputs.size(); i++) {
+			sameSchema = sameSchema && inputFields[0].equalsFields(inputFields[i]);
+		}
+		TupleTypeInfo valuesTypeInfo = sameSchema ?
+				new TupleTypeInfo(inputFields[0]) :
+				new TupleTypeInfo(Fields.UNKNOWN);
+
+		// String fields are shuffled with the sampled dictionaries
+		keysTypeInfo.setStringDictionaries(this.stringDictionaries);
+		valuesTypeInfo.setStringDictionaries(this.stringDictionaries);
+
+		TypeInformation<Tuple3<Tuple, Integer, Tuple>> keyedType =
+				new org.apache.flink.api.java.typeutils.TupleTypeInfo<>(
+						keysTypeInfo,
+						BasicTypeInfo.INT_TYPE_INFO,
+						valuesTypeInfo
+				);
 
 		DataSet<Tuple3<Tuple, Integer, Tuple>> coGroupInput = null;
 
@@ -812,22 +1680,6 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 			// get keys
 			int[] keyPos = inputFields[i].getPos(keyFields[i]);
 
-			if(keyFields[i].isNone()) {
-				// set default key
-				keyFields[i] = new Fields("defaultKey");
-			}
-
-			TupleTypeInfo keysTypeInfo = inputFields[i].isDefined() ?
-					new TupleTypeInfo(inputFields[i].select(keyFields[i])) :
-					new TupleTypeInfo(Fields.UNKNOWN);
-
-			TypeInformation<Tuple3<Tuple, Integer, Tuple>> keyedType =
-					new org.apache.flink.api.java.typeutils.TupleTypeInfo<>(
-							keysTypeInfo,
-							BasicTypeInfo.INT_TYPE_INFO,
-							new TupleTypeInfo(inputFields[i])
-			);
-
 			int inputDop = ((Operator)input).getParallelism();
 
 			// add mapper
@@ -837,7 +1689,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					.setParallelism(inputDop)
 					.name("coGroup-" + node.getID());
 
-			// add to groupByInput
+			// add to coGroupInput
 			if(coGroupInput == null) {
 				coGroupInput = keyedInput;
 			}
@@ -863,6 +1715,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		else {
 			outFields = outScope.getOutValuesFields();
 		}
+		outFields = inferTypes(node, outFields);
 		registerKryoTypes(outFields);
 
 		// get key and value fields of inputs
@@ -871,58 +1724,165 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 
 		Joiner joiner = coGroup.getJoiner();
 
-		if(!(joiner instanceof BufferJoin)) {
-			if (keyFields != Fields.NONE) {
+		if(joiner.getClass().equals(InnerJoin.class) && keyFields.isNone()) {
+			// Cartesian product
+			return ((DataSet<Tuple2<Tuple, Tuple[]>>) input)
+					.reduceGroup(new CoGroupReducer(node))
+					.withParameters(this.getFlinkNodeConfig(node))
+					.setParallelism(1)
+					.returns(new TupleTypeInfo(outFields))
+					.name("cogroup-" + node.getID());
+		}
+		else if(!keyFields.isNone()) {
+			if(isSkewMitigated(node, dop) && canSplitHeavyKeys(coGroup, inScopes, node)) {
+				return translateSkewedCoGroup((DataSet<Tuple3<Tuple, Integer, Tuple>>) input, node, dop, outFields);
+			}
+			// group on key and sort on input position to stream the first input
+			Integer filterInput = bloomFilterInputs.get(coGroup);
+			GroupReduceOperator<Tuple3<Tuple, Integer, Tuple>, Tuple> coGroupOp = ((DataSet<Tuple3<Tuple, Integer, Tuple>>) input)
+					.groupBy("f0.*")
+					.sortGroup(1, Order.DESCENDING)
+					.reduceGroup(new CoGroupBufferReducer(node, filterInput != null ? filterInput : -1))
+					.withParameters(this.getFlinkNodeConfig(node))
+					.setParallelism(dop)
+					.returns(new TupleTypeInfo(outFields))
+					.name("coGroup-" + node.getID());
 
-				String[] groupingKeys = new String[keyFields.size()];
-				for (int i = 0; i < groupingKeys.length; i++) {
-					groupingKeys[i] = "f0." + i;
-				}
+			return withForwardedFields(coGroupOp, getForwardedCoGroupKeys(coGroup, inScopes, node));
+		}
+		else {
+			return ((DataSet<Tuple3<Tuple, Integer, Tuple>>) input)
+					.sortPartition(1, Order.DESCENDING)
+					.setParallelism(1)
+					.reduceGroup(new CoGroupBufferReducer(node))
+					.withParameters(this.getFlinkNodeConfig(node))
+					.setParallelism(1)
+					.returns(new TupleTypeInfo(outFields))
+					.name("coGroup-" + node.getID());
+		}
+	}
 
-				DataSet<Tuple> joinResult = ((DataSet<Tuple2<Tuple, Tuple[]>>) input)
-						.groupBy(groupingKeys)
-						.reduceGroup(new CoGroupReducer(node))
-						.withParameters(this.getFlinkNodeConfig(node))
-						.setParallelism(dop)
-						.returns(new TupleTypeInfo(outFields))
-						.name("cogroup-" + node.getID());
+	/**
+	 * Tracks the keys of the first input of an inner or left CoGroup to the output of the node.
+	 * Both joiners emit the fields of the first input first and never null them.
+	 */
+	private String[] getForwardedCoGroupKeys(CoGroup coGroup, List<Scope> inScopes, FlowNode node) {
 
-				return joinResult;
-			} else {
-				DataSet<Tuple> joinResult = ((DataSet<Tuple2<Tuple, Tuple[]>>) input)
-						.reduceGroup(new CoGroupReducer(node))
-						.withParameters(this.getFlinkNodeConfig(node))
-						.setParallelism(1)
-						.returns(new TupleTypeInfo(outFields))
-						.name("cogroup-" + node.getID());
+		Class<? extends Joiner> joinerClass = coGroup.getJoiner().getClass();
+		if(!(joinerClass.equals(InnerJoin.class) || joinerClass.equals(LeftJoin.class)) || coGroup.isSelfJoin()) {
+			return null;
+		}
 
-				return joinResult;
-			}
+		Fields firstInputFields = inScopes.get(0).getOutValuesFields();
+		Fields keyFields = coGroup.getKeySelectors().get(inScopes.get(0).getName());
+		if(!firstInputFields.isDefined() || keyFields.isAll() || keyFields.hasComparators()) {
+			return null;
 		}
-		else {
-			// Buffer Join
-			if (keyFields != Fields.NONE) {
 
-				return ((DataSet<Tuple3<Tuple, Integer, Tuple>>) input)
-						.groupBy("f0.*")
-						.sortGroup(1, Order.DESCENDING)
-						.reduceGroup(new CoGroupBufferReducer(node))
-						.withParameters(this.getFlinkNodeConfig(node))
-						.setParallelism(dop)
-						.returns(new TupleTypeInfo(outFields))
-						.name("coGroup-" + node.getID());
-			}
-			else {
-				return ((DataSet<Tuple3<Tuple, Integer, Tuple>>) input)
-						.sortPartition(1, Order.DESCENDING)
-						.setParallelism(1)
-						.reduceGroup(new CoGroupBufferReducer(node))
-						.withParameters(this.getFlinkNodeConfig(node))
-						.setParallelism(1)
-						.returns(new TupleTypeInfo(outFields))
-						.name("coGroup-" + node.getID());
+		// keys are shipped in the first field of the tagged input
+		int[] keyPos = firstInputFields.getPos(keyFields);
+		String[] keySources = new String[firstInputFields.size()];
+		for(int i=0; i<keyPos.length; i++) {
+			keySources[keyPos[i]] = "f0." + i;
+		}
+
+		return getForwardedFirstInputSources(node, coGroup, firstInputFields, keySources);
+	}
+
+	/**
+	 * Checks whether the groups of heavy keys of a CoGroup can be split along the first input.
+	 * This is the case for inner and left joins of distinct inputs that are not followed by an Every.
+	 * Keys with custom comparators are not split because heavy keys are identified by equality.
+	 */
+	private boolean canSplitHeavyKeys(CoGroup coGroup, List<Scope> inScopes, FlowNode node) {
+
+		Class<? extends Joiner> joinerClass = coGroup.getJoiner().getClass();
+		if(!(joinerClass.equals(InnerJoin.class) || joinerClass.equals(LeftJoin.class)) ||
+				coGroup.isSelfJoin() || inScopes.size() < 2 || containsEvery(node)) {
+			return false;
+		}
+		for(Scope inScope : inScopes) {
+			if(coGroup.getKeySelectors().get(inScope.getName()).hasComparators()) {
+				return false;
 			}
 		}
+		return true;
+	}
+
+	/**
+	 * Translates an inner or left CoGroup whose first input might be skewed.
+	 * Heavy keys are identified on a sample of the first input. Records with regular keys are coGrouped as usual.
+	 * Records of the first input with heavy keys are evenly distributed over all tasks and records of all other
+	 * inputs with heavy keys are replicated to all tasks and held in memory. The number of replicated records
+	 * is bounded. Heavy keys whose records would exceed the bound are coGrouped as regular keys.
+	 */
+	private DataSet<Tuple> translateSkewedCoGroup(DataSet<Tuple3<Tuple, Integer, Tuple>> input, FlowNode node,
+													int dop, Fields outFields) {
+
+		TaggedKeySelector keySelector = new TaggedKeySelector();
+
+		DataSet<Tuple3<Tuple, Integer, Tuple>> firstInput = input
+				.filter(new TaggedInputFilter(0, true))
+				.setParallelism(dop)
+				.name("skew-" + node.getID());
+		DataSet<Tuple> sampledHeavyKeys = sampleHeavyKeys(firstInput, keySelector, node, dop);
+
+		DataSet<Tuple3<Tuple, Integer, Tuple>> otherInputs = input
+				.filter(new TaggedInputFilter(0, false))
+				.setParallelism(dop)
+				.name("skew-" + node.getID());
+
+		// only keep heavy keys whose replicated records fit into memory
+		long maxReplicated = getNodeConfig(node).getLong(FlinkConfigConstants.SKEW_MITIGATION_MAX_REPLICATED_RECORDS,
+				DEFAULT_SKEW_MAX_REPLICATED_RECORDS);
+		DataSet<Tuple> heavyKeys = otherInputs
+				.filter(new HeavyKeyFilter<>(keySelector, true))
+				.withBroadcastSet(sampledHeavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.setParallelism(dop)
+				.name("skew-" + node.getID())
+				.mapPartition(new ReplicatedKeyLimiter<>(keySelector, maxReplicated))
+				.withBroadcastSet(sampledHeavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.returns(new TupleTypeInfo(Fields.UNKNOWN))
+				.setParallelism(1)
+				.name("skew-" + node.getID());
+
+		DataSet<Tuple> regular = input
+				.filter(new HeavyKeyFilter<>(keySelector, false))
+				.withBroadcastSet(heavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.setParallelism(dop)
+				.name("skew-" + node.getID())
+				.groupBy("f0.*")
+				.sortGroup(1, Order.DESCENDING)
+				.reduceGroup(new CoGroupBufferReducer(node))
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(dop)
+				.returns(new TupleTypeInfo(outFields))
+				.name("coGroup-" + node.getID());
+
+		DataSet<Tuple3<Tuple, Integer, Tuple>> heavyRows = otherInputs
+				.filter(new HeavyKeyFilter<>(keySelector, true))
+				.withBroadcastSet(heavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.setParallelism(dop)
+				.name("skew-" + node.getID());
+
+		DataSet<Tuple> heavy = firstInput
+				.filter(new HeavyKeyFilter<>(keySelector, true))
+				.withBroadcastSet(heavyKeys, HeavyKeyFilter.HEAVY_KEYS)
+				.setParallelism(dop)
+				.name("skew-" + node.getID())
+				.rebalance()
+				.setParallelism(dop)
+				.groupBy("f0.*")
+				.combineGroup(new SkewedCoGroupCombiner(node))
+				.withBroadcastSet(heavyRows, SkewedCoGroupCombiner.HEAVY_ROWS)
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(dop)
+				.returns(new TupleTypeInfo(outFields))
+				.name("coGroup-" + node.getID());
+
+		return regular
+				.union(heavy)
+				.setParallelism(dop);
 	}
 
 	private DataSet<Tuple> translateHashJoin(List<DataSet<Tuple>> inputs, FlowNode node) {
@@ -957,6 +1917,11 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 			// Cartesian product
 			return translateInnerCrossProduct(node, joinInputs);
 		}
+		else if(hashJoin.isSelfJoin() &&
+				(joiner.getClass().equals(InnerJoin.class) || joiner.getClass().equals(LeftJoin.class))) {
+			// every tuple of a self join matches at least itself, i.e., inner and left join are equivalent
+			return translateSelfHashJoin(node, joinInputs.get(0), inputFields[0], keyFields[0], flinkKeys[0], numJoinInputs);
+		}
 		else if(joiner.getClass().equals(InnerJoin.class)) {
 			// inner join with keys
 			return translateInnerHashJoin(node, joinInputs, inputFields, keyFields, flinkKeys);
@@ -971,6 +1936,32 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		}
 	}
 
+	private DataSet<Tuple> translateSelfHashJoin(FlowNode node, DataSet<Tuple> input, Fields inputFields, Fields keyFields,
+												String[] flinkKeys, int numJoinInputs) {
+
+		// get out fields of node
+		Scope outScope = getOutScope(node);
+		Fields outFields;
+		if (outScope.isEvery()) {
+			outFields = outScope.getOutGroupingFields();
+		} else {
+			outFields = outScope.getOutValuesFields();
+		}
+		outFields = inferTypes(node, outFields);
+		registerKryoTypes(outFields);
+
+		int dop = ((Operator)input).getParallelism();
+
+		// read and shuffle input once and replicate each group for all join positions
+		return input
+				.groupBy(flinkKeys)
+				.reduceGroup(new SelfHashJoinReducer(node, numJoinInputs, inputFields, keyFields))
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(dop)
+				.returns(new TupleTypeInfo(outFields))
+				.name("hashjoin-" + node.getID());
+	}
+
 	private DataSet<Tuple> translateInnerHashJoin(FlowNode node, List<DataSet<Tuple>> inputs, Fields[] inputFields, Fields[] keyFields, String[][] flinkKeys) {
 
 		int numJoinInputs = inputs.size();
@@ -983,14 +1974,24 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		} else {
 			outFields = outScope.getOutValuesFields();
 		}
+		outFields = inferTypes(node, outFields);
 		registerKryoTypes(outFields);
 
 		int probeSideDOP = ((Operator)inputs.get(0)).getParallelism();
+		HashJoinStrategySelector strategySelector = new HashJoinStrategySelector(getNodeConfig(node));
 
 		if(numJoinInputs == 2) {
 			// binary join
 
-			return inputs.get(0).join(inputs.get(1), JoinHint.BROADCAST_HASH_SECOND)
+			JoinHint joinHint = selectHashJoinHint(strategySelector, node, inputs.get(0), inputs.get(1), true);
+			if(joinHint != JoinHint.BROADCAST_HASH_FIRST && joinHint != JoinHint.BROADCAST_HASH_SECOND &&
+					isBloomFilterJoin(node) && inputFields[0].isDefined() && inputFields[1].isDefined() &&
+					!keyFields[0].hasComparators() && !keyFields[1].hasComparators()) {
+				// drop tuples of the streamed side without join partner before the shuffle
+				inputs = applyBloomFilter(inputs, node, 1, inputFields, keyFields);
+			}
+
+			JoinOperator<Tuple, Tuple, Tuple> joinOp = inputs.get(0).join(inputs.get(1), joinHint)
 					.where(flinkKeys[0]).equalTo(flinkKeys[1])
 					.with(new BinaryHashJoinJoiner(node, inputFields[0], keyFields[0]))
 					.withParameters(this.getFlinkNodeConfig(node))
@@ -998,6 +1999,17 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					.returns(new TupleTypeInfo(outFields))
 					.name("hashjoin-" + node.getID());
 
+			String[] forwardedFields = ForwardedFields.toAnnotations(getForwardedHashJoinSources(node, inputFields[0]));
+			if(forwardedFields.length > 0) {
+				joinOp.withForwardedFieldsFirst(forwardedFields);
+			}
+			return joinOp;
+
+		}
+		else if(!hasKeyComparators(keyFields) && allSidesBroadcastable(strategySelector, inputs)) {
+			// nary join, probe all broadcasted sides in a single operator
+
+			return translateBroadcastHashJoin(node, inputs, inputFields, keyFields, outFields, probeSideDOP, false);
 		}
 		else {
 			// nary join
@@ -1036,7 +2048,8 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 								new TupleArrayTypeInfo(numJoinInputs-1, Arrays.copyOf(inputFields, i+1))
 						);
 
-				tupleJoinLists = tupleJoinLists.join(inputs.get(i), JoinHint.BROADCAST_HASH_SECOND)
+				tupleJoinLists = tupleJoinLists.join(inputs.get(i),
+							selectHashJoinHint(strategySelector, node, inputs.get(0), inputs.get(i), true))
 						.where(flinkKeys[0]).equalTo(flinkKeys[i])
 						.with(new TupleAppendJoiner(i))
 						.returns(tupleJoinListsTypeInfo)
@@ -1046,7 +2059,8 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 			}
 
 			// join last input
-			return tupleJoinLists.join(inputs.get(numJoinInputs-1), JoinHint.BROADCAST_HASH_SECOND)
+			return tupleJoinLists.join(inputs.get(numJoinInputs-1),
+							selectHashJoinHint(strategySelector, node, inputs.get(0), inputs.get(numJoinInputs-1), true))
 					.where(flinkKeys[0]).equalTo(flinkKeys[numJoinInputs-1])
 					.with(new NaryHashJoinJoiner(node, numJoinInputs))
 					.withParameters(this.getFlinkNodeConfig(node))
@@ -1068,15 +2082,18 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		} else {
 			outFields = outScope.getOutValuesFields();
 		}
+		outFields = inferTypes(node, outFields);
 		registerKryoTypes(outFields);
 
 		int probeSideDOP = ((Operator)inputs.get(0)).getParallelism();
+		HashJoinStrategySelector strategySelector = new HashJoinStrategySelector(getNodeConfig(node));
 
 		if(numJoinInputs == 2) {
 			// binary join
 
-			return inputs.get(0)
-					.leftOuterJoin(inputs.get(1), JoinHint.BROADCAST_HASH_SECOND)
+			JoinOperator<Tuple, Tuple, Tuple> joinOp = inputs.get(0)
+					.leftOuterJoin(inputs.get(1),
+							selectHashJoinHint(strategySelector, node, inputs.get(0), inputs.get(1), false))
 					.where(flinkKeys[0]).equalTo(flinkKeys[1])
 					.with(new BinaryHashJoinJoiner(node, inputFields[0], keyFields[0]))
 					.withParameters(this.getFlinkNodeConfig(node))
@@ -1084,6 +2101,17 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 					.returns(new TupleTypeInfo(outFields))
 					.name("hashjoin-" + node.getID());
 
+			String[] forwardedFields = ForwardedFields.toAnnotations(getForwardedHashJoinSources(node, inputFields[0]));
+			if(forwardedFields.length > 0) {
+				joinOp.withForwardedFieldsFirst(forwardedFields);
+			}
+			return joinOp;
+
+		}
+		else if(!hasKeyComparators(keyFields) && allSidesBroadcastable(strategySelector, inputs)) {
+			// nary join, probe all broadcasted sides in a single operator
+
+			return translateBroadcastHashJoin(node, inputs, inputFields, keyFields, outFields, probeSideDOP, true);
 		}
 		else {
 			// nary join
@@ -1121,7 +2149,8 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 						);
 
 				tupleJoinLists = tupleJoinLists
-						.join(inputs.get(i), JoinHint.BROADCAST_HASH_SECOND)
+						.join(inputs.get(i),
+							selectHashJoinHint(strategySelector, node, inputs.get(0), inputs.get(i), false))
 						.where(flinkKeys[0]).equalTo(flinkKeys[i])
 						.with(new TupleAppendJoiner(i))
 						.returns(tupleJoinListsTypeInfo)
@@ -1132,7 +2161,8 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 
 			// join last input
 			return tupleJoinLists
-					.leftOuterJoin(inputs.get(numJoinInputs-1), JoinHint.BROADCAST_HASH_SECOND)
+					.leftOuterJoin(inputs.get(numJoinInputs-1),
+							selectHashJoinHint(strategySelector, node, inputs.get(0), inputs.get(numJoinInputs-1), false))
 					.where(flinkKeys[0]).equalTo(flinkKeys[numJoinInputs-1])
 					.with(new NaryHashJoinJoiner(node, numJoinInputs))
 					.withParameters(this.getFlinkNodeConfig(node))
@@ -1142,6 +2172,88 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		}
 	}
 
+	/**
+	 * Tracks the fields of the streamed (first) input of a HashJoin to the output of the node.
+	 */
+	private String[] getForwardedHashJoinSources(FlowNode node, Fields firstInputFields) {
+
+		if(!firstInputFields.isDefined()) {
+			return null;
+		}
+
+		HashJoin hashJoin = (HashJoin) getCommonSuccessor(node.getSourceElements(), node);
+		String[] sources = new String[firstInputFields.size()];
+		for(int i=0; i<sources.length; i++) {
+			sources[i] = Integer.toString(i);
+		}
+
+		return getForwardedFirstInputSources(node, hashJoin, firstInputFields, sources);
+	}
+
+	private DataSet<Tuple> translateBroadcastHashJoin(FlowNode node, List<DataSet<Tuple>> inputs, Fields[] inputFields, Fields[] keyFields,
+														Fields outFields, int probeSideDOP, boolean outerJoin) {
+
+		int numJoinInputs = inputs.size();
+
+		String[] broadcastNames = new String[numJoinInputs];
+		for(int i = 1; i < numJoinInputs; i++) {
+			broadcastNames[i] = "hashjoin-" + node.getID() + "-input-" + i;
+		}
+
+		FlatMapOperator<Tuple, Tuple> joinOp = inputs.get(0)
+				.flatMap(new BroadcastHashJoinMapper(node, inputFields, keyFields, broadcastNames, outerJoin))
+				.withParameters(this.getFlinkNodeConfig(node))
+				.setParallelism(probeSideDOP)
+				.returns(new TupleTypeInfo(outFields))
+				.name("hashjoin-" + node.getID());
+
+		for(int i = 1; i < numJoinInputs; i++) {
+			joinOp = joinOp.withBroadcastSet(inputs.get(i), broadcastNames[i]);
+		}
+		withForwardedFields(joinOp, getForwardedHashJoinSources(node, inputFields[0]));
+		return joinOp;
+	}
+
+	/**
+	 * Checks whether any of the join keys has custom comparators.
+	 * The broadcast hash join looks up keys by Tuple equality and cannot be used for such keys.
+	 */
+	private boolean hasKeyComparators(Fields[] keyFields) {
+
+		for(Fields keys : keyFields) {
+			if(keys.hasComparators()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean allSidesBroadcastable(HashJoinStrategySelector strategySelector, List<DataSet<Tuple>> inputs) {
+
+		if(strategySelector.isSizeBased()) {
+			setInputDependentPlan("HashJoin strategy is chosen by input size");
+		}
+
+		for(int i = 1; i < inputs.size(); i++) {
+			if(!strategySelector.isBroadcastable(sizeEstimator.getEstimatedBytes(inputs.get(i)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private JoinHint selectHashJoinHint(HashJoinStrategySelector strategySelector, FlowNode node,
+										DataSet<?> streamed, DataSet<?> accumulated, boolean broadcastFirstAllowed) {
+
+		if(strategySelector.isSizeBased()) {
+			setInputDependentPlan("HashJoin strategy is chosen by input size");
+		}
+		return strategySelector.selectJoinHint("hashjoin-" + node.getID(),
+				sizeEstimator.getEstimatedBytes(streamed),
+				sizeEstimator.getEstimatedBytes(accumulated),
+				broadcastFirstAllowed);
+	}
+
 	private DataSet<Tuple> translateInnerCrossProduct(FlowNode node, List<DataSet<Tuple>> inputs) {
 
 		int numJoinInputs = inputs.size();
@@ -1154,6 +2266,7 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		} else {
 			outFields = outScope.getOutValuesFields();
 		}
+		outFields = inferTypes(node, outFields);
 		registerKryoTypes(outFields);
 
 		int probeSideDOP = ((Operator)inputs.get(0)).getParallelism();
@@ -1271,6 +2384,23 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 	}
 
 
+	/**
+	 * Passes the configured tuple wire format version to the serializers of this step.
+	 */
+	private void configureTupleWireFormat() {
+
+		int version = getConfig().getInt(FlinkConfigConstants.TUPLE_WIRE_FORMAT, TupleWireFormat.VERSION_1);
+		if(version != TupleWireFormat.getVersion(env.getConfig())) {
+			// all serializers and comparators of the job read the version from the global job parameters
+			if(!TupleWireFormat.setVersion(env.getConfig(), version)) {
+				throw new FlowException("Cannot set tuple wire format version " + version + " because user-defined " +
+						"global job parameters are set. Add " + FlinkConfigConstants.TUPLE_WIRE_FORMAT + "=" + version +
+						" to the global job parameters or remove " + FlinkConfigConstants.TUPLE_WIRE_FORMAT +
+						" from the flow properties.");
+			}
+		}
+	}
+
 	private Set<FlowElement> getSources(FlowNode node) {
 		return node.getSourceElements();
 	}
@@ -1350,12 +2480,81 @@ public class FlinkFlowStep extends BaseFlowStep<Configuration> {
 		return ((TupleTypeInfo)input.getType()).registerKeyFields(keyFields);
 	}
 
+	/**
+	 * Returns the output fields of a node with the field types that were inferred for them.
+	 */
+	private Fields inferTypes(FlowNode node, Fields outFields) {
+		return fieldTypes != null ? fieldTypes.getTypedFields(node, outFields) : outFields;
+	}
+
+	/**
+	 * Maps inputs of a union to the field types they have in common, if their field types differ.
+	 * The union of inputs with different field types would be read with the serializers of its first input.
+	 */
+	private List<DataSet<Tuple>> alignFieldTypes(List<DataSet<Tuple>> inputs) {
+
+		Type[] commonTypes = null;
+		Fields commonFields = null;
+		boolean aligned = true;
+
+		for(DataSet<Tuple> input : inputs) {
+			if(!(input.getType() instanceof TupleTypeInfo)) {
+				return inputs;
+			}
+			Fields fields = ((TupleTypeInfo)input.getType()).getSchema();
+			if(!fields.isDefined()) {
+				return inputs;
+			}
+			Type[] types = fields.getTypes() != null ? fields.getTypes() : new Type[fields.size()];
+			if(commonTypes == null) {
+				commonFields = fields;
+				commonTypes = types.clone();
+			}
+			else if(types.length != commonTypes.length) {
+				return inputs;
+			}
+			else {
+				for(int i=0; i<types.length; i++) {
+					if(types[i] == null ? commonTypes[i] != null : !types[i].equals(commonTypes[i])) {
+						commonTypes[i] = Object.class;
+						aligned = false;
+					}
+				}
+			}
+		}
+		if(aligned) {
+			return inputs;
+		}
+
+		for(int i=0; i<commonTypes.length; i++) {
+			if(commonTypes[i] == null) {
+				commonTypes[i] = Object.class;
+			}
+		}
+		TupleTypeInfo commonType = new TupleTypeInfo(commonFields.applyTypes(commonTypes));
+
+		List<DataSet<Tuple>> alignedInputs = new ArrayList<>(inputs.size());
+		for(DataSet<Tuple> input : inputs) {
+			if(Arrays.equals(((TupleTypeInfo)input.getType()).getSchema().getTypes(), commonTypes)) {
+				alignedInputs.add(input);
+			}
+			else {
+				alignedInputs.add(input
+						.map(new IdMapper())
+						.returns(commonType)
+						.setParallelism(((Operator)input).getParallelism()));
+			}
+		}
+		return alignedInputs;
+	}
+
 	private void registerKryoTypes(Fields fields) {
 
 		if(fields.hasTypes()) {
 			Class[] fieldTypeClasses = fields.getTypesClasses();
 			for(Class fieldTypeClass : fieldTypeClasses) {
 				if(!fieldTypeClass.isPrimitive() &&
+						!fieldTypeClass.equals(Object.class) &&
 						!fieldTypeClass.equals(String.class) &&
 						!Writable.class.isAssignableFrom(fieldTypeClass)) {
 					// register type if it is neither a primitive, String, or Writable
@@ -54,10 +54,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -76,6 +78,9 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 	private List<String> classPath;
 
 	private final ExecutionEnvironment env;
+	private final ExecutionEnvironment contextEnv;
+	private final Semaphore jobSlots;
+	private volatile boolean waitingForJobSlot;
 
 	private AccumulatorCache accumulatorCache;
 
@@ -98,7 +103,11 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 
 		this.currentConf = currentConf;
 		this.env = ((FlinkFlowStep)this.flowStep).getExecutionEnvironment();
-		this.classPath = classPath;
+		// the environment of the planner determines how the step is executed
+		this.contextEnv = env instanceof StepExecutionEnvironment ?
+				((StepExecutionEnvironment)env).getContextEnvironment() : env;
+		this.jobSlots = flowStep.getJobSlots();
+		this.classPath = new ArrayList<>(classPath);
 
 		if( flowStep.isDebugEnabled() ) {
 			flowStep.logDebug("using polling interval: " + pollingInterval);
@@ -119,6 +128,11 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 	protected void internalBlockOnStop() throws IOException {
 
 		if (jobSubmission != null && !jobSubmission.isDone()) {
+			if (waitingForJobSlot) {
+				// job was not submitted yet
+				jobSubmission.cancel(true);
+				return;
+			}
 			try {
 				client.cancel(jobID);
 			} catch (Exception e) {
@@ -130,28 +144,17 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 
 	protected void internalNonBlockingStart() throws IOException {
 
-		Plan plan = env.createProgramPlan();
-
-		// set exchange mode, BATCH is default
-		String execMode = getConfig().get(FlinkConfigConstants.EXECUTION_MODE);
-		if (execMode == null || FlinkConfigConstants.EXECUTION_MODE_BATCH.equals(execMode)) {
-			env.getConfig().setExecutionMode(ExecutionMode.BATCH);
-		}
-		else if (FlinkConfigConstants.EXECUTION_MODE_PIPELINED.equals(execMode)) {
-			env.getConfig().setExecutionMode(ExecutionMode.PIPELINED);
+		final JobGraph jobGraph;
+		JobGraph cachedJobGraph = ((FlinkFlowStep)flowStep).getCachedJobGraph();
+		if (cachedJobGraph != null) {
+			flowStep.logInfo("Using cached plan.");
+			jobGraph = cachedJobGraph;
 		}
 		else {
-			LOG.warn("Unknow value for '" + FlinkConfigConstants.EXECUTION_MODE + "' parameter. " +
-					"Only '" + FlinkConfigConstants.EXECUTION_MODE_BATCH + "' " +
-					"or '" + FlinkConfigConstants.EXECUTION_MODE_PIPELINED + "' supported. " +
-					"Using " + FlinkConfigConstants.EXECUTION_MODE_BATCH + " exchange by default.");
-			env.getConfig().setExecutionMode(ExecutionMode.BATCH);
+			jobGraph = compileJobGraph();
+			((FlinkFlowStep)flowStep).cacheJobGraph(jobGraph);
 		}
 
-		Optimizer optimizer = new Optimizer(new DataStatistics(), new org.apache.flink.configuration.Configuration());
-		OptimizedPlan optimizedPlan = optimizer.compile(plan);
-
-		final JobGraph jobGraph = new JobGraphGenerator().compileJobGraph(optimizedPlan);
 		for (String jarPath : classPath) {
 			jobGraph.addJar(new Path(jarPath));
 		}
@@ -184,7 +187,7 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 				throw new IOException("Could not add the submission JAR as a dependency.");
 			}
 
-			client = ((ContextEnvironment) env).getClient();
+			client = ((ContextEnvironment) contextEnv).getClient();
 		}
 
 		List<URL> fileList = new ArrayList<URL>(classPath.size());
@@ -206,7 +209,23 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 		final Callable<JobSubmissionResult> callable = new Callable<JobSubmissionResult>() {
 				@Override
 				public JobSubmissionResult call() throws Exception {
-					return client.runBlocking(jobGraph, loader);
+					if (jobSlots == null) {
+						return client.runBlocking(jobGraph, loader);
+					}
+
+					waitingForJobSlot = true;
+					try {
+						jobSlots.acquire();
+					}
+					finally {
+						waitingForJobSlot = false;
+					}
+					try {
+						return client.runBlocking(jobGraph, loader);
+					}
+					finally {
+						jobSlots.release();
+					}
 				}
 			};
 
@@ -215,6 +234,32 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 		flowStep.logInfo("submitted Flink job: " + jobID);
 	}
 
+	private JobGraph compileJobGraph() {
+
+		Plan plan = env.createProgramPlan();
+
+		// set exchange mode, BATCH is default
+		String execMode = getConfig().get(FlinkConfigConstants.EXECUTION_MODE);
+		if (execMode == null || FlinkConfigConstants.EXECUTION_MODE_BATCH.equals(execMode)) {
+			env.getConfig().setExecutionMode(ExecutionMode.BATCH);
+		}
+		else if (FlinkConfigConstants.EXECUTION_MODE_PIPELINED.equals(execMode)) {
+			env.getConfig().setExecutionMode(ExecutionMode.PIPELINED);
+		}
+		else {
+			LOG.warn("Unknow value for '" + FlinkConfigConstants.EXECUTION_MODE + "' parameter. " +
+					"Only '" + FlinkConfigConstants.EXECUTION_MODE_BATCH + "' " +
+					"or '" + FlinkConfigConstants.EXECUTION_MODE_PIPELINED + "' supported. " +
+					"Using " + FlinkConfigConstants.EXECUTION_MODE_BATCH + " exchange by default.");
+			env.getConfig().setExecutionMode(ExecutionMode.BATCH);
+		}
+
+		Optimizer optimizer = new Optimizer(new DataStatistics(), new org.apache.flink.configuration.Configuration());
+		OptimizedPlan optimizedPlan = optimizer.compile(plan);
+
+		return new JobGraphGenerator().compileJobGraph(optimizedPlan);
+	}
+
 	@Override
 	protected void updateNodeStatus( FlowNodeStats flowNodeStats ) {
 		try {
@@ -240,6 +285,8 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 			return false;
 		} catch (TimeoutException e) {
 			return false;
+		} catch (CancellationException e) {
+			return false;
 		}
 
 		boolean isDone = jobSubmission.isDone();
@@ -256,7 +303,7 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 	@Override
 	public Throwable call()
 	{
-		if (env instanceof OptimizerPlanEnvironment) {
+		if (contextEnv instanceof OptimizerPlanEnvironment) {
 			// We have an OptimizerPlanEnvironment.
 			//   This environment is only used to to fetch the Flink execution plan.
 			try {
@@ -284,11 +331,14 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 
 	protected boolean isSkipFlowStep() throws IOException
 	{
-		if (env instanceof OptimizerPlanEnvironment) {
+		if (contextEnv instanceof OptimizerPlanEnvironment) {
 			// We have an OptimizerPlanEnvironment.
 			//   This environment is only used to to fetch the Flink execution plan.
 			//   We do not want to execute the job in this case.
 			return true;
+		} else if (((FlinkFlowStep)flowStep).isFusedFollower()) {
+			// the step is executed by the job of another flow
+			return true;
 		} else {
 			return super.isSkipFlowStep();
 		}
@@ -296,7 +346,7 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 
 	@Override
 	protected boolean isRemoteExecution() {
-		return env instanceof ContextEnvironment;
+		return contextEnv instanceof ContextEnvironment;
 	}
 
 	@Override
@@ -320,7 +370,7 @@ public class FlinkFlowStepJob extends FlowStepJob<Configuration>
 	}
 
 	private boolean isLocalExecution() {
-		return env instanceof LocalEnvironment;
+		return contextEnv instanceof LocalEnvironment;
 	}
 
 	private void startLocalCluster() {
@@ -31,6 +31,7 @@ import cascading.tap.Tap;
 import com.dataartisans.flink.cascading.util.Version;
 import org.apache.flink.api.java.ExecutionEnvironment;
 import org.apache.flink.client.CliFrontend;
+import org.apache.flink.client.program.OptimizerPlanEnvironment;
 import org.apache.flink.configuration.ConfigConstants;
 import org.apache.flink.configuration.GlobalConfiguration;
 import org.apache.hadoop.conf.Configuration;
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 public class FlinkPlanner extends FlowPlanner<FlinkFlow, Configuration> {
 
@@ -49,9 +51,20 @@ public class FlinkPlanner extends FlowPlanner<FlinkFlow, Configuration> {
 
 	private ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
 
+	private Semaphore jobSlots;
+
 	public FlinkPlanner(List<String> classPath) {
+		this(classPath, null);
+	}
+
+	/**
+	 * @param classPath The class path of the flows.
+	 * @param jobSlots Bounds the number of concurrently running jobs of all flows sharing it. May be null.
+	 */
+	public FlinkPlanner(List<String> classPath, Semaphore jobSlots) {
 		super();
 		this.classPath = classPath;
+		this.jobSlots = jobSlots;
 
 		env.getConfig().disableSysoutLogging();
 		if (env.getParallelism() <= 0) {
@@ -106,7 +119,10 @@ public class FlinkPlanner extends FlowPlanner<FlinkFlow, Configuration> {
 		return new BaseFlowStepFactory<Configuration>( getFlowNodeFactory() ) {
 			@Override
 			public FlowStep<Configuration> createFlowStep( ElementGraph stepElementGraph, FlowNodeGraph flowNodeGraph ) {
-				return new FlinkFlowStep(env, stepElementGraph, flowNodeGraph, classPath);
+				// each step builds its program in its own environment, except when the plan is only fetched
+				ExecutionEnvironment stepEnv = env instanceof OptimizerPlanEnvironment ?
+						env : new StepExecutionEnvironment(env);
+				return new FlinkFlowStep(stepEnv, stepElementGraph, flowNodeGraph, classPath, jobSlots);
 			}
 		};
 	}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowElement;
+import cascading.flow.FlowNode;
+import cascading.flow.planner.Scope;
+import cascading.flow.planner.graph.ElementGraph;
+import cascading.pipe.Boundary;
+import cascading.pipe.Checkpoint;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.Operator;
+import cascading.pipe.Pipe;
+import cascading.tuple.Fields;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derives Flink forwarded field annotations from the Fields algebra of Cascading pipes.
+ * A field is forwarded if its value is passed unmodified from the input of a Flink operator to its output.
+ * Starting from the output of an element, the fields are tracked by name through all following Each and
+ * Every pipes of a node until the node's sink.
+ */
+public class ForwardedFields {
+
+	private ForwardedFields() {}
+
+	/**
+	 * Returns the fields which leave an element of a node.
+	 *
+	 * @param node The node of the element.
+	 * @param element The element.
+	 * @return The outgoing fields of the element or null if the element has more than one outgoing scope.
+	 */
+	public static Fields getOutgoingFields(FlowNode node, FlowElement element) {
+
+		Set<Scope> outScopes = node.getElementGraph().outgoingEdgesOf(element);
+		if(outScopes.size() != 1) {
+			return null;
+		}
+		return getFields(outScopes.iterator().next());
+	}
+
+	/**
+	 * Tracks fields from the output of a start element to the output of a node.
+	 *
+	 * @param node The node to analyze.
+	 * @param start The element of the node at which the fields are tracked.
+	 * @param sourceExpressions The Flink field expressions of the operator input for each outgoing field of the
+	 *                          start element, null for fields that are not tracked. May be null.
+	 * @return The Flink field expression of the operator input for each output field of the node, null for fields
+	 * that are not forwarded. Null if the fields of the node cannot be tracked.
+	 */
+	public static String[] getForwardedSources(FlowNode node, FlowElement start, String[] sourceExpressions) {
+
+		if(sourceExpressions == null) {
+			return null;
+		}
+
+		ElementGraph graph = node.getElementGraph();
+		Set<FlowElement> sinks = node.getSinkElements();
+
+		Fields startFields = getOutgoingFields(node, start);
+		if(!isTrackable(startFields) || startFields.size() != sourceExpressions.length) {
+			return null;
+		}
+
+		Map<Comparable, String> forwarded = new HashMap<>();
+		for(int i=0; i<sourceExpressions.length; i++) {
+			if(sourceExpressions[i] != null) {
+				forwarded.put(startFields.get(i), sourceExpressions[i]);
+			}
+		}
+
+		FlowElement current = start;
+		while(!forwarded.isEmpty()) {
+
+			Set<Scope> outScopes = graph.outgoingEdgesOf(current);
+			if(outScopes.size() != 1) {
+				return null;
+			}
+			Scope inScope = outScopes.iterator().next();
+			FlowElement next = graph.getEdgeTarget(inScope);
+			Fields inFields = getFields(inScope);
+			if(!isTrackable(inFields)) {
+				return null;
+			}
+
+			if(sinks.contains(next)) {
+				String[] sources = new String[inFields.size()];
+				for(int i=0; i<sources.length; i++) {
+					sources[i] = forwarded.get(inFields.get(i));
+				}
+				return sources;
+			}
+
+			Fields outFields = getOutgoingFields(node, next);
+			if(!isTrackable(outFields)) {
+				return null;
+			}
+			forwarded = forward(next, inFields, outFields, forwarded);
+			if(forwarded == null) {
+				return null;
+			}
+			current = next;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Composes forwarded sources of two consecutive operators.
+	 *
+	 * @param first The sources of the first operator's output fields.
+	 * @param second The sources of the second operator's output fields, expressed as positions of the first operator's output.
+	 * @return The sources of the second operator's output fields in the first operator's input or null.
+	 */
+	public static String[] compose(String[] first, String[] second) {
+
+		if(first == null || second == null) {
+			return null;
+		}
+		String[] composed = new String[second.length];
+		for(int i=0; i<second.length; i++) {
+			if(second[i] != null) {
+				composed[i] = first[Integer.parseInt(second[i])];
+			}
+		}
+		return composed;
+	}
+
+	/**
+	 * Converts forwarded sources into Flink forwarded field annotations of the form "source->target".
+	 *
+	 * @param sources The source of each output field or null.
+	 * @return The annotations, possibly empty.
+	 */
+	public static String[] toAnnotations(String[] sources) {
+
+		List<String> annotations = new ArrayList<>();
+		if(sources != null) {
+			for(int i=0; i<sources.length; i++) {
+				if(sources[i] != null) {
+					annotations.add(sources[i] + "->" + i);
+				}
+			}
+		}
+		return annotations.toArray(new String[annotations.size()]);
+	}
+
+	/**
+	 * Returns the source expressions of the fields of an element's outgoing scope which are identified by name
+	 * in the schema of the operator input.
+	 *
+	 * @param startFields The outgoing fields of the start element.
+	 * @param inputFields The schema of the operator input.
+	 * @param trackedFields The fields to track or Fields.ALL.
+	 * @return The source expression of each outgoing field or null if a field is not tracked.
+	 */
+	public static String[] getSourcesByName(Fields startFields, Fields inputFields, Fields trackedFields) {
+
+		if(!isTrackable(startFields) || !isTrackable(inputFields)) {
+			return null;
+		}
+
+		Set<Comparable> tracked = null;
+		if(!trackedFields.isAll()) {
+			if(!isTrackable(trackedFields)) {
+				return null;
+			}
+			tracked = getNames(trackedFields);
+		}
+
+		Map<Comparable, Integer> inputPos = new HashMap<>();
+		for(int i=0; i<inputFields.size(); i++) {
+			inputPos.put(inputFields.get(i), i);
+		}
+
+		String[] sources = new String[startFields.size()];
+		for(int i=0; i<sources.length; i++) {
+			Comparable name = startFields.get(i);
+			Integer pos = inputPos.get(name);
+			if(pos != null && (tracked == null || tracked.contains(name))) {
+				sources[i] = Integer.toString(pos);
+			}
+		}
+		return sources;
+	}
+
+	private static Map<Comparable, String> forward(FlowElement element, Fields inFields, Fields outFields,
+													Map<Comparable, String> forwarded) {
+
+		Set<Comparable> outNames = getNames(outFields);
+		Set<Comparable> modified;
+
+		if(element instanceof Each && !((Each) element).isFunction()) {
+			// filters and assertions do not modify values
+			modified = new HashSet<>();
+		}
+		else if(element instanceof Every && ((Every) element).isGroupAssertion()) {
+			modified = new HashSet<>();
+		}
+		else if(element instanceof Each || element instanceof Every) {
+			modified = getModifiedFields((Operator) element, inFields);
+			if(modified == null) {
+				return new HashMap<>();
+			}
+		}
+		else if(element instanceof Boundary || element instanceof Checkpoint || element.getClass().equals(Pipe.class)) {
+			modified = new HashSet<>();
+		}
+		else {
+			return null;
+		}
+
+		Map<Comparable, String> result = new HashMap<>();
+		for(Map.Entry<Comparable, String> entry : forwarded.entrySet()) {
+			if(outNames.contains(entry.getKey()) && !modified.contains(entry.getKey())) {
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the names of incoming fields which might be replaced by results of an operation or
+	 * null if all output fields are results.
+	 */
+	static Set<Comparable> getModifiedFields(Operator operator, Fields inFields) {
+
+		Fields outputSelector = operator.getOutputSelector();
+		if(outputSelector.isResults()) {
+			return null;
+		}
+		if(outputSelector.isAll()) {
+			// results must not collide with incoming fields
+			return new HashSet<>();
+		}
+
+		// swapped, replaced, or explicitly selected fields might be replaced by results named like arguments
+		Fields argumentSelector = operator.getArgumentSelector();
+		if(argumentSelector.isAll()) {
+			return getNames(inFields);
+		}
+		try {
+			return getNames(inFields.select(argumentSelector));
+		}
+		catch(RuntimeException e) {
+			// arguments cannot be resolved by name
+			return null;
+		}
+	}
+
+	static Fields getFields(Scope scope) {
+		return scope.isEvery() ? scope.getOutGroupingFields() : scope.getOutValuesFields();
+	}
+
+	private static boolean isTrackable(Fields fields) {
+		if(fields == null || !fields.isDefined()) {
+			return false;
+		}
+		for(int i=0; i<fields.size(); i++) {
+			// positional fields cannot be tracked by name
+			if(fields.get(i) instanceof Number) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<Comparable> getNames(Fields fields) {
+		Set<Comparable> names = new HashSet<>();
+		for(int i=0; i<fields.size(); i++) {
+			names.add(fields.get(i));
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.cascade.Cascade;
+import cascading.flow.Flow;
+import cascading.flow.FlowSkipStrategy;
+import cascading.flow.planner.Scope;
+import cascading.scheme.hadoop.SequenceFile;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles connected flows of a Cascade into single Flink jobs.
+ *
+ * Flows are fused if one reads a tap that the other writes. Instead of writing the tap to the file system and
+ * reading it again, the data is passed through Flink's data exchanges. Only taps with SequenceFile schemes are
+ * passed, because they return the tuples as they were written, with the read fields named by position. A flow is not fused if it reads a tap written by
+ * a flow that cannot be fused. Passed taps are written nevertheless if they are read by other flows or if
+ * {@link FlinkConfigConstants#CASCADE_WRITE_INTERMEDIATES} is set.
+ *
+ * The first flow of a fused group executes the job for all flows of the group, the other flows are skipped.
+ * Fusion must be requested before the Cascade is started.
+ */
+public class FusedCascade {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FusedCascade.class);
+
+	private static final FlowSkipStrategy SKIP_FUSED_FLOW = new FlowSkipStrategy() {
+		@Override
+		public boolean skipFlow(Flow flow) {
+			// executed by the job of the first flow of its group
+			return true;
+		}
+	};
+
+	private FusedCascade() {}
+
+	/**
+	 * Fuses the connected flows of a Cascade.
+	 */
+	public static void fuse(Cascade cascade) {
+		fuse(cascade.getFlows());
+	}
+
+	/**
+	 * Fuses connected flows.
+	 *
+	 * @param flows The flows in topological order.
+	 */
+	public static void fuse(List<Flow> flows) {
+
+		Map<String, Flow> writers = new HashMap<>();
+		Map<String, List<Flow>> readers = new HashMap<>();
+		for(Flow flow : flows) {
+			for(Object sink : flow.getSinks().values()) {
+				writers.put(((Tap)sink).getIdentifier(), flow);
+			}
+			for(Object source : flow.getSources().values()) {
+				String id = ((Tap)source).getIdentifier();
+				if(!readers.containsKey(id)) {
+					readers.put(id, new ArrayList<Flow>());
+				}
+				readers.get(id).add(flow);
+			}
+		}
+
+		// group flows in topological order
+		Map<Flow, List<FlinkFlow>> groups = new IdentityHashMap<>();
+		List<List<FlinkFlow>> allGroups = new ArrayList<>();
+		for(Flow flow : flows) {
+			if(!isFusable(flow)) {
+				continue;
+			}
+			FlinkFlow flinkFlow = (FlinkFlow)flow;
+			List<FlinkFlow> group = getWritingGroup(flinkFlow, writers, groups);
+			if(group == null) {
+				group = new ArrayList<>();
+				allGroups.add(group);
+			}
+			group.add(flinkFlow);
+			groups.put(flow, group);
+		}
+
+		for(List<FlinkFlow> group : allGroups) {
+			if(group.size() > 1) {
+				fuseGroup(group, writers, readers);
+			}
+		}
+	}
+
+	/**
+	 * Returns the group of the flows whose taps a flow reads or null if the flow starts a new group.
+	 */
+	private static List<FlinkFlow> getWritingGroup(FlinkFlow flow, Map<String, Flow> writers,
+													Map<Flow, List<FlinkFlow>> groups) {
+
+		List<FlinkFlow> group = null;
+		for(Object source : flow.getSources().values()) {
+			Tap sourceTap = (Tap)source;
+			Flow writer = writers.get(sourceTap.getIdentifier());
+			if(writer == null) {
+				// external input
+				continue;
+			}
+			List<FlinkFlow> writerGroup = groups.get(writer);
+			if(writerGroup == null || (group != null && group != writerGroup) ||
+					!canPass(writer, getSinkTap(writer, sourceTap.getIdentifier()), sourceTap)) {
+				return null;
+			}
+			group = writerGroup;
+		}
+		return group;
+	}
+
+	private static void fuseGroup(List<FlinkFlow> group, Map<String, Flow> writers, Map<String, List<Flow>> readers) {
+
+		FlinkFlow leader = group.get(0);
+		boolean writeIntermediates = leader.getConfig().getBoolean(FlinkConfigConstants.CASCADE_WRITE_INTERMEDIATES, false);
+		Set<FlinkFlow> members = Collections.newSetFromMap(new IdentityHashMap<FlinkFlow, Boolean>());
+		members.addAll(group);
+
+		Map<String, Fields> passedTaps = new HashMap<>();
+		Set<String> writtenTaps = new HashSet<>();
+
+		for(FlinkFlow flow : group) {
+			for(Object source : flow.getSources().values()) {
+				Tap sourceTap = (Tap)source;
+				String id = sourceTap.getIdentifier();
+				if(!members.contains(writers.get(id))) {
+					continue;
+				}
+				passedTaps.put(id, sourceTap.getSourceFields());
+
+				boolean readElsewhere = false;
+				for(Flow reader : readers.get(id)) {
+					readElsewhere |= !members.contains(reader);
+				}
+				if(writeIntermediates || readElsewhere) {
+					writtenTaps.add(id);
+				}
+			}
+		}
+
+		FusedProgram program = new FusedProgram(group, passedTaps, writtenTaps);
+		for(FlinkFlow flow : group) {
+			FusedProgram.getStep(flow).setFusedProgram(program);
+			if(flow != leader) {
+				flow.setFlowSkipStrategy(SKIP_FUSED_FLOW);
+			}
+		}
+
+		LOG.info("Fused {} flows into a single job executed by flow {}, passing taps {}.",
+				group.size(), leader.getName(), passedTaps.keySet());
+	}
+
+	private static boolean isFusable(Flow flow) {
+		return flow instanceof FlinkFlow &&
+				flow.getFlowSteps().size() == 1 &&
+				flow.getFlowSteps().get(0) instanceof FlinkFlowStep;
+	}
+
+	private static Tap getSinkTap(Flow flow, String id) {
+
+		for(Object sink : flow.getSinks().values()) {
+			if(((Tap)sink).getIdentifier().equals(id)) {
+				return (Tap)sink;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether the data written to a sink tap can be passed to a source tap of another flow.
+	 */
+	private static boolean canPass(Flow writer, Tap sinkTap, Tap sourceTap) {
+
+		if(sinkTap == null ||
+				!(sinkTap.getScheme() instanceof SequenceFile) || !(sourceTap.getScheme() instanceof SequenceFile)) {
+			return false;
+		}
+
+		// SequenceFiles name the read fields by position
+		Fields sourceFields = sourceTap.getSourceFields();
+		if(!sourceFields.isDefined()) {
+			return true;
+		}
+		Fields sinkFields = sinkTap.getSinkFields();
+		if(sinkFields.isAll()) {
+			sinkFields = getIncomingFields(writer, sinkTap);
+		}
+		return sinkFields != null && sinkFields.isDefined() && sinkFields.size() == sourceFields.size();
+	}
+
+	private static Fields getIncomingFields(Flow writer, Tap sinkTap) {
+
+		Set<Scope> incoming = ((FlinkFlowStep)writer.getFlowSteps().get(0)).getElementGraph().incomingEdgesOf(sinkTap);
+		if(incoming.size() != 1) {
+			return null;
+		}
+		return incoming.iterator().next().getOutValuesFields();
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowProcess;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.runtime.util.IdMapper;
+import com.dataartisans.flink.cascading.runtime.util.ProjectionMapper;
+import com.dataartisans.flink.cascading.types.tuple.TupleTypeInfo;
+import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.operators.Operator;
+import org.apache.hadoop.conf.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Flink program of several connected flows which are executed as a single job.
+ * The data of intermediate taps is passed from the writing to the reading flows within the program.
+ * The step of the first flow builds the program for all flows and submits it. The steps of all other
+ * flows are skipped.
+ */
+class FusedProgram {
+
+	private final List<FlinkFlow> flows;
+
+	// identifiers of taps that are passed within the program and their source fields in the reading flows
+	private final Map<String, Fields> passedTaps;
+	// identifiers of passed taps that are also written
+	private final Set<String> writtenTaps;
+
+	private final Map<String, DataSet<Tuple>> results = new HashMap<>();
+
+	FusedProgram(List<FlinkFlow> flows, Map<String, Fields> passedTaps, Set<String> writtenTaps) {
+		this.flows = flows;
+		this.passedTaps = passedTaps;
+		this.writtenTaps = writtenTaps;
+	}
+
+	boolean isLeader(FlinkFlowStep step) {
+		return getStep(flows.get(0)) == step;
+	}
+
+	/**
+	 * Builds the programs of all flows into the environment of the leading step.
+	 */
+	void build(FlinkFlowStep leader, FlowProcess<Configuration> leaderProcess) {
+
+		for(FlinkFlow flow : flows) {
+			FlinkFlowStep step = getStep(flow);
+			if(step == leader) {
+				step.buildFlinkProgram(leaderProcess);
+			}
+			else {
+				FlowProcess<Configuration> flowProcess = flow.getFlowProcess();
+				step.createInitializedConfig(flowProcess, flow.getConfigCopy());
+				step.setExecutionEnvironment(leader.getExecutionEnvironment());
+				// the sinks of the flow are written by the job of the leading step
+				flow.prepareFusedExecution();
+				step.buildFlinkProgram(flowProcess);
+			}
+		}
+	}
+
+	boolean isPassed(Tap tap) {
+		return passedTaps.containsKey(tap.getIdentifier());
+	}
+
+	boolean isWritten(Tap tap) {
+		return !isPassed(tap) || writtenTaps.contains(tap.getIdentifier());
+	}
+
+	DataSet<Tuple> getResult(Tap tap) {
+
+		DataSet<Tuple> result = results.get(tap.getIdentifier());
+		if(result == null) {
+			throw new IllegalStateException("Tap " + tap.getIdentifier() + " was read before it was written.");
+		}
+		return result;
+	}
+
+	/**
+	 * Registers the data that a flow writes to a passed tap. The data is projected on the sink fields of the
+	 * tap and named by the source fields of the reading flows.
+	 */
+	void putResult(Tap tap, DataSet<Tuple> input, String name) {
+
+		Fields inputFields = ((TupleTypeInfo)input.getType()).getSchema();
+		Fields sinkFields = tap.getSinkFields();
+		Fields writtenFields = sinkFields.isAll() ? inputFields : inputFields.select(sinkFields);
+		Fields sourceFields = passedTaps.get(tap.getIdentifier());
+		Fields readFields = sourceFields.isDefined() ? sourceFields : writtenFields;
+
+		MapFunction<Tuple, Tuple> projection = sinkFields.isAll() ?
+				new IdMapper() :
+				new ProjectionMapper(inputFields.getPos(writtenFields));
+
+		DataSet<Tuple> result = input
+				.map(projection)
+				.returns(new TupleTypeInfo(readFields))
+				.setParallelism(((Operator)input).getParallelism())
+				.name(name);
+		results.put(tap.getIdentifier(), result);
+	}
+
+	static FlinkFlowStep getStep(FlinkFlow flow) {
+		return (FlinkFlowStep)flow.getFlowSteps().get(0);
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.flink.api.common.io.statistics.BaseStatistics;
+import org.apache.flink.api.common.operators.base.JoinOperatorBase.JoinHint;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chooses the strategy of a join step of a HashJoin.
+ * The streamed (left-most) side of a HashJoin is joined with each accumulated side in a separate join step.
+ * By default, the accumulated side is broadcasted. If the size estimates show that the accumulated side
+ * is too large to be broadcasted, the streamed side is broadcasted or both sides are repartitioned.
+ */
+public class HashJoinStrategySelector {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HashJoinStrategySelector.class);
+
+	public enum Strategy {
+		AUTO,
+		BROADCAST_FIRST,
+		BROADCAST_SECOND,
+		REPARTITION
+	}
+
+	public static final long DEFAULT_BROADCAST_THRESHOLD = 128L * 1024L * 1024L;
+
+	private final Strategy strategyHint;
+	private final long broadcastThreshold;
+
+	public HashJoinStrategySelector(Configuration nodeConfig) {
+
+		String hint = nodeConfig.get(FlinkConfigConstants.HASHJOIN_STRATEGY, Strategy.AUTO.name());
+		Strategy strategy;
+		try {
+			strategy = Strategy.valueOf(hint.trim().toUpperCase());
+		}
+		catch(IllegalArgumentException iae) {
+			LOG.warn("Unknown value '" + hint + "' for '" + FlinkConfigConstants.HASHJOIN_STRATEGY + "'. " +
+					"Using " + Strategy.AUTO + " instead.");
+			strategy = Strategy.AUTO;
+		}
+		this.strategyHint = strategy;
+		this.broadcastThreshold = nodeConfig.getLong(FlinkConfigConstants.HASHJOIN_BROADCAST_THRESHOLD, DEFAULT_BROADCAST_THRESHOLD);
+	}
+
+	/**
+	 * Returns true if the strategy is chosen based on the estimated sizes of the join inputs.
+	 */
+	public boolean isSizeBased() {
+		return strategyHint == Strategy.AUTO;
+	}
+
+	/**
+	 * Checks whether an accumulated side of a HashJoin may be broadcasted.
+	 *
+	 * @param accumulatedBytes The estimated size of the accumulated side or BaseStatistics.SIZE_UNKNOWN.
+	 * @return True if the accumulated side may be broadcasted, false otherwise.
+	 */
+	public boolean isBroadcastable(long accumulatedBytes) {
+
+		switch(strategyHint) {
+			case BROADCAST_SECOND:
+				return true;
+			case AUTO:
+				return accumulatedBytes == BaseStatistics.SIZE_UNKNOWN || accumulatedBytes <= broadcastThreshold;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Chooses the join hint for a join step.
+	 *
+	 * @param operatorName The name of the join operator, used for logging.
+	 * @param streamedBytes The estimated size of the streamed side or BaseStatistics.SIZE_UNKNOWN.
+	 * @param accumulatedBytes The estimated size of the accumulated side or BaseStatistics.SIZE_UNKNOWN.
+	 * @param broadcastFirstAllowed Whether the streamed side may be broadcasted.
+	 * @return The join hint for the join step.
+	 */
+	public JoinHint selectJoinHint(String operatorName, long streamedBytes, long accumulatedBytes, boolean broadcastFirstAllowed) {
+
+		boolean streamedKnown = streamedBytes != BaseStatistics.SIZE_UNKNOWN;
+		boolean accumulatedKnown = accumulatedBytes != BaseStatistics.SIZE_UNKNOWN;
+
+		Strategy strategy;
+		String reason;
+
+		if(strategyHint != Strategy.AUTO) {
+			strategy = strategyHint;
+			reason = "set by " + FlinkConfigConstants.HASHJOIN_STRATEGY;
+			if(strategy == Strategy.BROADCAST_FIRST && !broadcastFirstAllowed) {
+				strategy = Strategy.BROADCAST_SECOND;
+				reason = "streamed side cannot be broadcasted";
+			}
+		}
+		else if(!accumulatedKnown) {
+			strategy = Strategy.BROADCAST_SECOND;
+			reason = "size of accumulated side unknown";
+		}
+		else if(broadcastFirstAllowed && streamedKnown &&
+				streamedBytes < accumulatedBytes && streamedBytes <= broadcastThreshold) {
+			strategy = Strategy.BROADCAST_FIRST;
+			reason = "streamed side is smaller and below broadcast threshold";
+		}
+		else if(accumulatedBytes <= broadcastThreshold) {
+			strategy = Strategy.BROADCAST_SECOND;
+			reason = "accumulated side below broadcast threshold";
+		}
+		else {
+			strategy = Strategy.REPARTITION;
+			reason = "no side below broadcast threshold";
+		}
+
+		JoinHint joinHint;
+		switch(strategy) {
+			case BROADCAST_FIRST:
+				joinHint = JoinHint.BROADCAST_HASH_FIRST;
+				break;
+			case REPARTITION:
+				// build the hash table on the smaller side
+				if(broadcastFirstAllowed && streamedKnown && accumulatedKnown && streamedBytes < accumulatedBytes) {
+					joinHint = JoinHint.REPARTITION_HASH_FIRST;
+				}
+				else {
+					joinHint = JoinHint.REPARTITION_HASH_SECOND;
+				}
+				break;
+			default:
+				joinHint = JoinHint.BROADCAST_HASH_SECOND;
+		}
+
+		LOG.info("{}: using {} ({}; streamed side: {} bytes, accumulated side: {} bytes, broadcast threshold: {} bytes)",
+				operatorName, joinHint, reason,
+				streamedKnown ? streamedBytes : "unknown",
+				accumulatedKnown ? accumulatedBytes : "unknown",
+				broadcastThreshold);
+
+		return joinHint;
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.flink.api.common.io.statistics.BaseStatistics;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chooses the parallelism of source, reduce, and CoGroup operators from the estimated size of their input.
+ * Adaptive parallelism is disabled by default. If it is disabled or the input size is unknown,
+ * the configured default parallelism is used.
+ */
+public class ParallelismPlanner {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ParallelismPlanner.class);
+
+	public static final long DEFAULT_BYTES_PER_TASK = 256L * 1024L * 1024L;
+
+	private final boolean enabled;
+	private final long bytesPerTask;
+	private final int minParallelism;
+	private final int maxParallelism;
+
+	public ParallelismPlanner(Configuration config) {
+
+		this.enabled = config.getBoolean(FlinkConfigConstants.ADAPTIVE_PARALLELISM, false);
+		this.bytesPerTask = Math.max(1L,
+				config.getLong(FlinkConfigConstants.ADAPTIVE_PARALLELISM_BYTES_PER_TASK, DEFAULT_BYTES_PER_TASK));
+		this.minParallelism = Math.max(1, config.getInt(FlinkConfigConstants.ADAPTIVE_PARALLELISM_MIN, 1));
+		this.maxParallelism = config.getInt(FlinkConfigConstants.ADAPTIVE_PARALLELISM_MAX, -1);
+	}
+
+	/**
+	 * Returns the parallelism for an operator.
+	 *
+	 * @param operatorName The name of the operator, used for logging.
+	 * @param estimatedBytes The estimated size of the operator's input or BaseStatistics.SIZE_UNKNOWN.
+	 * @param defaultParallelism The configured parallelism. It is also the upper bound
+	 *                           if no maximum parallelism is configured.
+	 * @return The parallelism of the operator.
+	 */
+	public int getParallelism(String operatorName, long estimatedBytes, int defaultParallelism) {
+
+		if(!enabled || estimatedBytes == BaseStatistics.SIZE_UNKNOWN) {
+			return defaultParallelism;
+		}
+
+		int max = maxParallelism > 0 ? maxParallelism : defaultParallelism;
+		int min = Math.min(minParallelism, max);
+
+		long numTasks = (estimatedBytes + bytesPerTask - 1) / bytesPerTask;
+		int parallelism = (int)Math.max(min, Math.min(max, numTasks));
+
+		LOG.info("{}: using parallelism {} for estimated input of {} bytes (bounds: [{}, {}])",
+				operatorName, parallelism, estimatedBytes, min, max);
+
+		return parallelism;
+	}
+
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowElement;
+import cascading.flow.FlowNode;
+import cascading.flow.planner.Scope;
+import cascading.flow.planner.ScopedElement;
+import cascading.flow.planner.graph.ElementGraph;
+import cascading.pipe.Operator;
+import cascading.pipe.Splice;
+import cascading.tap.Tap;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.flink.api.common.JobID;
+import org.apache.flink.runtime.jobgraph.JobGraph;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on-disk cache of compiled Flink JobGraphs.
+ * Cache entries are keyed by a fingerprint of the step's element graphs, operations, taps, config defs of
+ * pipes and taps, configuration, parallelism, and class path, including the sizes and modification times of
+ * its files. A step whose fingerprint is found in the cache is submitted without translating, optimizing,
+ * and compiling its Flink program.
+ * The paths of taps are part of the fingerprint. Hence, a cached plan is only reused for the same inputs and outputs.
+ * Programs which depend on the size or content of their inputs, e.g., because a HashJoin strategy was chosen
+ * by input size, are not cached.
+ */
+public class PlanCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PlanCache.class);
+
+	private static final String FINGERPRINT_VERSION = "2";
+	private static final String FILE_SUFFIX = ".jobgraph";
+
+	private final File cacheDir;
+
+	public PlanCache(File cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	/**
+	 * Returns the plan cache configured by {@link FlinkConfigConstants#PLAN_CACHE_DIR} or null if no
+	 * cache directory is configured. The cache is not used if adaptive parallelism is enabled,
+	 * because the chosen parallelism depends on the current size of the inputs, or if the result cache
+	 * is enabled, because the program depends on the currently cached results.
+	 *
+	 * @param config The configuration of the step.
+	 * @return The plan cache or null if plans should not be cached.
+	 */
+	public static PlanCache fromConfig(Configuration config) {
+
+		String dir = config.get(FlinkConfigConstants.PLAN_CACHE_DIR);
+		if(dir == null || dir.isEmpty()) {
+			return null;
+		}
+		if(config.getBoolean(FlinkConfigConstants.ADAPTIVE_PARALLELISM, false)) {
+			LOG.info("Plan cache is disabled because adaptive parallelism is enabled.");
+			return null;
+		}
+		if(config.get(FlinkConfigConstants.RESULT_CACHE_DIR) != null) {
+			LOG.info("Plan cache is disabled because the result cache is enabled.");
+			return null;
+		}
+		return new PlanCache(new File(dir));
+	}
+
+	/**
+	 * Computes the fingerprint of a step.
+	 *
+	 * @param step The step to fingerprint.
+	 * @param config The configuration of the step.
+	 * @param parallelism The default parallelism of the execution environment.
+	 * @param classPath The class path which is shipped with the job.
+	 * @return The fingerprint or null if the step cannot be fingerprinted, e.g., because an operation is not serializable.
+	 */
+	public String fingerprint(FlinkFlowStep step, Configuration config, int parallelism, List<String> classPath) {
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch(NoSuchAlgorithmException e) {
+			LOG.warn("Could not compute plan fingerprint.", e);
+			return null;
+		}
+
+		update(digest, FINGERPRINT_VERSION);
+		update(digest, Integer.toString(parallelism));
+		for(String path : classPath) {
+			update(digest, describeClassPathEntry(path));
+		}
+
+		// configuration entries, sorted by key
+		List<String> entries = new ArrayList<>();
+		for(Map.Entry<String, String> entry : config) {
+			if(!isVolatileKey(entry.getKey())) {
+				entries.add(entry.getKey() + "=" + entry.getValue());
+			}
+		}
+		Collections.sort(entries);
+		for(String entry : entries) {
+			update(digest, entry);
+		}
+
+		// element graphs of all nodes in topological order
+		Iterator<FlowNode> nodes = step.getFlowNodeGraph().getTopologicalIterator();
+		while(nodes.hasNext()) {
+			ElementGraph elementGraph = nodes.next().getElementGraph();
+
+			List<String> descriptions = new ArrayList<>();
+			try {
+				for(FlowElement element : elementGraph.vertexSet()) {
+					descriptions.add(describe(element));
+				}
+				for(Scope scope : elementGraph.edgeSet()) {
+					descriptions.add(describe(elementGraph.getEdgeSource(scope)) + " -> " +
+							describe(elementGraph.getEdgeTarget(scope)) + " : " + scope);
+				}
+			}
+			catch(IOException e) {
+				LOG.info("Plan of step {} is not cached: {}", step.getName(), e.getMessage());
+				return null;
+			}
+
+			// element graphs do not iterate in a defined order
+			Collections.sort(descriptions);
+			update(digest, "node");
+			for(String description : descriptions) {
+				update(digest, description);
+			}
+		}
+
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Loads a cached JobGraph. The returned JobGraph has a new JobID.
+	 *
+	 * @param fingerprint The fingerprint of the step.
+	 * @return The cached JobGraph or null if no JobGraph is cached for the fingerprint.
+	 */
+	public JobGraph load(String fingerprint) {
+
+		File file = getFile(fingerprint);
+		if(!file.isFile()) {
+			return null;
+		}
+
+		JobGraph cached;
+		try(ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+			cached = (JobGraph)in.readObject();
+		}
+		catch(IOException | ClassNotFoundException | ClassCastException e) {
+			LOG.warn("Could not read cached plan " + file + ". Compiling plan.", e);
+			return null;
+		}
+
+		LOG.info("Using cached plan {}", file);
+		return withNewJobID(cached);
+	}
+
+	/**
+	 * Stores a compiled JobGraph in the cache. Failures are logged and ignored.
+	 *
+	 * @param fingerprint The fingerprint of the step.
+	 * @param jobGraph The compiled JobGraph of the step.
+	 */
+	public void store(String fingerprint, JobGraph jobGraph) {
+
+		File file = getFile(fingerprint);
+		if(!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+			LOG.warn("Could not create plan cache directory {}", cacheDir);
+			return;
+		}
+
+		try {
+			// write to a temporary file first to not expose partially written plans
+			File tmpFile = File.createTempFile(fingerprint, ".tmp", cacheDir);
+			try(ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tmpFile))) {
+				out.writeObject(jobGraph);
+			}
+			if(!tmpFile.renameTo(file)) {
+				tmpFile.delete();
+				LOG.warn("Could not move cached plan to {}", file);
+			}
+		}
+		catch(IOException e) {
+			LOG.warn("Could not cache plan in " + file, e);
+		}
+	}
+
+	private File getFile(String fingerprint) {
+		return new File(cacheDir, fingerprint + FILE_SUFFIX);
+	}
+
+	private static JobGraph withNewJobID(JobGraph cached) {
+
+		JobGraph jobGraph = new JobGraph(new JobID(), cached.getName(), cached.getVerticesAsArray());
+
+		jobGraph.getJobConfiguration().addAll(cached.getJobConfiguration());
+		jobGraph.setScheduleMode(cached.getScheduleMode());
+		jobGraph.setAllowQueuedScheduling(cached.getAllowQueuedScheduling());
+		jobGraph.setSessionTimeout(cached.getSessionTimeout());
+		if(cached.getRestartStrategyConfiguration() != null) {
+			jobGraph.setRestartStrategyConfiguration(cached.getRestartStrategyConfiguration());
+		}
+		if(cached.getSnapshotSettings() != null) {
+			jobGraph.setSnapshotSettings(cached.getSnapshotSettings());
+		}
+		jobGraph.setClasspaths(cached.getClasspaths());
+
+		return jobGraph;
+	}
+
+	/**
+	 * Describes a class path entry by its path and the sizes and modification times of its files,
+	 * such that a rebuilt jar at the same path changes the fingerprint.
+	 */
+	private static String describeClassPathEntry(String path) {
+
+		StringBuilder sb = new StringBuilder(path);
+		File file = new File(path);
+		if(file.isDirectory()) {
+			List<String> entries = new ArrayList<>();
+			collectFiles(file, "", entries);
+			Collections.sort(entries);
+			for(String entry : entries) {
+				sb.append(' ').append(entry);
+			}
+		}
+		else if(file.isFile()) {
+			sb.append(' ').append(file.length()).append('@').append(file.lastModified());
+		}
+		return sb.toString();
+	}
+
+	private static void collectFiles(File dir, String prefix, List<String> entries) {
+
+		File[] files = dir.listFiles();
+		if(files == null) {
+			return;
+		}
+		for(File file : files) {
+			String name = prefix + file.getName();
+			if(file.isDirectory()) {
+				collectFiles(file, name + "/", entries);
+			}
+			else {
+				entries.add(name + ":" + file.length() + "@" + file.lastModified());
+			}
+		}
+	}
+
+	static String describe(FlowElement element) throws IOException {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(element.getClass().getName()).append('(').append(element).append(')');
+
+		if(element instanceof Operator) {
+			Operator operator = (Operator)element;
+			sb.append(" op: ").append(operator.getOperation().getClass().getName())
+					.append('#').append(hashSerialized(operator.getOperation()))
+					.append(" args: ").append(operator.getArgumentSelector())
+					.append(" out: ").append(operator.getOutputSelector());
+		}
+		else if(element instanceof Splice) {
+			Splice splice = (Splice)element;
+			sb.append(" keys: ").append(splice.getKeySelectors())
+					.append(" sort: ").append(splice.getSortingSelectors())
+					.append(" reversed: ").append(splice.isSortReversed());
+			if(splice.getJoiner() != null) {
+				sb.append(" joiner: ").append(splice.getJoiner().getClass().getName())
+						.append('#').append(hashSerialized(splice.getJoiner()));
+			}
+		}
+		else if(element instanceof Tap) {
+			Tap tap = (Tap)element;
+			sb.append(" id: ").append(tap.getIdentifier())
+					.append(" scheme: ").append(tap.getScheme().getClass().getName())
+					.append('#').append(hashSerialized(tap.getScheme()))
+					.append(" mode: ").append(tap.getSinkMode());
+		}
+
+		if(element instanceof ScopedElement) {
+			// config defs of pipes and taps are applied to the node and step configurations when they are planned
+			ScopedElement scoped = (ScopedElement)element;
+			if(scoped.hasConfigDef()) {
+				sb.append(" config: ").append(hashSerialized(scoped.getConfigDef()));
+			}
+			if(scoped.hasNodeConfigDef()) {
+				sb.append(" nodeConfig: ").append(hashSerialized(scoped.getNodeConfigDef()));
+			}
+			if(scoped.hasStepConfigDef()) {
+				sb.append(" stepConfig: ").append(hashSerialized(scoped.getStepConfigDef()));
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private static String hashSerialized(Object o) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		try {
+			return toHex(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray()));
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for(byte b : bytes) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	static boolean isVolatileKey(String key) {
+		String lower = key.toLowerCase();
+		return lower.endsWith(".id") || lower.contains("uuid") || lower.endsWith(".ids");
+	}
+
+	static void update(MessageDigest digest, String s) {
+		digest.update(s.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte)0);
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowElement;
+import cascading.flow.FlowNode;
+import cascading.flow.planner.Scope;
+import cascading.flow.planner.graph.ElementGraph;
+import cascading.tap.Tap;
+import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.runtime.cache.ResultCacheInputFormat;
+import com.dataartisans.flink.cascading.runtime.cache.ResultCacheOutputFormat;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of intermediate results which is shared by all flows that use the same cache directory.
+ * Cache entries are keyed by a fingerprint of the lineage of a result, i.e., the element graphs, operations,
+ * and configuration of all nodes which contribute to the result, and the identifiers and modification times of
+ * the source taps. A flow which computes a result whose fingerprint is found in the cache reads the cached
+ * result instead of recomputing it. Results are stored in Flink's binary serialization format.
+ */
+public class ResultCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ResultCache.class);
+
+	private static final String FINGERPRINT_VERSION = "2";
+
+	// configuration keys which identify a flow but do not affect its results
+	private static final String[] IDENTITY_KEY_PREFIXES = {
+			"cascading.app.", "cascading.cascade.", "cascading.flow.", "cascading.step.",
+			"mapred.job.name", "mapreduce.job.name", FlinkConfigConstants.PLAN_CACHE_DIR,
+			FlinkConfigConstants.RESULT_CACHE_DIR
+	};
+
+	private final Path cacheDir;
+
+	public ResultCache(Path cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	/**
+	 * Returns the result cache configured by {@link FlinkConfigConstants#RESULT_CACHE_DIR} or null if no
+	 * cache directory is configured.
+	 *
+	 * @param config The configuration of the step.
+	 * @return The result cache or null if results should not be cached.
+	 */
+	public static ResultCache fromConfig(Configuration config) {
+
+		String dir = config.get(FlinkConfigConstants.RESULT_CACHE_DIR);
+		if(dir == null || dir.isEmpty()) {
+			return null;
+		}
+		return new ResultCache(new Path(dir));
+	}
+
+	/**
+	 * Computes the fingerprint of the result of a node.
+	 *
+	 * @param lineage The node and all nodes it (transitively) consumes.
+	 * @param configs The configuration of each node of the lineage.
+	 * @return The fingerprint or null if the result cannot be fingerprinted, e.g., because an operation is not
+	 * serializable or the modification time of a source is unknown.
+	 */
+	public String fingerprint(List<FlowNode> lineage, List<Configuration> configs) {
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch(NoSuchAlgorithmException e) {
+			LOG.warn("Could not compute result fingerprint.", e);
+			return null;
+		}
+
+		List<String> nodeDescriptions = new ArrayList<>(lineage.size());
+		for(int i = 0; i < lineage.size(); i++) {
+			try {
+				nodeDescriptions.add(describe(lineage.get(i), configs.get(i)));
+			}
+			catch(IOException e) {
+				LOG.info("Result of node {} is not cached: {}", lineage.get(0).getID(), e.getMessage());
+				return null;
+			}
+		}
+
+		// the lineage is not collected in a defined order
+		Collections.sort(nodeDescriptions);
+		PlanCache.update(digest, FINGERPRINT_VERSION);
+		for(String description : nodeDescriptions) {
+			PlanCache.update(digest, description);
+		}
+
+		return PlanCache.toHex(digest.digest());
+	}
+
+	/**
+	 * Returns a DataSet which reads a cached result.
+	 *
+	 * @param env The execution environment of the step.
+	 * @param fingerprint The fingerprint of the result.
+	 * @param dop The parallelism with which the cached result is read.
+	 * @return The DataSet of the cached result or null if the result is not cached.
+	 */
+	public DataSet<Tuple> read(ExecutionEnvironment env, String fingerprint, int dop) {
+
+		Path entryPath = new Path(cacheDir, fingerprint);
+		TypeInformation<Tuple> type;
+		try {
+			FileSystem fs = entryPath.getFileSystem();
+			if(!fs.exists(new Path(entryPath, ResultCacheOutputFormat.SUCCESS_FILE))) {
+				return null;
+			}
+			try(ObjectInputStream in = new ObjectInputStream(fs.open(new Path(entryPath, ResultCacheOutputFormat.TYPE_FILE)))) {
+				type = (TypeInformation<Tuple>)in.readObject();
+			}
+		}
+		catch(IOException | ClassNotFoundException | ClassCastException e) {
+			LOG.warn("Could not read cached result " + entryPath + ". Computing result.", e);
+			return null;
+		}
+
+		LOG.info("Using cached result {}", entryPath);
+		return env
+				.createInput(new ResultCacheInputFormat(entryPath, type), type)
+				.name("cached-" + fingerprint)
+				.setParallelism(dop);
+	}
+
+	/**
+	 * Adds a sink to the program which writes a result into the cache.
+	 * The result is only visible to other flows once the program finished successfully.
+	 *
+	 * @param result The result to cache.
+	 * @param fingerprint The fingerprint of the result.
+	 */
+	public void write(DataSet<Tuple> result, String fingerprint) {
+
+		Path entryPath = new Path(cacheDir, fingerprint);
+		LOG.info("Caching result in {}", entryPath);
+		result
+				.output(new ResultCacheOutputFormat(entryPath, result.getType()))
+				.name("cache-" + fingerprint);
+	}
+
+	private static String describe(FlowNode node, Configuration config) throws IOException {
+
+		ElementGraph elementGraph = node.getElementGraph();
+		List<String> descriptions = new ArrayList<>();
+
+		for(FlowElement element : elementGraph.vertexSet()) {
+			descriptions.add(PlanCache.describe(element));
+		}
+		for(Scope scope : elementGraph.edgeSet()) {
+			descriptions.add(PlanCache.describe(elementGraph.getEdgeSource(scope)) + " -> " +
+					PlanCache.describe(elementGraph.getEdgeTarget(scope)) + " : " + scope);
+		}
+
+		// sources must not have changed since the result was cached
+		JobConf tapConfig = new JobConf(config);
+		for(Tap tap : node.getSourceTaps()) {
+			long modified = tap.getModifiedTime(tapConfig);
+			if(modified <= 0) {
+				throw new IOException("Modification time of " + tap.getIdentifier() + " is unknown");
+			}
+			descriptions.add("source " + tap.getIdentifier() + " modified: " + modified);
+		}
+
+		for(Map.Entry<String, String> entry : config) {
+			if(!PlanCache.isVolatileKey(entry.getKey()) && !isIdentityKey(entry.getKey())) {
+				descriptions.add(entry.getKey() + "=" + entry.getValue());
+			}
+		}
+
+		// element graphs and configurations do not iterate in a defined order
+		Collections.sort(descriptions);
+		StringBuilder sb = new StringBuilder("node");
+		for(String description : descriptions) {
+			sb.append('\n').append(description);
+		}
+		return sb.toString();
+	}
+
+	private static boolean isIdentityKey(String key) {
+		for(String prefix : IDENTITY_KEY_PREFIXES) {
+			if(key.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
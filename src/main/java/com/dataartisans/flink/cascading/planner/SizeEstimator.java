@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import org.apache.flink.api.common.io.InputFormat;
+import org.apache.flink.api.common.io.statistics.BaseStatistics;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.operators.DataSource;
+import org.apache.flink.api.java.operators.SingleInputOperator;
+import org.apache.flink.api.java.operators.UnionOperator;
+import org.apache.flink.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Estimates the size of DataSets from the statistics of the input formats of their sources.
+ * Single input operators are assumed to not change the size of their input.
+ */
+public class SizeEstimator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SizeEstimator.class);
+
+	private static final long[] UNKNOWN = new long[]{BaseStatistics.SIZE_UNKNOWN, BaseStatistics.NUM_RECORDS_UNKNOWN};
+
+	private final Map<DataSet<?>, long[]> estimates = new IdentityHashMap<>();
+
+	/**
+	 * Returns the estimated size of a DataSet in bytes.
+	 *
+	 * @param dataSet The DataSet whose size is estimated.
+	 * @return The estimated size in bytes or BaseStatistics.SIZE_UNKNOWN.
+	 */
+	public long getEstimatedBytes(DataSet<?> dataSet) {
+		return estimate(dataSet)[0];
+	}
+
+	/**
+	 * Returns the estimated number of records of a DataSet.
+	 *
+	 * @param dataSet The DataSet whose number of records is estimated.
+	 * @return The estimated number of records or BaseStatistics.NUM_RECORDS_UNKNOWN.
+	 */
+	public long getEstimatedRecords(DataSet<?> dataSet) {
+		return estimate(dataSet)[1];
+	}
+
+	/**
+	 * Scales the size estimate of a DataSet by a selectivity factor.
+	 * The estimates of DataSets derived from it are based on the scaled estimate.
+	 *
+	 * @param dataSet The DataSet whose estimate is scaled.
+	 * @param selectivity The ratio of the DataSet's size to its estimated size.
+	 */
+	public void applySelectivity(DataSet<?> dataSet, float selectivity) {
+
+		long[] estimate = estimate(dataSet);
+		estimates.put(dataSet, new long[]{scale(estimate[0], selectivity), scale(estimate[1], selectivity)});
+	}
+
+	private long[] estimate(DataSet<?> dataSet) {
+
+		long[] estimate = estimates.get(dataSet);
+		if(estimate == null) {
+			if(dataSet instanceof DataSource) {
+				estimate = estimateSource((DataSource<?>)dataSet);
+			}
+			else if(dataSet instanceof UnionOperator) {
+				long[] estimate1 = estimate(((UnionOperator<?>)dataSet).getInput1());
+				long[] estimate2 = estimate(((UnionOperator<?>)dataSet).getInput2());
+				estimate = new long[]{add(estimate1[0], estimate2[0]), add(estimate1[1], estimate2[1])};
+			}
+			else if(dataSet instanceof SingleInputOperator) {
+				estimate = estimate(((SingleInputOperator<?, ?, ?>)dataSet).getInput());
+			}
+			else {
+				estimate = UNKNOWN;
+			}
+			estimates.put(dataSet, estimate);
+		}
+		return estimate;
+	}
+
+	private long[] estimateSource(DataSource<?> source) {
+
+		InputFormat<?, ?> inputFormat = source.getInputFormat();
+		try {
+			Configuration parameters = source.getParameters();
+			inputFormat.configure(parameters != null ? parameters : new Configuration());
+
+			BaseStatistics stats = inputFormat.getStatistics(null);
+			if(stats == null) {
+				return UNKNOWN;
+			}
+
+			long bytes = stats.getTotalInputSize();
+			long records = stats.getNumberOfRecords();
+			float recordWidth = stats.getAverageRecordWidth();
+			if(records == BaseStatistics.NUM_RECORDS_UNKNOWN &&
+					bytes != BaseStatistics.SIZE_UNKNOWN &&
+					recordWidth != BaseStatistics.AVG_RECORD_BYTES_UNKNOWN && recordWidth > 0.0f) {
+				records = (long)(bytes / recordWidth);
+			}
+			return new long[]{bytes, records};
+		}
+		catch(Exception e) {
+			LOG.warn("Could not obtain statistics of source {}: {}", source.getName(), e.getMessage());
+			return UNKNOWN;
+		}
+	}
+
+	private static long scale(long size, float selectivity) {
+		if(size < 0) {
+			return -1;
+		}
+		else {
+			return (long)(size * (double)selectivity);
+		}
+	}
+
+	private static long add(long size1, long size2) {
+		if(size1 < 0 || size2 < 0) {
+			return -1;
+		}
+		else {
+			return size1 + size2;
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowElement;
+import cascading.flow.FlowNode;
+import cascading.flow.planner.Scope;
+import cascading.pipe.Boundary;
+import cascading.pipe.Each;
+import cascading.pipe.Pipe;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes which fields of a source tap are referenced by the pipes that follow it.
+ * Starting from the tap, the fields are tracked backwards from the first elements that require all of their
+ * incoming fields (such as GroupBy, CoGroup, HashJoin, or sinks) through all Each pipes in between.
+ * An Each requires its argument fields and all incoming fields that it passes on and that are required
+ * by its successors. Boundaries are followed into the nodes that consume them.
+ * Fields with primitive types are always treated as referenced because they must not be null.
+ */
+public class SourceProjection {
+
+	private SourceProjection() {}
+
+	/**
+	 * Returns the positions of the source fields of a tap which are referenced by the following pipes.
+	 *
+	 * @param node The source node of the tap.
+	 * @param tap The source tap.
+	 * @param boundaryConsumers The consuming nodes of all boundaries of the step.
+	 * @return The positions of all referenced fields in ascending order or null if all fields are referenced or
+	 * the referenced fields cannot be determined.
+	 */
+	public static int[] getReferencedPositions(FlowNode node, Tap tap, Map<FlowElement, List<FlowNode>> boundaryConsumers) {
+
+		Fields sourceFields = tap.getSourceFields();
+		Set<String> sourceNames = getNames(sourceFields);
+		if(sourceNames == null || sourceNames.size() != sourceFields.size()) {
+			return null;
+		}
+
+		Set<String> referenced = getRequiredFields(node, tap, boundaryConsumers);
+		if(referenced == null || referenced.containsAll(sourceNames)) {
+			return null;
+		}
+
+		// fields of primitive types are never nulled, serializers may rely on them being set
+		Class[] typeClasses = sourceFields.getTypesClasses();
+		List<Integer> positions = new ArrayList<>();
+		for(int i=0; i<sourceFields.size(); i++) {
+			boolean primitive = typeClasses != null && typeClasses[i] != null && typeClasses[i].isPrimitive();
+			if(primitive || referenced.contains((String)sourceFields.get(i))) {
+				positions.add(i);
+			}
+		}
+		if(positions.size() == sourceFields.size()) {
+			return null;
+		}
+		int[] projection = new int[positions.size()];
+		for(int i=0; i<projection.length; i++) {
+			projection[i] = positions.get(i);
+		}
+		return projection;
+	}
+
+	/**
+	 * Returns the names of the outgoing fields of an element which are required by its successors.
+	 *
+	 * @return The names of the required fields or null if all fields are required.
+	 */
+	private static Set<String> getRequiredFields(FlowNode node, FlowElement element,
+												Map<FlowElement, List<FlowNode>> boundaryConsumers) {
+
+		Set<Scope> outScopes = node.getElementGraph().outgoingEdgesOf(element);
+
+		if(outScopes.isEmpty()) {
+			// sink of the node, continue in the nodes that consume the boundary
+			List<FlowNode> consumers = boundaryConsumers.get(element);
+			if(!(element instanceof Boundary) || consumers == null || consumers.isEmpty()) {
+				return null;
+			}
+			Set<String> required = new HashSet<>();
+			for(FlowNode consumer : consumers) {
+				Set<String> consumerRequired = getRequiredFields(consumer, element, boundaryConsumers);
+				if(consumerRequired == null) {
+					return null;
+				}
+				required.addAll(consumerRequired);
+			}
+			return required;
+		}
+
+		Set<String> required = new HashSet<>();
+		for(Scope outScope : outScopes) {
+			FlowElement successor = node.getElementGraph().getEdgeTarget(outScope);
+			Set<String> successorRequired = getRequiredIncomingFields(node, outScope.getOutValuesFields(), successor,
+					boundaryConsumers);
+			if(successorRequired == null) {
+				return null;
+			}
+			required.addAll(successorRequired);
+		}
+		return required;
+	}
+
+	/**
+	 * Returns the names of the incoming fields of an element which are required by the element or its successors.
+	 *
+	 * @return The names of the required fields or null if all fields are required.
+	 */
+	private static Set<String> getRequiredIncomingFields(FlowNode node, Fields incomingFields, FlowElement element,
+														Map<FlowElement, List<FlowNode>> boundaryConsumers) {
+
+		Set<String> incomingNames = getNames(incomingFields);
+		if(incomingNames == null) {
+			return null;
+		}
+
+		if(element instanceof Boundary || element.getClass().equals(Pipe.class)) {
+			// passes all fields unmodified
+			return getRequiredFields(node, element, boundaryConsumers);
+		}
+		else if(element instanceof Each) {
+			Each each = (Each)element;
+
+			Fields argumentSelector = each.getArgumentSelector();
+			if(argumentSelector.isUnknown()) {
+				return null;
+			}
+			Set<String> argumentNames;
+			try {
+				argumentNames = getNames(incomingFields.select(argumentSelector));
+			}
+			catch(RuntimeException e) {
+				return null;
+			}
+			if(argumentNames == null) {
+				return null;
+			}
+
+			Set<String> outgoingRequired = getRequiredFields(node, each, boundaryConsumers);
+			if(outgoingRequired == null) {
+				// all outgoing fields are required
+				Fields outgoingFields = ForwardedFields.getOutgoingFields(node, each);
+				outgoingRequired = outgoingFields == null ? null : getNames(outgoingFields);
+				if(outgoingRequired == null) {
+					return null;
+				}
+			}
+
+			// outgoing fields with the name of an incoming field might be passed on
+			Set<String> required = new HashSet<>(argumentNames);
+			for(String name : outgoingRequired) {
+				if(incomingNames.contains(name)) {
+					required.add(name);
+				}
+			}
+			return required;
+		}
+		else {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the names of defined fields or null if some fields are not identified by name.
+	 */
+	private static Set<String> getNames(Fields fields) {
+
+		if(fields == null || !fields.isDefined()) {
+			return null;
+		}
+		Set<String> names = new HashSet<>();
+		for(int i=0; i<fields.size(); i++) {
+			Comparable field = fields.get(i);
+			if(!(field instanceof String)) {
+				return null;
+			}
+			names.add((String)field);
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.planner;
+
+import org.apache.flink.api.common.JobExecutionResult;
+import org.apache.flink.api.common.Plan;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.optimizer.DataStatistics;
+import org.apache.flink.optimizer.Optimizer;
+import org.apache.flink.optimizer.plandump.PlanJSONDumpGenerator;
+
+/**
+ * An ExecutionEnvironment that holds the program and ExecutionConfig of a single flow step.
+ * Steps of different flows register types and build their programs in their own environments and can
+ * be translated concurrently. Programs are not executed by this environment but compiled and submitted
+ * by the FlinkFlowStepJob using the environment in which the planner was created.
+ */
+public class StepExecutionEnvironment extends ExecutionEnvironment {
+
+	private final ExecutionEnvironment contextEnvironment;
+
+	public StepExecutionEnvironment(ExecutionEnvironment contextEnvironment) {
+
+		this.contextEnvironment = contextEnvironment;
+
+		setParallelism(contextEnvironment.getParallelism());
+		if(!contextEnvironment.getConfig().isSysoutLoggingEnabled()) {
+			getConfig().disableSysoutLogging();
+		}
+		getConfig().setExecutionMode(contextEnvironment.getConfig().getExecutionMode());
+	}
+
+	/**
+	 * Returns the environment in which the planner was created and to which the step is submitted.
+	 */
+	public ExecutionEnvironment getContextEnvironment() {
+		return contextEnvironment;
+	}
+
+	@Override
+	public JobExecutionResult execute(String jobName) throws Exception {
+		throw new UnsupportedOperationException("The program of a flow step is submitted by its FlinkFlowStepJob.");
+	}
+
+	@Override
+	public String getExecutionPlan() throws Exception {
+
+		Plan plan = createProgramPlan(null, false);
+		Optimizer optimizer = new Optimizer(new DataStatistics(), new Configuration());
+		return new PlanJSONDumpGenerator().getOptimizerPlanAsJSON(optimizer.compile(plan));
+	}
+
+	@Override
+	public void startNewSession() throws Exception {
+		// programs of flow steps are not executed in sessions
+	}
+
+}
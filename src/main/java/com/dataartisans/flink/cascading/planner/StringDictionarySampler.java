@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.flow.FlowProcess;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryIterator;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds dictionaries of frequent String values for the fields of shuffled tuples.
+ * The values are sampled from the first records of the source taps of a step when the program is built.
+ * Only fields with few distinct values in the sample get a dictionary. Fields are matched by name.
+ * Values that are not in a dictionary are written raw. Hence, a plan that is reused from the plan cache
+ * remains correct for changed inputs and is submitted without sampling again.
+ * Dictionary encoding is disabled by default.
+ */
+public class StringDictionarySampler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(StringDictionarySampler.class);
+
+	public static final int DEFAULT_SAMPLE_SIZE = 1000;
+	// ids of dictionaries up to this size are written in a single byte
+	public static final int DEFAULT_MAX_SIZE = 127;
+
+	private final boolean enabled;
+	private final int sampleSize;
+	private final int maxSize;
+
+	public StringDictionarySampler(Configuration config) {
+
+		this.enabled = config.getBoolean(FlinkConfigConstants.STRING_DICTIONARY, false);
+		this.sampleSize = Math.max(1, config.getInt(FlinkConfigConstants.STRING_DICTIONARY_SAMPLE_SIZE, DEFAULT_SAMPLE_SIZE));
+		this.maxSize = Math.max(1, config.getInt(FlinkConfigConstants.STRING_DICTIONARY_MAX_SIZE, DEFAULT_MAX_SIZE));
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Samples the source taps and returns dictionaries of frequent values by field name.
+	 * Values are ordered by descending frequency. Taps which cannot be read are skipped.
+	 *
+	 * @param flowProcess The flow process to open the taps.
+	 * @param taps The source taps to sample.
+	 * @return The dictionaries by field name, possibly empty.
+	 */
+	public Map<Comparable, String[]> sample(FlowProcess flowProcess, Collection<Tap> taps) {
+
+		Map<Comparable, Map<String, Integer>> counts = new HashMap<>();
+		Map<Comparable, Integer> numSampled = new HashMap<>();
+		Set<Comparable> rejected = new HashSet<>();
+
+		for(Tap tap : taps) {
+			try {
+				if(!tap.resourceExists(flowProcess.getConfig())) {
+					continue;
+				}
+				sampleTap(flowProcess, tap, counts, numSampled, rejected);
+			}
+			catch(Exception e) {
+				LOG.warn("Cannot sample source tap {} for string dictionaries", tap.getIdentifier(), e);
+			}
+		}
+
+		Map<Comparable, String[]> dictionaries = new HashMap<>();
+		for(Map.Entry<Comparable, Map<String, Integer>> fieldCounts : counts.entrySet()) {
+
+			Comparable field = fieldCounts.getKey();
+			final Map<String, Integer> valueCounts = fieldCounts.getValue();
+
+			// only fields with repeated values benefit from a dictionary
+			if(rejected.contains(field) || valueCounts.isEmpty() ||
+					valueCounts.size() * 2 > numSampled.get(field)) {
+				continue;
+			}
+
+			List<String> values = new ArrayList<>(valueCounts.keySet());
+			Collections.sort(values, new Comparator<String>() {
+				@Override
+				public int compare(String v1, String v2) {
+					return Integer.compare(valueCounts.get(v2), valueCounts.get(v1));
+				}
+			});
+			dictionaries.put(field, values.toArray(new String[values.size()]));
+
+			LOG.info("Using dictionary of {} values for field {}", values.size(), field);
+		}
+		return dictionaries;
+	}
+
+	private void sampleTap(FlowProcess flowProcess, Tap tap, Map<Comparable, Map<String, Integer>> counts,
+							Map<Comparable, Integer> numSampled, Set<Comparable> rejected) throws Exception {
+
+		TupleEntryIterator iterator = tap.openForRead(flowProcess);
+		try {
+			Fields fields = iterator.getFields();
+			for(int n = 0; n < this.sampleSize && iterator.hasNext(); n++) {
+
+				TupleEntry entry = iterator.next();
+				for(int i = 0; i < fields.size(); i++) {
+
+					Comparable field = fields.get(i);
+					Object value = entry.getObject(i);
+					if(value == null || rejected.contains(field)) {
+						continue;
+					}
+					if(!(value instanceof String)) {
+						rejected.add(field);
+						continue;
+					}
+
+					Map<String, Integer> valueCounts = counts.get(field);
+					if(valueCounts == null) {
+						valueCounts = new HashMap<>();
+						counts.put(field, valueCounts);
+					}
+					Integer count = valueCounts.get(value);
+					if(count == null && valueCounts.size() >= this.maxSize) {
+						// too many distinct values for a dictionary
+						rejected.add(field);
+						continue;
+					}
+					valueCounts.put((String) value, count == null ? 1 : count + 1);
+					numSampled.put(field, numSampled.containsKey(field) ? numSampled.get(field) + 1 : 1);
+				}
+			}
+		}
+		finally {
+			iterator.close();
+		}
+	}
+
+}
@@ -32,6 +32,8 @@ import java.util.Iterator;
 
 public class BoundaryInStage extends ElementStage<Void, TupleEntry> implements InputSource {
 
+	private TupleEntry pushEntry;
+
 	public BoundaryInStage(FlowProcess flowProcess, FlowElement flowElement) {
 		super(flowProcess, flowElement);
 	}
@@ -87,4 +89,32 @@ public class BoundaryInStage extends ElementStage<Void, TupleEntry> implements I
 		next.complete(this);
 
 	}
+
+	/**
+	 * Prepares this stage to receive tuples via {@link #push(Tuple)} instead of {@link #run(Object)}.
+	 */
+	public void startPush() {
+		next.start(this);
+		pushEntry = new TupleEntry();
+	}
+
+	/**
+	 * Forwards a single tuple into the stream graph.
+	 *
+	 * @param tuple The tuple to forward.
+	 */
+	public void push(Tuple tuple) {
+		pushEntry.setTuple(tuple);
+		flowProcess.increment( StepCounters.Tuples_Read, 1 );
+		flowProcess.increment( SliceCounters.Tuples_Read, 1 );
+
+		next.receive( this, pushEntry );
+	}
+
+	/**
+	 * Completes a stage which received its tuples via {@link #push(Tuple)}.
+	 */
+	public void completePush() {
+		next.complete(this);
+	}
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.runtime.cache;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.io.BinaryInputFormat;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.FileInputSplit;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.memory.DataInputView;
+
+import java.io.IOException;
+
+/**
+ * Reads the Tuples of a result cache entry which was written by a {@link ResultCacheOutputFormat}.
+ */
+public class ResultCacheInputFormat extends BinaryInputFormat<Tuple> {
+
+	private final TypeInformation<Tuple> type;
+	private transient TypeSerializer<Tuple> serializer;
+
+	public ResultCacheInputFormat(Path entryPath, TypeInformation<Tuple> type) {
+		this.type = type;
+		setFilePath(entryPath);
+	}
+
+	@Override
+	public void open(FileInputSplit split) throws IOException {
+		this.serializer = type.createSerializer(new ExecutionConfig());
+		super.open(split);
+	}
+
+	@Override
+	protected Tuple deserialize(Tuple reuse, DataInputView dataInput) throws IOException {
+		return serializer.deserialize(dataInput);
+	}
+}
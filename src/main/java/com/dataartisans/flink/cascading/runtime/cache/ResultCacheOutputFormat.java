@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.runtime.cache;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.io.BinaryOutputFormat;
+import org.apache.flink.api.common.io.FinalizeOnMaster;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.FSDataOutputStream;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+/**
+ * Writes Tuples into a result cache entry.
+ * The serializer is created with a fresh ExecutionConfig such that the written data can be read by other flows,
+ * which register different types with Kryo. Once all tasks finished, the type of the written data and a
+ * success marker are added to the entry. Entries without success marker are ignored.
+ */
+public class ResultCacheOutputFormat extends BinaryOutputFormat<Tuple> implements FinalizeOnMaster {
+
+	public static final String SUCCESS_FILE = "_SUCCESS";
+	public static final String TYPE_FILE = "_TYPE";
+
+	private final TypeInformation<Tuple> type;
+	private transient TypeSerializer<Tuple> serializer;
+
+	public ResultCacheOutputFormat(Path entryPath, TypeInformation<Tuple> type) {
+		this.type = type;
+		setOutputFilePath(entryPath);
+		// overwrite partially written entries of failed jobs
+		setWriteMode(FileSystem.WriteMode.OVERWRITE);
+		setOutputDirectoryMode(OutputDirectoryMode.ALWAYS);
+	}
+
+	@Override
+	public void open(int taskNumber, int numTasks) throws IOException {
+		this.serializer = type.createSerializer(new ExecutionConfig());
+		super.open(taskNumber, numTasks);
+	}
+
+	@Override
+	protected void serialize(Tuple record, DataOutputView dataOutput) throws IOException {
+		serializer.serialize(record, dataOutput);
+	}
+
+	@Override
+	public void finalizeGlobal(int parallelism) throws IOException {
+
+		FileSystem fs = outputFilePath.getFileSystem();
+		try(ObjectOutputStream out = new ObjectOutputStream(fs.create(new Path(outputFilePath, TYPE_FILE), true))) {
+			out.writeObject(type);
+		}
+		FSDataOutputStream marker = fs.create(new Path(outputFilePath, SUCCESS_FILE), true);
+		marker.close();
+	}
+}
@@ -25,6 +25,8 @@ import cascading.flow.stream.duct.Duct;
 import cascading.flow.stream.element.ElementDuct;
 import cascading.pipe.CoGroup;
 import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.runtime.semiJoin.BloomFilterCounters;
+import com.dataartisans.flink.cascading.runtime.semiJoin.FalsePositiveCounter;
 import com.dataartisans.flink.cascading.runtime.util.FlinkFlowProcess;
 import com.dataartisans.flink.cascading.util.FlinkConfigConverter;
 import org.apache.flink.api.common.functions.RichGroupReduceFunction;
@@ -34,6 +36,7 @@ import org.apache.flink.util.Collector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Iterator;
 import java.util.Set;
 
 import static cascading.util.LogUtil.logCounters;
@@ -48,6 +51,8 @@ public class CoGroupBufferReducer extends RichGroupReduceFunction<Tuple3<Tuple,
 	private CoGroupBufferReduceStreamGraph streamGraph;
 	private CoGroupBufferInGate groupSource;
 	private FlinkFlowProcess currentProcess;
+	private int bloomFilterInput = -1;
+	private FalsePositiveCounter falsePositiveCounter;
 
 	private boolean calledPrepare;
 	private long processBeginTime;
@@ -58,10 +63,22 @@ public class CoGroupBufferReducer extends RichGroupReduceFunction<Tuple3<Tuple,
 		this.flowNode = flowNode;
 	}
 
+	/**
+	 * @param flowNode The node of the CoGroup.
+	 * @param bloomFilterInput The position of the input whose keys filtered all other inputs.
+	 */
+	public CoGroupBufferReducer(FlowNode flowNode, int bloomFilterInput) {
+		this.flowNode = flowNode;
+		this.bloomFilterInput = bloomFilterInput;
+	}
+
 	@Override
 	public void open(Configuration config) {
 
 		this.calledPrepare = false;
+		if(bloomFilterInput >= 0) {
+			this.falsePositiveCounter = new FalsePositiveCounter(bloomFilterInput);
+		}
 
 		try {
 
@@ -114,8 +131,14 @@ public class CoGroupBufferReducer extends RichGroupReduceFunction<Tuple3<Tuple,
 			currentProcess.increment( SliceCounters.Process_Begin_Time, processBeginTime );
 		}
 
+		Iterator<Tuple3<Tuple, Integer, Tuple>> values = input.iterator();
+		if(falsePositiveCounter != null) {
+			falsePositiveCounter.reset(values);
+			values = falsePositiveCounter;
+		}
+
 		try {
-			this.groupSource.run(input.iterator());
+			this.groupSource.run(values);
 		}
 		catch( OutOfMemoryError error ) {
 			throw error;
@@ -128,6 +151,13 @@ public class CoGroupBufferReducer extends RichGroupReduceFunction<Tuple3<Tuple,
 			throw new FlowException( "internal error during CoGroupBufferReducer execution", throwable );
 		}
 
+		if(falsePositiveCounter != null) {
+			long falsePositives = falsePositiveCounter.drain();
+			if(falsePositives > 0) {
+				currentProcess.increment(BloomFilterCounters.False_Positives, falsePositives);
+			}
+		}
+
 	}
 
 	@Override
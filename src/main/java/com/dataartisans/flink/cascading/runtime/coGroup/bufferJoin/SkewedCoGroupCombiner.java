@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.coGroup.bufferJoin;
+
+import cascading.flow.FlowNode;
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.RichGroupCombineFunction;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates an inner or left CoGroup for heavy keys whose records of the first input are spread over all tasks.
+ * The records of all other inputs with heavy keys are received as broadcast set and are replicated to each group
+ * of first input records. Since the first input is streamed by the CoGroupBufferReducer, each partial group
+ * produces exactly the join results of its first input records.
+ * The replicated records are held in memory. The planner bounds their number with a
+ * {@link com.dataartisans.flink.cascading.runtime.skew.ReplicatedKeyLimiter}.
+ */
+public class SkewedCoGroupCombiner extends RichGroupCombineFunction<Tuple3<Tuple, Integer, Tuple>, Tuple> {
+
+	public static final String HEAVY_ROWS = "heavy-rows";
+
+	private CoGroupBufferReducer reducer;
+
+	private transient Map<Tuple, List<Tuple3<Tuple, Integer, Tuple>>> heavyRows;
+
+	public SkewedCoGroupCombiner() {}
+
+	public SkewedCoGroupCombiner(FlowNode flowNode) {
+		this.reducer = new CoGroupBufferReducer(flowNode);
+	}
+
+	@Override
+	public void open(Configuration config) throws Exception {
+
+		List<Tuple3<Tuple, Integer, Tuple>> rows = getRuntimeContext().getBroadcastVariable(HEAVY_ROWS);
+
+		heavyRows = new HashMap<>();
+		for(Tuple3<Tuple, Integer, Tuple> row : rows) {
+			List<Tuple3<Tuple, Integer, Tuple>> keyRows = heavyRows.get(row.f0);
+			if(keyRows == null) {
+				keyRows = new ArrayList<>();
+				heavyRows.put(row.f0, keyRows);
+			}
+			keyRows.add(row);
+		}
+
+		// the CoGroupBufferReducer expects the inputs in descending order
+		Comparator<Tuple3<Tuple, Integer, Tuple>> inputOrder = new Comparator<Tuple3<Tuple, Integer, Tuple>>() {
+			@Override
+			public int compare(Tuple3<Tuple, Integer, Tuple> o1, Tuple3<Tuple, Integer, Tuple> o2) {
+				return o2.f1.compareTo(o1.f1);
+			}
+		};
+		for(List<Tuple3<Tuple, Integer, Tuple>> keyRows : heavyRows.values()) {
+			Collections.sort(keyRows, inputOrder);
+		}
+
+		this.reducer.setRuntimeContext(getRuntimeContext());
+		this.reducer.open(config);
+	}
+
+	@Override
+	public void combine(Iterable<Tuple3<Tuple, Integer, Tuple>> values, Collector<Tuple> out) throws Exception {
+
+		final Iterator<Tuple3<Tuple, Integer, Tuple>> firstInput = values.iterator();
+		if(!firstInput.hasNext()) {
+			return;
+		}
+		final Tuple3<Tuple, Integer, Tuple> first = firstInput.next();
+
+		List<Tuple3<Tuple, Integer, Tuple>> others = heavyRows.get(first.f0);
+		final Iterator<Tuple3<Tuple, Integer, Tuple>> otherInputs = others != null ?
+				others.iterator() : Collections.<Tuple3<Tuple, Integer, Tuple>>emptyIterator();
+
+		this.reducer.reduce(new Iterable<Tuple3<Tuple, Integer, Tuple>>() {
+			@Override
+			public Iterator<Tuple3<Tuple, Integer, Tuple>> iterator() {
+				return new Iterator<Tuple3<Tuple, Integer, Tuple>>() {
+
+					private boolean firstReturned = false;
+
+					@Override
+					public boolean hasNext() {
+						return otherInputs.hasNext() || !firstReturned || firstInput.hasNext();
+					}
+
+					@Override
+					public Tuple3<Tuple, Integer, Tuple> next() {
+						if(otherInputs.hasNext()) {
+							return otherInputs.next();
+						}
+						else if(!firstReturned) {
+							firstReturned = true;
+							return first;
+						}
+						else {
+							return firstInput.next();
+						}
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		}, out);
+	}
+
+	@Override
+	public void close() throws Exception {
+		this.reducer.close();
+	}
+
+}
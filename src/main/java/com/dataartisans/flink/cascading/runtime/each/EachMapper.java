@@ -35,22 +35,43 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * Executes the stream graphs of one or more consecutive map-only FlowNodes.
+ * If multiple FlowNodes are fused, the output of each stream graph is directly pushed into the
+ * stream graph of the next FlowNode without serializing it in between.
+ */
 @SuppressWarnings("unused")
 public class EachMapper extends RichMapPartitionFunction<Tuple, Tuple> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(EachMapper.class);
 
-	private FlowNode flowNode;
-	private EachStreamGraph streamGraph;
-	private BoundaryInStage sourceStage;
-	private FlinkFlowProcess currentProcess;
+	private List<FlowNode> flowNodes;
+	private List<Configuration> fusedNodeConfigs;
+
+	private transient EachStreamGraph[] streamGraphs;
+	private transient BoundaryInStage[] sourceStages;
+	private transient FlinkFlowProcess[] currentProcesses;
 
 	public EachMapper() {}
 
 	public EachMapper(FlowNode flowNode) {
-		this.flowNode = flowNode;
+		this(Collections.singletonList(flowNode), Collections.<Configuration>emptyList());
+	}
+
+	/**
+	 * Creates an EachMapper for a chain of fused FlowNodes.
+	 *
+	 * @param flowNodes The FlowNodes in the order in which they are executed.
+	 * @param fusedNodeConfigs The configurations of all but the first FlowNode.
+	 *                         The configuration of the first FlowNode is passed as operator parameters.
+	 */
+	public EachMapper(List<FlowNode> flowNodes, List<Configuration> fusedNodeConfigs) {
+		this.flowNodes = flowNodes;
+		this.fusedNodeConfigs = fusedNodeConfigs;
 	}
 
 	@Override
@@ -58,29 +79,40 @@ public class EachMapper extends RichMapPartitionFunction<Tuple, Tuple> {
 
 		try {
 
-			currentProcess = new FlinkFlowProcess(FlinkConfigConverter.toHadoopConfig(config), getRuntimeContext(), flowNode.getID());
+			int numNodes = flowNodes.size();
+			streamGraphs = new EachStreamGraph[numNodes];
+			sourceStages = new BoundaryInStage[numNodes];
+			currentProcesses = new FlinkFlowProcess[numNodes];
 
-			Set<FlowElement> sources = flowNode.getSourceElements();
-			if(sources.size() != 1) {
-				throw new RuntimeException("FlowNode for EachMapper may only have a single source");
-			}
+			for(int i = 0; i < numNodes; i++) {
 
-			FlowElement sourceElement = sources.iterator().next();
-			if(!(sourceElement instanceof Boundary)) {
-				throw new RuntimeException("Source of EachMapper must be a single Boundary");
-			}
+				FlowNode flowNode = flowNodes.get(i);
+				Configuration nodeConfig = i == 0 ? config : fusedNodeConfigs.get(i - 1);
 
-			Boundary source = (Boundary)sourceElement;
+				currentProcesses[i] = new FlinkFlowProcess(FlinkConfigConverter.toHadoopConfig(nodeConfig), getRuntimeContext(), flowNode.getID());
 
-			streamGraph = new EachStreamGraph( currentProcess, flowNode, source );
-			sourceStage = this.streamGraph.getSourceStage();
+				Set<FlowElement> sources = flowNode.getSourceElements();
+				if(sources.size() != 1) {
+					throw new RuntimeException("FlowNode for EachMapper may only have a single source");
+				}
 
-			for( Duct head : streamGraph.getHeads() ) {
-				LOG.info("sourcing from: " + ((ElementDuct) head).getFlowElement());
-			}
+				FlowElement sourceElement = sources.iterator().next();
+				if(!(sourceElement instanceof Boundary)) {
+					throw new RuntimeException("Source of EachMapper must be a single Boundary");
+				}
 
-			for( Duct tail : streamGraph.getTails() ) {
-				LOG.info("sinking to: " + ((ElementDuct) tail).getFlowElement());
+				Boundary source = (Boundary)sourceElement;
+
+				streamGraphs[i] = new EachStreamGraph( currentProcesses[i], flowNode, source );
+				sourceStages[i] = streamGraphs[i].getSourceStage();
+
+				for( Duct head : streamGraphs[i].getHeads() ) {
+					LOG.info("sourcing from: " + ((ElementDuct) head).getFlowElement());
+				}
+
+				for( Duct tail : streamGraphs[i].getTails() ) {
+					LOG.info("sinking to: " + ((ElementDuct) tail).getFlowElement());
+				}
 			}
 
 		}
@@ -97,16 +129,35 @@ public class EachMapper extends RichMapPartitionFunction<Tuple, Tuple> {
 	@Override
 	public void mapPartition(Iterable<Tuple> input, Collector<Tuple> output) throws Exception {
 
-		this.streamGraph.setTupleCollector(output);
-		streamGraph.prepare();
+		int numNodes = streamGraphs.length;
+
+		// connect stream graphs of fused nodes
+		for(int i = 0; i < numNodes - 1; i++) {
+			this.streamGraphs[i].setTupleCollector(new StageCollector(sourceStages[i + 1]));
+		}
+		this.streamGraphs[numNodes - 1].setTupleCollector(output);
+
+		for(EachStreamGraph streamGraph : streamGraphs) {
+			streamGraph.prepare();
+		}
 
 		long processBeginTime = System.currentTimeMillis();
 
-		currentProcess.increment( SliceCounters.Process_Begin_Time, processBeginTime );
+		for(FlinkFlowProcess currentProcess : currentProcesses) {
+			currentProcess.increment( SliceCounters.Process_Begin_Time, processBeginTime );
+		}
 
 		try {
 			try {
-				sourceStage.run( input.iterator() );
+				for(int i = 1; i < numNodes; i++) {
+					sourceStages[i].startPush();
+				}
+
+				sourceStages[0].run( input.iterator() );
+
+				for(int i = 1; i < numNodes; i++) {
+					sourceStages[i].completePush();
+				}
 			}
 			catch( OutOfMemoryError error ) {
 				throw error;
@@ -125,15 +176,41 @@ public class EachMapper extends RichMapPartitionFunction<Tuple, Tuple> {
 		}
 		finally {
 			try {
-				streamGraph.cleanup();
+				for(EachStreamGraph streamGraph : streamGraphs) {
+					streamGraph.cleanup();
+				}
 			}
 			finally {
 				long processEndTime = System.currentTimeMillis();
 
-				currentProcess.increment( SliceCounters.Process_End_Time, processEndTime );
-				currentProcess.increment( SliceCounters.Process_Duration, processEndTime - processBeginTime );
+				for(FlinkFlowProcess currentProcess : currentProcesses) {
+					currentProcess.increment( SliceCounters.Process_End_Time, processEndTime );
+					currentProcess.increment( SliceCounters.Process_Duration, processEndTime - processBeginTime );
+				}
 			}
 		}
 	}
 
+	/**
+	 * Pushes the output of a stream graph into the source stage of the next fused stream graph.
+	 */
+	private static class StageCollector implements Collector<Tuple> {
+
+		private final BoundaryInStage stage;
+
+		public StageCollector(BoundaryInStage stage) {
+			this.stage = stage;
+		}
+
+		@Override
+		public void collect(Tuple tuple) {
+			stage.push(tuple);
+		}
+
+		@Override
+		public void close() {
+			// nothing to do
+		}
+	}
+
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.groupBy;
+
+import cascading.CascadingException;
+import cascading.flow.FlowException;
+import cascading.flow.FlowNode;
+import cascading.operation.Aggregator;
+import cascading.operation.ConcreteCall;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryCollector;
+import cascading.tuple.util.TupleViews;
+import com.dataartisans.flink.cascading.runtime.util.FlinkFlowProcess;
+import com.dataartisans.flink.cascading.util.FlinkConfigConverter;
+import org.apache.flink.api.common.functions.RichGroupCombineFunction;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+
+/**
+ * Computes the partial results of all aggregators of a GroupBy node before the data is shuffled.
+ */
+@SuppressWarnings({"unchecked", "unused"})
+public class GroupByCombiner extends RichGroupCombineFunction<Tuple, Tuple> {
+
+	private FlowNode flowNode;
+	private PartialAggregation partialAggregation;
+
+	private transient FlinkFlowProcess currentProcess;
+	private transient Aggregator[] aggregators;
+	private transient ConcreteCall[] calls;
+	private transient PartialCollector[] collectors;
+	private transient int[][] argumentPos;
+	private transient Tuple[] argumentViews;
+	private transient int[] groupingPos;
+	private transient TupleEntry groupEntry;
+
+	public GroupByCombiner() {}
+
+	public GroupByCombiner(FlowNode flowNode, PartialAggregation partialAggregation) {
+		this.flowNode = flowNode;
+		this.partialAggregation = partialAggregation;
+	}
+
+	@Override
+	public void open(Configuration config) {
+
+		try {
+			currentProcess = new FlinkFlowProcess(FlinkConfigConverter.toHadoopConfig(config), getRuntimeContext(), flowNode.getID());
+
+			Fields incomingFields = partialAggregation.getIncomingFields();
+			Fields[] argumentFields = partialAggregation.getArgumentFields();
+			Fields[] partialFields = partialAggregation.getPartialFields();
+
+			aggregators = partialAggregation.getAggregators();
+			calls = new ConcreteCall[aggregators.length];
+			collectors = new PartialCollector[aggregators.length];
+			argumentPos = new int[aggregators.length][];
+			argumentViews = new Tuple[aggregators.length];
+
+			groupingPos = incomingFields.getPos(partialAggregation.getGroupingFields());
+			groupEntry = new TupleEntry(partialAggregation.getGroupingFields());
+
+			for(int i=0; i<aggregators.length; i++) {
+				argumentPos[i] = incomingFields.getPos(argumentFields[i]);
+				argumentViews[i] = TupleViews.createNarrow(argumentPos[i]);
+				collectors[i] = new PartialCollector(partialFields[i]);
+
+				calls[i] = new ConcreteCall(argumentFields[i], partialFields[i]);
+				calls[i].setArguments(new TupleEntry(argumentFields[i]));
+				calls[i].setOutputCollector(collectors[i]);
+
+				aggregators[i].prepare(currentProcess, calls[i]);
+			}
+		}
+		catch( Throwable throwable ) {
+
+			if( throwable instanceof CascadingException) {
+				throw (CascadingException) throwable;
+			}
+
+			throw new FlowException( "internal error during GroupByCombiner configuration", throwable );
+		}
+	}
+
+	@Override
+	public void combine(Iterable<Tuple> values, Collector<Tuple> out) throws Exception {
+
+		Tuple combined = null;
+
+		for(Tuple value : values) {
+
+			if(combined == null) {
+				// values might be reused, copy the first one
+				combined = new Tuple(value);
+				groupEntry.setTuple(combined.get(groupingPos));
+
+				for(int i=0; i<aggregators.length; i++) {
+					calls[i].setGroup(groupEntry);
+					aggregators[i].start(currentProcess, calls[i]);
+				}
+			}
+
+			for(int i=0; i<aggregators.length; i++) {
+				calls[i].getArguments().setTuple(TupleViews.reset(argumentViews[i], value));
+				aggregators[i].aggregate(currentProcess, calls[i]);
+			}
+		}
+
+		if(combined == null) {
+			return;
+		}
+
+		for(int i=0; i<aggregators.length; i++) {
+			aggregators[i].complete(currentProcess, calls[i]);
+			combined.addAll(collectors[i].getPartial());
+		}
+
+		out.collect(combined);
+	}
+
+	@Override
+	public void close() {
+
+		if(calls != null) {
+			for(int i=0; i<aggregators.length; i++) {
+				aggregators[i].flush(currentProcess, calls[i]);
+				aggregators[i].cleanup(currentProcess, calls[i]);
+			}
+		}
+	}
+
+	private static class PartialCollector extends TupleEntryCollector {
+
+		private Tuple partial;
+
+		public PartialCollector(Fields partialFields) {
+			super(partialFields);
+		}
+
+		@Override
+		protected void collect(TupleEntry tupleEntry) {
+			if(partial != null) {
+				throw new FlowException("Combinable aggregators must emit exactly one tuple per group.");
+			}
+			partial = tupleEntry.getTupleCopy();
+		}
+
+		public Tuple getPartial() {
+			if(partial == null) {
+				throw new FlowException("Combinable aggregators must emit exactly one tuple per group.");
+			}
+			Tuple result = partial;
+			partial = null;
+			return result;
+		}
+	}
+}
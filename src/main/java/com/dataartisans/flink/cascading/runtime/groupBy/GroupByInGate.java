@@ -35,6 +35,7 @@ public class GroupByInGate extends GroupingSpliceGate implements InputSource {
 
 	private GroupByClosure closure;
 	private final boolean isBufferJoin;
+	private PartialAggregation.Partials partials;
 
 	public GroupByInGate(FlowProcess flowProcess, GroupBy splice, IORole ioRole) {
 		super(flowProcess, splice, ioRole);
@@ -42,6 +43,15 @@ public class GroupByInGate extends GroupingSpliceGate implements InputSource {
 		this.isBufferJoin = splice.getJoiner() instanceof BufferJoin;
 	}
 
+	/**
+	 * Sets the partials if the input was combined.
+	 *
+	 * @param partials The partials to reset with each combined tuple or null if the input was not combined.
+	 */
+	public void setPartials(PartialAggregation.Partials partials) {
+		this.partials = partials;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void bind( StreamGraph streamGraph ) {
@@ -91,7 +101,11 @@ public class GroupByInGate extends GroupingSpliceGate implements InputSource {
 		KeyPeekingIterator keyPeekingIt;
 
 		try {
-			keyPeekingIt = new KeyPeekingIterator((Iterator<Tuple>)input, keyBuilder[0]);
+			Iterator<Tuple> values = (Iterator<Tuple>)input;
+			if(partials != null) {
+				values = new CombinedTupleIterator(values, partials);
+			}
+			keyPeekingIt = new KeyPeekingIterator(values, keyBuilder[0]);
 		}
 		catch(ClassCastException cce) {
 			throw new RuntimeException("GroupByInGate requires Iterator<Tuple>.", cce);
@@ -173,4 +187,30 @@ public class GroupByInGate extends GroupingSpliceGate implements InputSource {
 		}
 	}
 
+	private static class CombinedTupleIterator implements Iterator<Tuple> {
+
+		private final Iterator<Tuple> values;
+		private final PartialAggregation.Partials partials;
+
+		public CombinedTupleIterator(Iterator<Tuple> values, PartialAggregation.Partials partials) {
+			this.values = values;
+			this.partials = partials;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return values.hasNext();
+		}
+
+		@Override
+		public Tuple next() {
+			return partials.reset(values.next());
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
 }
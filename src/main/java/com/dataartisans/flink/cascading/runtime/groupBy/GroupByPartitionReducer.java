@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.groupBy;
+
+import cascading.flow.FlowNode;
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.RichMapPartitionFunction;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+
+import java.util.Iterator;
+
+/**
+ * Processes a whole partition as a single group with a GroupByReducer.
+ * Used to evaluate a key-less GroupBy without Every pipes on a range-partitioned and
+ * sorted input in parallel.
+ */
+public class GroupByPartitionReducer extends RichMapPartitionFunction<Tuple, Tuple> {
+
+	private GroupByReducer reducer;
+
+	public GroupByPartitionReducer() {}
+
+	public GroupByPartitionReducer(FlowNode flowNode) {
+		this.reducer = new GroupByReducer(flowNode);
+	}
+
+	@Override
+	public void open(Configuration config) throws Exception {
+		this.reducer.setRuntimeContext(getRuntimeContext());
+		this.reducer.open(config);
+	}
+
+	@Override
+	public void mapPartition(Iterable<Tuple> input, Collector<Tuple> output) throws Exception {
+
+		final Iterator<Tuple> values = input.iterator();
+		// empty partitions do not form a group
+		if(values.hasNext()) {
+			this.reducer.reduce(new Iterable<Tuple>() {
+				@Override
+				public Iterator<Tuple> iterator() {
+					return values;
+				}
+			}, output);
+		}
+	}
+
+	@Override
+	public void close() throws Exception {
+		this.reducer.close();
+	}
+
+}
@@ -30,9 +30,11 @@ import com.dataartisans.flink.cascading.util.FlinkConfigConverter;
 import org.apache.flink.api.common.functions.RichGroupReduceFunction;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.util.Collector;
+import org.apache.flink.util.InstantiationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.util.Set;
 
 import static cascading.util.LogUtil.logCounters;
@@ -44,6 +46,7 @@ public class GroupByReducer extends RichGroupReduceFunction<Tuple, Tuple> {
 	private static final Logger LOG = LoggerFactory.getLogger(GroupByReducer.class);
 
 	private FlowNode flowNode;
+	private PartialAggregation partialAggregation;
 	private GroupByStreamGraph streamGraph;
 	private GroupByInGate groupSource;
 	private FlinkFlowProcess currentProcess;
@@ -54,7 +57,20 @@ public class GroupByReducer extends RichGroupReduceFunction<Tuple, Tuple> {
 	public GroupByReducer() {}
 
 	public GroupByReducer(FlowNode flowNode) {
+		this(flowNode, null);
+	}
+
+	/**
+	 * Creates a GroupByReducer which merges partial aggregates.
+	 * The input tuples must have been emitted by a GroupByCombiner with the same PartialAggregation,
+	 * either per group of a keyed GroupBy or per task for a key-less GroupBy.
+	 *
+	 * @param flowNode The FlowNode of the GroupBy.
+	 * @param partialAggregation The partial aggregation of the node or null if the input is not combined.
+	 */
+	public GroupByReducer(FlowNode flowNode, PartialAggregation partialAggregation) {
 		this.flowNode = flowNode;
+		this.partialAggregation = partialAggregation;
 	}
 
 	@Override
@@ -66,7 +82,13 @@ public class GroupByReducer extends RichGroupReduceFunction<Tuple, Tuple> {
 
 			currentProcess = new FlinkFlowProcess(FlinkConfigConverter.toHadoopConfig(config), getRuntimeContext(), flowNode.getID());
 
-			Set<FlowElement> sources = flowNode.getSourceElements();
+			FlowNode node = flowNode;
+			if(partialAggregation != null) {
+				// merge aggregators are installed into a private copy of the node
+				node = (FlowNode) InstantiationUtil.clone((Serializable) flowNode, getRuntimeContext().getUserCodeClassLoader());
+			}
+
+			Set<FlowElement> sources = node.getSourceElements();
 			if(sources.size() != 1) {
 				throw new RuntimeException("FlowNode for GroupByReducer may only have a single source");
 			}
@@ -76,8 +98,15 @@ public class GroupByReducer extends RichGroupReduceFunction<Tuple, Tuple> {
 			}
 			GroupBy source = (GroupBy)sourceElement;
 
-			streamGraph = new GroupByStreamGraph( currentProcess, flowNode, source );
+			PartialAggregation.Partials partials = null;
+			if(partialAggregation != null) {
+				// input was combined, merge partial results instead of aggregating
+				partials = partialAggregation.installMergeAggregators(node, source);
+			}
+
+			streamGraph = new GroupByStreamGraph( currentProcess, node, source );
 			groupSource = this.streamGraph.getGroupSource();
+			groupSource.setPartials(partials);
 
 			for( Duct head : streamGraph.getHeads() ) {
 				LOG.info("sourcing from: " + ((ElementDuct) head).getFlowElement());
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.groupBy;
+
+import cascading.flow.FlowProcess;
+import cascading.operation.Aggregator;
+import cascading.operation.AggregatorCall;
+import cascading.operation.BaseOperation;
+import cascading.operation.ConcreteCall;
+import cascading.operation.OperationCall;
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Replaces a combined aggregator on the reduce side.
+ * Instead of the arguments of the original aggregator, the merge aggregator
+ * receives the partial results which were computed by the combiner.
+ */
+@SuppressWarnings("unchecked")
+public class MergingAggregator extends BaseOperation implements Aggregator {
+
+	private final Aggregator mergeAggregator;
+	private final Fields partialFields;
+	private final transient PartialAggregation.Partials partials;
+	private final int aggregatorIdx;
+
+	private transient ConcreteCall mergeCall;
+	private transient TupleEntry partialEntry;
+
+	public MergingAggregator(Aggregator aggregator, Aggregator mergeAggregator, Fields partialFields,
+								PartialAggregation.Partials partials, int aggregatorIdx) {
+
+		super(aggregator.getNumArgs(), aggregator.getFieldDeclaration());
+
+		this.mergeAggregator = mergeAggregator;
+		this.partialFields = partialFields;
+		this.partials = partials;
+		this.aggregatorIdx = aggregatorIdx;
+	}
+
+	@Override
+	public void prepare(FlowProcess flowProcess, OperationCall operationCall) {
+
+		this.mergeCall = new ConcreteCall(partialFields);
+		this.partialEntry = new TupleEntry(partialFields);
+
+		mergeAggregator.prepare(flowProcess, mergeCall);
+	}
+
+	@Override
+	public void start(FlowProcess flowProcess, AggregatorCall aggregatorCall) {
+
+		mergeCall.setGroup(aggregatorCall.getGroup());
+		mergeAggregator.start(flowProcess, mergeCall);
+	}
+
+	@Override
+	public void aggregate(FlowProcess flowProcess, AggregatorCall aggregatorCall) {
+
+		partialEntry.setTuple(partials.getPartial(aggregatorIdx));
+		mergeCall.setArguments(partialEntry);
+		mergeAggregator.aggregate(flowProcess, mergeCall);
+	}
+
+	@Override
+	public void complete(FlowProcess flowProcess, AggregatorCall aggregatorCall) {
+
+		mergeCall.setOutputCollector(aggregatorCall.getOutputCollector());
+		mergeAggregator.complete(flowProcess, mergeCall);
+	}
+
+	@Override
+	public void flush(FlowProcess flowProcess, OperationCall operationCall) {
+		mergeAggregator.flush(flowProcess, mergeCall);
+	}
+
+	@Override
+	public void cleanup(FlowProcess flowProcess, OperationCall operationCall) {
+		mergeAggregator.cleanup(flowProcess, mergeCall);
+	}
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.groupBy;
+
+import cascading.flow.FlowElement;
+import cascading.flow.FlowException;
+import cascading.flow.FlowNode;
+import cascading.operation.Aggregator;
+import cascading.operation.aggregator.Count;
+import cascading.operation.aggregator.Last;
+import cascading.operation.aggregator.Max;
+import cascading.operation.aggregator.MaxValue;
+import cascading.operation.aggregator.Min;
+import cascading.operation.aggregator.MinValue;
+import cascading.operation.aggregator.Sum;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Operator;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.util.TupleViews;
+import com.dataartisans.flink.cascading.operation.CombinableAggregator;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the two-phase execution of the aggregators which follow a GroupBy.
+ * Two-phase execution is enabled by {@link com.dataartisans.flink.cascading.util.FlinkConfigConstants#COMBINE_AGGREGATORS}.
+ * For each group, the combiner emits the first tuple of the group followed by the partial results of all aggregators.
+ * The reducer replaces the aggregators by MergingAggregators which merge the partial results.
+ */
+public class PartialAggregation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Fields incomingFields;
+	private final Fields groupingFields;
+	private final Aggregator[] aggregators;
+	private final Aggregator[] mergeAggregators;
+	private final Fields[] argumentFields;
+	private final Fields[] partialFields;
+	private final Fields combinedFields;
+
+	private PartialAggregation(Fields incomingFields, Fields groupingFields, Aggregator[] aggregators,
+								Aggregator[] mergeAggregators, Fields[] argumentFields, Fields[] partialFields) {
+
+		this.incomingFields = incomingFields;
+		this.groupingFields = groupingFields;
+		this.aggregators = aggregators;
+		this.mergeAggregators = mergeAggregators;
+		this.argumentFields = argumentFields;
+		this.partialFields = partialFields;
+
+		Fields combined = incomingFields;
+		for(int i=0; i<partialFields.length; i++) {
+			combined = combined.append(getPartialFieldNames(i, partialFields[i], incomingFields.hasTypes()));
+		}
+		this.combinedFields = combined;
+	}
+
+	/**
+	 * Returns the partial aggregation for the aggregators of a GroupBy node or null
+	 * if not all aggregators of the node can be combined.
+	 *
+	 * @param node The FlowNode whose source is the GroupBy.
+	 * @param groupBy The GroupBy.
+	 * @param incomingFields The fields of the tuples which are grouped.
+	 * @param groupingFields The grouping fields of the GroupBy.
+	 * @return The partial aggregation or null if the aggregators cannot be combined.
+	 */
+	public static PartialAggregation forNode(FlowNode node, GroupBy groupBy, Fields incomingFields, Fields groupingFields) {
+
+		if(!incomingFields.isDefined() || getOperationField() == null) {
+			return null;
+		}
+
+		List<Every> everies = getEveryChain(node, groupBy);
+		if(everies.isEmpty()) {
+			return null;
+		}
+
+		int numAggregators = everies.size();
+		Aggregator[] aggregators = new Aggregator[numAggregators];
+		Aggregator[] mergeAggregators = new Aggregator[numAggregators];
+		Fields[] argumentFields = new Fields[numAggregators];
+		Fields[] partialFields = new Fields[numAggregators];
+
+		for(int i=0; i<numAggregators; i++) {
+			Every every = everies.get(i);
+
+			if(!every.isAggregator()) {
+				return null;
+			}
+			aggregators[i] = every.getAggregator();
+			mergeAggregators[i] = getMergeAggregator(aggregators[i]);
+			if(mergeAggregators[i] == null) {
+				return null;
+			}
+
+			Fields argumentSelector = every.getArgumentSelector();
+			if(argumentSelector.isAll()) {
+				argumentFields[i] = incomingFields;
+			}
+			else if(argumentSelector.isDefined()) {
+				argumentFields[i] = incomingFields.select(argumentSelector);
+			}
+			else {
+				return null;
+			}
+
+			Fields declaredFields = every.getFieldDeclaration();
+			if(declaredFields.isArguments()) {
+				partialFields[i] = argumentFields[i];
+			}
+			else if(declaredFields.isDefined()) {
+				partialFields[i] = declaredFields;
+			}
+			else {
+				return null;
+			}
+		}
+
+		Fields selectedGroupingFields = groupingFields.isAll() ? incomingFields : incomingFields.select(groupingFields);
+
+		return new PartialAggregation(incomingFields, selectedGroupingFields,
+				aggregators, mergeAggregators, argumentFields, partialFields);
+	}
+
+	/**
+	 * Returns the aggregator which merges the partial results of the given aggregator or null
+	 * if the aggregator cannot be combined.
+	 *
+	 * @param aggregator The aggregator.
+	 * @return The aggregator to merge partial results or null.
+	 */
+	public static Aggregator getMergeAggregator(Aggregator aggregator) {
+
+		if(aggregator instanceof CombinableAggregator) {
+			return ((CombinableAggregator) aggregator).getMergeAggregator();
+		}
+
+		Class<?> aggregatorClass = aggregator.getClass();
+		if(aggregatorClass.equals(Count.class)) {
+			return new Sum(aggregator.getFieldDeclaration(), Long.class);
+		}
+		else if(aggregatorClass.equals(Sum.class) ||
+				aggregatorClass.equals(Min.class) ||
+				aggregatorClass.equals(Max.class) ||
+				aggregatorClass.equals(MinValue.class) ||
+				aggregatorClass.equals(MaxValue.class) ||
+				aggregatorClass.equals(Last.class)) {
+			// these aggregators yield the final result when applied to their partial results.
+			// First is not included because it might emit more than one tuple.
+			return aggregator;
+		}
+		else {
+			return null;
+		}
+	}
+
+	public Fields getIncomingFields() {
+		return incomingFields;
+	}
+
+	public Fields getGroupingFields() {
+		return groupingFields;
+	}
+
+	public Aggregator[] getAggregators() {
+		return aggregators;
+	}
+
+	public Fields[] getArgumentFields() {
+		return argumentFields;
+	}
+
+	public Fields[] getPartialFields() {
+		return partialFields;
+	}
+
+	/**
+	 * Returns the fields of the tuples emitted by the combiner, i.e.,
+	 * the incoming fields followed by the partial results of all aggregators.
+	 *
+	 * @return The fields of combined tuples.
+	 */
+	public Fields getCombinedFields() {
+		return combinedFields;
+	}
+
+	/**
+	 * Replaces the aggregators of the given node by MergingAggregators.
+	 * This must be done before the stream graph of the node is built.
+	 * The node must be a private copy of the task because its Every pipes are modified.
+	 * Cascading does not expose the operation of an Every, so it is replaced via reflection.
+	 * Partial aggregation is therefore opt-in and disabled if the operation field cannot be accessed.
+	 *
+	 * @param node The FlowNode whose aggregators are replaced.
+	 * @param groupBy The GroupBy of the node.
+	 * @return The partials which must be reset for each combined tuple.
+	 */
+	public Partials installMergeAggregators(FlowNode node, GroupBy groupBy) {
+
+		Partials partials = new Partials(incomingFields.size(), partialFields);
+
+		List<Every> everies = getEveryChain(node, groupBy);
+		for(int i=0; i<everies.size(); i++) {
+			Every every = everies.get(i);
+			Aggregator merging = new MergingAggregator(every.getAggregator(), mergeAggregators[i],
+					partialFields[i], partials, i);
+
+			try {
+				getOperationField().set(every, merging);
+			}
+			catch(IllegalAccessException e) {
+				throw new FlowException("Could not replace aggregator of " + every, e);
+			}
+		}
+
+		return partials;
+	}
+
+	private static List<Every> getEveryChain(FlowNode node, GroupBy groupBy) {
+
+		List<Every> everies = new ArrayList<>();
+
+		FlowElement element = groupBy;
+		while(true) {
+			List<FlowElement> successors = node.getElementGraph().successorListOf(element);
+			if(successors.size() != 1 || !(successors.get(0) instanceof Every)) {
+				break;
+			}
+			element = successors.get(0);
+			everies.add((Every) element);
+		}
+		return everies;
+	}
+
+	private static Field getOperationField() {
+		try {
+			Field operationField = Operator.class.getDeclaredField("operation");
+			operationField.setAccessible(true);
+			return operationField;
+		}
+		catch(NoSuchFieldException | SecurityException e) {
+			return null;
+		}
+	}
+
+	private static Fields getPartialFieldNames(int aggregatorIdx, Fields partialFields, boolean typed) {
+
+		Comparable[] names = new Comparable[partialFields.size()];
+		Type[] types = new Type[partialFields.size()];
+		for(int i=0; i<names.length; i++) {
+			names[i] = "flink.partial." + aggregatorIdx + "." + i;
+			// partial results are not necessarily of the declared type
+			types[i] = Object.class;
+		}
+
+		return typed ? new Fields(names, types) : new Fields(names);
+	}
+
+	/**
+	 * Splits combined tuples into the incoming tuple and the partial results of the aggregators.
+	 */
+	public static class Partials {
+
+		private final int[] incomingPos;
+		private final Tuple[] partialViews;
+		private Tuple combined;
+
+		public Partials(int numIncomingFields, Fields[] partialFields) {
+
+			this.incomingPos = new int[numIncomingFields];
+			for(int i=0; i<numIncomingFields; i++) {
+				incomingPos[i] = i;
+			}
+
+			this.partialViews = new Tuple[partialFields.length];
+			int offset = numIncomingFields;
+			for(int i=0; i<partialFields.length; i++) {
+				int[] partialPos = new int[partialFields[i].size()];
+				for(int j=0; j<partialPos.length; j++) {
+					partialPos[j] = offset++;
+				}
+				partialViews[i] = TupleViews.createNarrow(partialPos);
+			}
+		}
+
+		/**
+		 * Sets the current combined tuple and returns its incoming tuple.
+		 *
+		 * @param combined The combined tuple.
+		 * @return The incoming tuple of the combined tuple.
+		 */
+		public Tuple reset(Tuple combined) {
+			this.combined = combined;
+			return combined.get(incomingPos);
+		}
+
+		public Tuple getPartial(int aggregatorIdx) {
+			return TupleViews.reset(partialViews[aggregatorIdx], combined);
+		}
+	}
+
+}
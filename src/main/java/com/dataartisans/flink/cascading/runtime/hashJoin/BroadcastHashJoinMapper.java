@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.hashJoin;
+
+import cascading.CascadingException;
+import cascading.flow.FlowElement;
+import cascading.flow.FlowException;
+import cascading.flow.FlowNode;
+import cascading.flow.SliceCounters;
+import cascading.flow.stream.duct.Duct;
+import cascading.flow.stream.element.ElementDuct;
+import cascading.pipe.Boundary;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.runtime.util.FlinkFlowProcess;
+import com.dataartisans.flink.cascading.util.FlinkConfigConverter;
+import org.apache.flink.api.common.functions.RichFlatMapFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static cascading.util.LogUtil.logCounters;
+import static cascading.util.LogUtil.logMemory;
+
+/**
+ * Evaluates an n-ary HashJoin in a single pass over the streamed (first) input.
+ * All other inputs are received as broadcast sets and loaded into in-memory hash tables.
+ * Each streamed tuple probes all hash tables and every combination of matching tuples
+ * is handed to the HashJoinGate of the node.
+ * Keys are matched by Tuple equality. Joins on keys with custom comparators must not use this mapper.
+ */
+public class BroadcastHashJoinMapper extends RichFlatMapFunction<Tuple, Tuple> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BroadcastHashJoinMapper.class);
+
+	private static final List<Tuple> NO_MATCH = Collections.singletonList(null);
+
+	private FlowNode flowNode;
+	private Fields[] inputFields;
+	private Fields[] keyFields;
+	private String[] broadcastNames;
+	private boolean outerJoin;
+
+	private transient HashJoinStreamGraph streamGraph;
+	private transient FlinkFlowProcess currentProcess;
+	private transient JoinBoundaryInStage sourceStage;
+
+	private transient Map<Tuple, List<Tuple>>[] hashTables;
+	private transient List<Tuple>[] matches;
+	private transient int[] matchPos;
+	private transient Tuple2<Tuple, Tuple[]> joinList;
+
+	private transient long processBeginTime;
+	private transient boolean prepareCalled;
+
+	public BroadcastHashJoinMapper() {}
+
+	/**
+	 * Creates a BroadcastHashJoinMapper.
+	 *
+	 * @param flowNode The flow node which contains the HashJoin.
+	 * @param inputFields The fields of all join inputs.
+	 * @param keyFields The key fields of all join inputs.
+	 * @param broadcastNames The names of the broadcast sets of the inputs. The name at position 0 is ignored.
+	 * @param outerJoin If true, streamed tuples are also emitted if an input has no matching tuple (LeftJoin).
+	 */
+	public BroadcastHashJoinMapper(FlowNode flowNode, Fields[] inputFields, Fields[] keyFields,
+									String[] broadcastNames, boolean outerJoin) {
+		this.flowNode = flowNode;
+		this.inputFields = inputFields;
+		this.keyFields = keyFields;
+		this.broadcastNames = broadcastNames;
+		this.outerJoin = outerJoin;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void open(Configuration config) {
+
+		try {
+
+			int numJoinInputs = inputFields.length;
+
+			// build hash tables for all broadcasted inputs
+			hashTables = new Map[numJoinInputs];
+			for(int i = 1; i < numJoinInputs; i++) {
+				List<Tuple> broadcastSet = getRuntimeContext().getBroadcastVariable(broadcastNames[i]);
+				Map<Tuple, List<Tuple>> hashTable = new HashMap<>();
+				for(Tuple t : broadcastSet) {
+					Tuple key = t.get(inputFields[i], keyFields[i]);
+					List<Tuple> bucket = hashTable.get(key);
+					if(bucket == null) {
+						bucket = new ArrayList<>(1);
+						hashTable.put(key, bucket);
+					}
+					bucket.add(t);
+				}
+				hashTables[i] = hashTable;
+				LOG.info("built hash table for join input " + i + " with " + broadcastSet.size() + " tuples");
+			}
+
+			matches = new List[numJoinInputs];
+			matchPos = new int[numJoinInputs];
+			joinList = new Tuple2<>(null, new Tuple[numJoinInputs]);
+
+			currentProcess = new FlinkFlowProcess(FlinkConfigConverter.toHadoopConfig(config), getRuntimeContext(), flowNode.getID());
+
+			Set<FlowElement> sources = flowNode.getSourceElements();
+			// pick one (arbitrary) source
+			FlowElement sourceElement = sources.iterator().next();
+			if(!(sourceElement instanceof Boundary)) {
+				throw new RuntimeException("Source of BroadcastHashJoinMapper must be a boundary");
+			}
+
+			Boundary source = (Boundary)sourceElement;
+
+			streamGraph = new HashJoinStreamGraph( currentProcess, flowNode, source );
+			sourceStage = this.streamGraph.getSourceStage();
+
+			for( Duct head : streamGraph.getHeads() ) {
+				LOG.info("sourcing from: " + ((ElementDuct) head).getFlowElement());
+			}
+
+			for( Duct tail : streamGraph.getTails() ) {
+				LOG.info("sinking to: " + ((ElementDuct) tail).getFlowElement());
+			}
+		}
+		catch( Throwable throwable ) {
+
+			if( throwable instanceof CascadingException) {
+				throw (CascadingException) throwable;
+			}
+
+			throw new FlowException( "internal error during BroadcastHashJoinMapper configuration", throwable );
+		}
+
+		this.prepareCalled = false;
+	}
+
+	@Override
+	public void flatMap(Tuple tuple, Collector<Tuple> output) throws Exception {
+
+		if(!this.prepareCalled) {
+
+			streamGraph.prepare();
+			sourceStage.start(null);
+
+			processBeginTime = System.currentTimeMillis();
+			currentProcess.increment(SliceCounters.Process_Begin_Time, processBeginTime);
+			prepareCalled = true;
+		}
+
+		Tuple key = tuple.get(inputFields[0], keyFields[0]);
+
+		// probe all hash tables
+		for(int i = 1; i < hashTables.length; i++) {
+			List<Tuple> match = hashTables[i].get(key);
+			if(match == null) {
+				if(outerJoin) {
+					match = NO_MATCH;
+				}
+				else {
+					return;
+				}
+			}
+			matches[i] = match;
+			matchPos[i] = 0;
+		}
+
+		this.streamGraph.setTupleCollector(output);
+
+		joinList.f0 = key;
+		joinList.f1[0] = tuple;
+
+		try {
+			// emit all combinations of matching tuples
+			boolean hasNext = true;
+			while(hasNext) {
+				for(int i = 1; i < matches.length; i++) {
+					joinList.f1[i] = matches[i].get(matchPos[i]);
+				}
+				sourceStage.run(joinList);
+
+				hasNext = false;
+				for(int i = matches.length - 1; i > 0 && !hasNext; i--) {
+					if(++matchPos[i] < matches[i].size()) {
+						hasNext = true;
+					}
+					else {
+						matchPos[i] = 0;
+					}
+				}
+			}
+		}
+		catch(IOException exception ) {
+			throw exception;
+		}
+		catch( Throwable throwable ) {
+
+			if( throwable instanceof CascadingException ) {
+				throw (CascadingException) throwable;
+			}
+
+			throw new FlowException( "internal error during BroadcastHashJoinMapper execution", throwable );
+		}
+	}
+
+	@Override
+	public void close() {
+
+		try {
+			if( this.prepareCalled) {
+				this.sourceStage.complete(this.sourceStage);
+				this.streamGraph.cleanup();
+			}
+		}
+		finally {
+			if( currentProcess != null ) {
+				long processEndTime = System.currentTimeMillis();
+				currentProcess.increment( SliceCounters.Process_End_Time, processEndTime );
+				currentProcess.increment( SliceCounters.Process_Duration, processEndTime - processBeginTime );
+			}
+
+			String message = "flow node id: " + flowNode.getID();
+			logMemory( LOG, message + ", mem on close" );
+			logCounters( LOG, message + ", counter:", currentProcess );
+		}
+	}
+
+}
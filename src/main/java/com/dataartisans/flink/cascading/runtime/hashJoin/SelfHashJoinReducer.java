@@ -0,0 +1,231 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.hashJoin;
+
+import cascading.CascadingException;
+import cascading.flow.FlowElement;
+import cascading.flow.FlowException;
+import cascading.flow.FlowNode;
+import cascading.flow.SliceCounters;
+import cascading.flow.stream.duct.Duct;
+import cascading.flow.stream.element.ElementDuct;
+import cascading.pipe.Boundary;
+import cascading.provider.FactoryLoader;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.collect.Spillable;
+import cascading.tuple.collect.TupleCollectionFactory;
+import com.dataartisans.flink.cascading.runtime.spilling.SpillListener;
+import com.dataartisans.flink.cascading.runtime.spilling.SpillingTupleCollectionFactory;
+import com.dataartisans.flink.cascading.runtime.util.FlinkFlowProcess;
+import com.dataartisans.flink.cascading.util.FlinkConfigConverter;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+import static cascading.tuple.collect.TupleCollectionFactory.TUPLE_COLLECTION_FACTORY;
+import static cascading.util.LogUtil.logCounters;
+import static cascading.util.LogUtil.logMemory;
+
+/**
+ * Evaluates a keyed self HashJoin on the grouped input.
+ * The input is read and shuffled only once. The tuples of each group are replicated
+ * for all join positions and every combination is handed to the HashJoinGate of the node.
+ * Groups are collected in a spillable tuple collection, such that large groups are spilled to disk.
+ */
+public class SelfHashJoinReducer extends RichGroupReduceFunction<Tuple, Tuple> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SelfHashJoinReducer.class);
+
+	private FlowNode flowNode;
+	private int numJoinInputs;
+	private Fields inputFields;
+	private Fields keyFields;
+
+	private transient HashJoinStreamGraph streamGraph;
+	private transient FlinkFlowProcess currentProcess;
+	private transient JoinBoundaryInStage sourceStage;
+
+	private transient Collection<Tuple> group;
+	private transient Iterator<Tuple>[] matchIterators;
+	private transient Tuple2<Tuple, Tuple[]> joinList;
+
+	private transient long processBeginTime;
+	private transient boolean prepareCalled;
+
+	public SelfHashJoinReducer() {}
+
+	/**
+	 * Creates a SelfHashJoinReducer.
+	 *
+	 * @param flowNode The flow node which contains the HashJoin.
+	 * @param numJoinInputs The number of joined copies of the input.
+	 * @param inputFields The fields of the input.
+	 * @param keyFields The join key fields of the input.
+	 */
+	public SelfHashJoinReducer(FlowNode flowNode, int numJoinInputs, Fields inputFields, Fields keyFields) {
+		this.flowNode = flowNode;
+		this.numJoinInputs = numJoinInputs;
+		this.inputFields = inputFields;
+		this.keyFields = keyFields;
+	}
+
+	@Override
+	public void open(Configuration config) {
+
+		try {
+
+			matchIterators = new Iterator[numJoinInputs];
+			joinList = new Tuple2<>(null, new Tuple[numJoinInputs]);
+
+			currentProcess = new FlinkFlowProcess(FlinkConfigConverter.toHadoopConfig(config), getRuntimeContext(), flowNode.getID());
+
+			TupleCollectionFactory<org.apache.hadoop.conf.Configuration> tupleCollectionFactory = FactoryLoader.getInstance()
+					.loadFactoryFrom(currentProcess, TUPLE_COLLECTION_FACTORY, SpillingTupleCollectionFactory.class);
+			group = tupleCollectionFactory.create(currentProcess);
+			if(group instanceof Spillable) {
+				((Spillable) group).setSpillListener(new SpillListener(currentProcess, keyFields, this.getClass()));
+			}
+
+			Set<FlowElement> sources = flowNode.getSourceElements();
+			// pick one (arbitrary) source
+			FlowElement sourceElement = sources.iterator().next();
+			if(!(sourceElement instanceof Boundary)) {
+				throw new RuntimeException("Source of SelfHashJoinReducer must be a boundary");
+			}
+
+			Boundary source = (Boundary)sourceElement;
+
+			streamGraph = new HashJoinStreamGraph( currentProcess, flowNode, source );
+			sourceStage = this.streamGraph.getSourceStage();
+
+			for( Duct head : streamGraph.getHeads() ) {
+				LOG.info("sourcing from: " + ((ElementDuct) head).getFlowElement());
+			}
+
+			for( Duct tail : streamGraph.getTails() ) {
+				LOG.info("sinking to: " + ((ElementDuct) tail).getFlowElement());
+			}
+		}
+		catch( Throwable throwable ) {
+
+			if( throwable instanceof CascadingException) {
+				throw (CascadingException) throwable;
+			}
+
+			throw new FlowException( "internal error during SelfHashJoinReducer configuration", throwable );
+		}
+
+		this.prepareCalled = false;
+	}
+
+	@Override
+	public void reduce(Iterable<Tuple> values, Collector<Tuple> output) throws Exception {
+
+		if(!this.prepareCalled) {
+
+			streamGraph.prepare();
+			sourceStage.start(null);
+
+			processBeginTime = System.currentTimeMillis();
+			currentProcess.increment(SliceCounters.Process_Begin_Time, processBeginTime);
+			prepareCalled = true;
+		}
+
+		// collect group, values might be reused
+		group.clear();
+		joinList.f0 = null;
+		for(Tuple value : values) {
+			if(joinList.f0 == null) {
+				joinList.f0 = value.get(inputFields, keyFields);
+				if(group instanceof Spillable) {
+					((Spillable) group).setGrouping(joinList.f0);
+				}
+			}
+			group.add(new Tuple(value));
+		}
+
+		this.streamGraph.setTupleCollector(output);
+
+		try {
+			// emit all combinations of the group's tuples, iterating the group once per join position
+			for(int i = 0; i < numJoinInputs; i++) {
+				matchIterators[i] = group.iterator();
+				joinList.f1[i] = matchIterators[i].next();
+			}
+
+			boolean hasNext = true;
+			while(hasNext) {
+				sourceStage.run(joinList);
+
+				hasNext = false;
+				for(int i = numJoinInputs - 1; i >= 0 && !hasNext; i--) {
+					if(matchIterators[i].hasNext()) {
+						hasNext = true;
+					}
+					else {
+						matchIterators[i] = group.iterator();
+					}
+					joinList.f1[i] = matchIterators[i].next();
+				}
+			}
+		}
+		catch(IOException exception ) {
+			throw exception;
+		}
+		catch( Throwable throwable ) {
+
+			if( throwable instanceof CascadingException ) {
+				throw (CascadingException) throwable;
+			}
+
+			throw new FlowException( "internal error during SelfHashJoinReducer execution", throwable );
+		}
+	}
+
+	@Override
+	public void close() {
+
+		try {
+			if( this.prepareCalled) {
+				this.sourceStage.complete(this.sourceStage);
+				this.streamGraph.cleanup();
+			}
+		}
+		finally {
+			if( currentProcess != null ) {
+				long processEndTime = System.currentTimeMillis();
+				currentProcess.increment( SliceCounters.Process_End_Time, processEndTime );
+				currentProcess.increment( SliceCounters.Process_Duration, processEndTime - processBeginTime );
+			}
+
+			String message = "flow node id: " + flowNode.getID();
+			logMemory( LOG, message + ", mem on close" );
+			logCounters( LOG, message + ", counter:", currentProcess );
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.semiJoin;
+
+import cascading.tuple.Tuple;
+
+import java.io.Serializable;
+
+/**
+ * A Bloom filter over the join keys of a CoGroup or HashJoin input.
+ *
+ * Keys are hashed by their values and not by Tuple.hashCode(), because the filter is built and probed
+ * in different JVMs. Numeric values are hashed by their numeric value such that keys which might
+ * be equal in a join never hash differently. Keys with values of other types are never dropped.
+ */
+public class BloomFilter implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+
+	private long[] bits;
+	private int numHashFunctions;
+	private boolean saturated;
+
+	public BloomFilter() {}
+
+	public BloomFilter(long numBits, int numHashFunctions) {
+		this.bits = new long[(int)((numBits + 63) / 64)];
+		this.numHashFunctions = numHashFunctions;
+	}
+
+	/**
+	 * Returns the number of bits of a filter for the expected number of distinct keys
+	 * and false positive probability.
+	 */
+	public static long getOptimalNumBits(long numKeys, double falsePositiveRate) {
+		long numBits = (long)Math.ceil(-numKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		return Math.max(64, numBits);
+	}
+
+	/**
+	 * Returns the number of hash functions that minimizes the false positive probability of a filter.
+	 */
+	public static int getOptimalNumHashFunctions(long numKeys, long numBits) {
+		return Math.max(1, (int)Math.round((double)numBits / Math.max(1, numKeys) * Math.log(2)));
+	}
+
+	public void add(Tuple key) {
+
+		if(saturated) {
+			return;
+		}
+		long hash = hash(key);
+		if(hash == -1) {
+			// key cannot be hashed consistently, accept all keys
+			saturated = true;
+			return;
+		}
+		long numBits = (long)bits.length * 64;
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		for(int i=1; i<=numHashFunctions; i++) {
+			int combined = h1 + i * h2;
+			if(combined < 0) {
+				combined = ~combined;
+			}
+			long bit = combined % numBits;
+			bits[(int)(bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	public boolean mightContain(Tuple key) {
+
+		if(saturated) {
+			return true;
+		}
+		long hash = hash(key);
+		if(hash == -1) {
+			return true;
+		}
+		long numBits = (long)bits.length * 64;
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		for(int i=1; i<=numHashFunctions; i++) {
+			int combined = h1 + i * h2;
+			if(combined < 0) {
+				combined = ~combined;
+			}
+			long bit = combined % numBits;
+			if((bits[(int)(bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds all keys of another filter of the same size to this filter.
+	 */
+	public void merge(BloomFilter other) {
+
+		if(other.bits.length != bits.length || other.numHashFunctions != numHashFunctions) {
+			throw new IllegalArgumentException("Cannot merge Bloom filters of different sizes.");
+		}
+		saturated |= other.saturated;
+		for(int i=0; i<bits.length; i++) {
+			bits[i] |= other.bits[i];
+		}
+	}
+
+	public boolean isSaturated() {
+		return saturated;
+	}
+
+	public int getSizeInBytes() {
+		return bits.length * 8;
+	}
+
+	/**
+	 * Returns a hash of the key's values or -1 if the key has values that cannot be hashed consistently.
+	 */
+	private static long hash(Tuple key) {
+
+		long hash = 1;
+		for(int i=0; i<key.size(); i++) {
+			Object value = key.getObject(i);
+			long valueHash;
+
+			if(value == null) {
+				valueHash = NULL_HASH;
+			}
+			else if(value instanceof String) {
+				valueHash = value.hashCode();
+			}
+			else if(value instanceof Integer || value instanceof Long || value instanceof Short ||
+					value instanceof Byte || value instanceof Double || value instanceof Float) {
+				double d = ((Number)value).doubleValue();
+				valueHash = d == (long)d ? (long)d : Double.doubleToLongBits(d);
+			}
+			else if(value instanceof Boolean || value instanceof Character) {
+				valueHash = value.hashCode();
+			}
+			else {
+				return -1;
+			}
+			hash = mix(hash * 31 + valueHash);
+		}
+		return hash == -1 ? 0 : hash;
+	}
+
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.semiJoin;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.MapPartitionFunction;
+import org.apache.flink.util.Collector;
+
+/**
+ * Builds a Bloom filter over the keys of all tuples of a partition.
+ */
+public class BloomFilterBuilder implements MapPartitionFunction<Tuple, BloomFilter> {
+
+	private int[] keyPos;
+	private long numBits;
+	private int numHashFunctions;
+
+	public BloomFilterBuilder(int[] keyPos, long numBits, int numHashFunctions) {
+		this.keyPos = keyPos;
+		this.numBits = numBits;
+		this.numHashFunctions = numHashFunctions;
+	}
+
+	@Override
+	public void mapPartition(Iterable<Tuple> values, Collector<BloomFilter> out) throws Exception {
+
+		BloomFilter filter = new BloomFilter(numBits, numHashFunctions);
+		for(Tuple value : values) {
+			filter.add(value.get(keyPos));
+		}
+		out.collect(filter);
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.semiJoin;
+
+/**
+ * Counters reported by the Bloom filter semi-join reduction of joins.
+ */
+public enum BloomFilterCounters {
+
+	/** Tuples dropped before the shuffle because their key is not in the filter. */
+	Tuples_Dropped,
+	/** Tuples that passed the filter. */
+	Tuples_Passed,
+	/** Tuples that passed the filter but did not find a join partner. */
+	False_Positives
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.semiJoin;
+
+import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.runtime.stats.EnumStringConverter;
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.RichFilterFunction;
+import org.apache.flink.configuration.Configuration;
+
+import java.util.List;
+
+/**
+ * Drops all tuples whose key is not contained in a Bloom filter.
+ * The filter is received as broadcast set.
+ */
+public class BloomFilterPruner extends RichFilterFunction<Tuple> {
+
+	public static final String BLOOM_FILTER = "bloom-filter";
+
+	private int[] keyPos;
+
+	private transient BloomFilter filter;
+	private transient LongCounter dropped;
+	private transient LongCounter passed;
+
+	public BloomFilterPruner(int[] keyPos) {
+		this.keyPos = keyPos;
+	}
+
+	@Override
+	public void open(Configuration config) {
+
+		List<BloomFilter> filters = getRuntimeContext().getBroadcastVariable(BLOOM_FILTER);
+		if(filters.size() != 1) {
+			throw new RuntimeException("Expected a single Bloom filter but received " + filters.size());
+		}
+		this.filter = filters.get(0);
+		this.dropped = getCounter(BloomFilterCounters.Tuples_Dropped);
+		this.passed = getCounter(BloomFilterCounters.Tuples_Passed);
+	}
+
+	@Override
+	public boolean filter(Tuple value) throws Exception {
+
+		if(filter.mightContain(value.get(keyPos))) {
+			passed.add(1L);
+			return true;
+		}
+		else {
+			dropped.add(1L);
+			return false;
+		}
+	}
+
+	private LongCounter getCounter(BloomFilterCounters counter) {
+
+		String name = EnumStringConverter.mergeGroupCounter(
+				EnumStringConverter.enumToGroup(counter), EnumStringConverter.enumToCounter(counter));
+		LongCounter longCounter = getRuntimeContext().getLongCounter(name);
+		if(longCounter == null) {
+			longCounter = new LongCounter();
+			getRuntimeContext().addAccumulator(name, longCounter);
+		}
+		return longCounter;
+	}
+}
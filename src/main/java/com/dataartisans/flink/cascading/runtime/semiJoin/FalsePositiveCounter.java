@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.semiJoin;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.java.tuple.Tuple3;
+
+import java.util.Iterator;
+
+/**
+ * Counts the tuples of a tagged CoGroup group that passed a Bloom filter without finding a join partner.
+ * These are the tuples of groups without any tuple of the input from which the filter was built.
+ */
+public class FalsePositiveCounter implements Iterator<Tuple3<Tuple, Integer, Tuple>> {
+
+	private final int filterInput;
+
+	private Iterator<Tuple3<Tuple, Integer, Tuple>> values;
+	private long numFiltered;
+	private boolean filterInputSeen;
+
+	/**
+	 * @param filterInput The position of the input from which the Bloom filter was built.
+	 */
+	public FalsePositiveCounter(int filterInput) {
+		this.filterInput = filterInput;
+	}
+
+	/**
+	 * Starts counting the tuples of a new group.
+	 */
+	public void reset(Iterator<Tuple3<Tuple, Integer, Tuple>> values) {
+		this.values = values;
+		this.numFiltered = 0;
+		this.filterInputSeen = false;
+	}
+
+	/**
+	 * Consumes the remaining tuples of the group and returns the number of false positives.
+	 */
+	public long drain() {
+		while(hasNext()) {
+			next();
+		}
+		return filterInputSeen ? 0 : numFiltered;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return values.hasNext();
+	}
+
+	@Override
+	public Tuple3<Tuple, Integer, Tuple> next() {
+
+		Tuple3<Tuple, Integer, Tuple> value = values.next();
+		if(value.f1 == filterInput) {
+			filterInputSeen = true;
+		}
+		else {
+			numFiltered++;
+		}
+		return value;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.skew;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.RichFilterFunction;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.configuration.Configuration;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Separates records with heavy keys from records with regular keys.
+ * The heavy keys are received as broadcast set.
+ */
+public class HeavyKeyFilter<T> extends RichFilterFunction<T> {
+
+	public static final String HEAVY_KEYS = "heavy-keys";
+
+	private KeySelector<T, Tuple> keySelector;
+	private boolean keepHeavy;
+
+	private transient Set<Tuple> heavyKeys;
+
+	/**
+	 * @param keySelector Extracts the key of a record.
+	 * @param keepHeavy If true only records with heavy keys are kept, otherwise only records with regular keys.
+	 */
+	public HeavyKeyFilter(KeySelector<T, Tuple> keySelector, boolean keepHeavy) {
+		this.keySelector = keySelector;
+		this.keepHeavy = keepHeavy;
+	}
+
+	@Override
+	public void open(Configuration config) {
+		List<Tuple> keys = getRuntimeContext().getBroadcastVariable(HEAVY_KEYS);
+		this.heavyKeys = new HashSet<>(keys);
+	}
+
+	@Override
+	public boolean filter(T value) throws Exception {
+		return heavyKeys.contains(keySelector.getKey(value)) == keepHeavy;
+	}
+}
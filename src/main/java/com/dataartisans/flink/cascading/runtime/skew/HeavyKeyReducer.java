@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.skew;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identifies the heavy keys of a sample. A key is heavy if its share of the sampled records
+ * exceeds a given fraction. The heavy keys are emitted as Tuples.
+ */
+public class HeavyKeyReducer<T> extends RichGroupReduceFunction<T, Tuple> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HeavyKeyReducer.class);
+
+	private KeySelector<T, Tuple> keySelector;
+	private double heavyKeyFraction;
+
+	public HeavyKeyReducer(KeySelector<T, Tuple> keySelector, double heavyKeyFraction) {
+		this.keySelector = keySelector;
+		this.heavyKeyFraction = heavyKeyFraction;
+	}
+
+	@Override
+	public void reduce(Iterable<T> sample, Collector<Tuple> out) throws Exception {
+
+		Map<Tuple, Integer> counts = new HashMap<>();
+		long numSampled = 0;
+
+		for(T value : sample) {
+			Tuple key = keySelector.getKey(value);
+			Integer count = counts.get(key);
+			if(count == null) {
+				// keys might be reused, copy them
+				counts.put(new Tuple(key), 1);
+			}
+			else {
+				counts.put(key, count + 1);
+			}
+			numSampled++;
+		}
+
+		int numHeavy = 0;
+		for(Map.Entry<Tuple, Integer> entry : counts.entrySet()) {
+			if(entry.getValue() > heavyKeyFraction * numSampled) {
+				out.collect(entry.getKey());
+				numHeavy++;
+			}
+		}
+
+		LOG.info("Found {} heavy keys in a sample of {} records.", numHeavy, numSampled);
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.runtime.skew;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.RichMapPartitionFunction;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounds the number of records which are replicated to all tasks for heavy keys.
+ * The heavy keys are received as broadcast set and the input consists of the records to replicate.
+ * Heavy keys are emitted in the order of ascending replicated record counts as long as the total count
+ * does not exceed the limit. All other heavy keys are not emitted and hence processed as regular keys.
+ */
+public class ReplicatedKeyLimiter<T> extends RichMapPartitionFunction<T, Tuple> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReplicatedKeyLimiter.class);
+
+	private KeySelector<T, Tuple> keySelector;
+	private long maxReplicatedRecords;
+
+	private transient List<Tuple> heavyKeys;
+
+	/**
+	 * @param keySelector Extracts the key of a record.
+	 * @param maxReplicatedRecords The maximum number of records which may be replicated in total.
+	 */
+	public ReplicatedKeyLimiter(KeySelector<T, Tuple> keySelector, long maxReplicatedRecords) {
+		this.keySelector = keySelector;
+		this.maxReplicatedRecords = maxReplicatedRecords;
+	}
+
+	@Override
+	public void open(Configuration config) {
+		this.heavyKeys = getRuntimeContext().getBroadcastVariable(HeavyKeyFilter.HEAVY_KEYS);
+	}
+
+	@Override
+	public void mapPartition(Iterable<T> records, Collector<Tuple> out) throws Exception {
+
+		final Map<Tuple, Long> counts = new HashMap<>();
+		for(Tuple key : heavyKeys) {
+			counts.put(key, 0L);
+		}
+
+		for(T record : records) {
+			Tuple key = keySelector.getKey(record);
+			Long count = counts.get(key);
+			if(count != null) {
+				counts.put(key, count + 1);
+			}
+		}
+
+		List<Tuple> keys = new ArrayList<>(counts.keySet());
+		Collections.sort(keys, new Comparator<Tuple>() {
+			@Override
+			public int compare(Tuple k1, Tuple k2) {
+				return Long.compare(counts.get(k1), counts.get(k2));
+			}
+		});
+
+		long numReplicated = 0;
+		int numDropped = 0;
+		for(Tuple key : keys) {
+			long count = counts.get(key);
+			if(numReplicated + count <= maxReplicatedRecords) {
+				out.collect(key);
+				numReplicated += count;
+			}
+			else {
+				numDropped++;
+			}
+		}
+
+		if(numDropped > 0) {
+			LOG.warn("{} of {} heavy keys are processed as regular keys because replicating their records " +
+					"would exceed the limit of {} records.", numDropped, keys.size(), maxReplicatedRecords);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.skew;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.FilterFunction;
+import org.apache.flink.api.java.tuple.Tuple3;
+
+/**
+ * Filters tagged CoGroup input records by the id of their input.
+ */
+public class TaggedInputFilter implements FilterFunction<Tuple3<Tuple, Integer, Tuple>> {
+
+	private int inputId;
+	private boolean keepInput;
+
+	/**
+	 * @param inputId The id of the input to filter on.
+	 * @param keepInput If true only records of the input are kept, otherwise only records of all other inputs.
+	 */
+	public TaggedInputFilter(int inputId, boolean keepInput) {
+		this.inputId = inputId;
+		this.keepInput = keepInput;
+	}
+
+	@Override
+	public boolean filter(Tuple3<Tuple, Integer, Tuple> value) throws Exception {
+		return (value.f1 == inputId) == keepInput;
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.skew;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.java.tuple.Tuple3;
+
+/**
+ * Extracts the key of a tagged CoGroup input record, i.e., a (key, input id, tuple) triple.
+ */
+public class TaggedKeySelector implements KeySelector<Tuple3<Tuple, Integer, Tuple>, Tuple> {
+
+	@Override
+	public Tuple getKey(Tuple3<Tuple, Integer, Tuple> value) throws Exception {
+		return value.f0;
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.skew;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.java.functions.KeySelector;
+
+/**
+ * Extracts the key fields of a Tuple.
+ */
+public class TupleKeySelector implements KeySelector<Tuple, Tuple> {
+
+	private int[] keyPos;
+
+	public TupleKeySelector(int[] keyPos) {
+		this.keyPos = keyPos;
+	}
+
+	@Override
+	public Tuple getKey(Tuple value) throws Exception {
+		return value.get(keyPos);
+	}
+}
@@ -65,6 +65,7 @@ public class TapInputFormat extends RichInputFormat<Tuple, HadoopInputSplit> {
 	private static final Logger LOG = LoggerFactory.getLogger(TapInputFormat.class);
 
 	private FlowNode flowNode;
+	private int[] projection;
 
 	private transient SourceStreamGraph streamGraph;
 	private transient TapSourceStage sourceStage;
@@ -78,8 +79,19 @@ public class TapInputFormat extends RichInputFormat<Tuple, HadoopInputSplit> {
 
 	public TapInputFormat(FlowNode flowNode) {
 
+		this(flowNode, null);
+	}
+
+	/**
+	 * @param flowNode The source node.
+	 * @param projection The positions of the source fields which are referenced by subsequent pipes,
+	 *                   null if all fields are referenced. All other fields are nulled after reading.
+	 */
+	public TapInputFormat(FlowNode flowNode, int[] projection) {
+
 		super();
 		this.flowNode = flowNode;
+		this.projection = projection;
 
 	}
 
@@ -126,6 +138,7 @@ public class TapInputFormat extends RichInputFormat<Tuple, HadoopInputSplit> {
 			streamGraph = new SourceStreamGraph( flowProcess, flowNode, source );
 
 			sourceStage = this.streamGraph.getSourceStage();
+			sourceStage.setProjection(projection);
 			sinkStage = this.streamGraph.getSinkStage();
 
 			for( Duct head : streamGraph.getHeads() ) {
@@ -23,6 +23,7 @@ import cascading.flow.StepCounters;
 import cascading.flow.stream.duct.DuctException;
 import cascading.flow.stream.element.SourceStage;
 import cascading.tap.Tap;
+import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
 import cascading.tuple.TupleEntryIterator;
 import org.apache.hadoop.mapred.RecordReader;
@@ -36,12 +37,25 @@ public class TapSourceStage extends SourceStage {
 	private Tap source;
 	private TupleEntryIterator iterator;
 
+	private int[] projection;
+	private Tuple projectedTuple;
+	private TupleEntry projectedEntry;
+
 	public TapSourceStage(FlowProcess flowProcess, Tap tap) {
 		super(flowProcess, tap);
 
 		this.source = tap;
 	}
 
+	/**
+	 * Sets the positions of the fields that are forwarded. All other fields are set to null.
+	 *
+	 * @param projection The positions of the forwarded fields or null to forward all fields.
+	 */
+	public void setProjection(int[] projection) {
+		this.projection = projection;
+	}
+
 	public void setRecordReader(RecordReader recordReader) throws Throwable {
 
 		try {
@@ -86,6 +100,10 @@ public class TapSourceStage extends SourceStage {
 					continue;
 				}
 
+				if(projection != null) {
+					tupleEntry = project(tupleEntry);
+				}
+
 				next.receive(this, tupleEntry);
 				hasNext = true;
 				break;
@@ -116,4 +134,21 @@ public class TapSourceStage extends SourceStage {
 		return hasNext;
 	}
 
+	private TupleEntry project(TupleEntry tupleEntry) {
+
+		Tuple tuple = tupleEntry.getTuple();
+		if(projectedTuple == null || projectedTuple.size() != tuple.size()) {
+			projectedTuple = Tuple.size(tuple.size());
+			projectedEntry = new TupleEntry(tupleEntry.getFields(), projectedTuple);
+		}
+
+		// all other fields of the projected tuple remain null
+		for(int pos : projection) {
+			if(pos < tuple.size()) {
+				projectedTuple.set(pos, tuple.getObject(pos));
+			}
+		}
+		return projectedEntry;
+	}
+
 }
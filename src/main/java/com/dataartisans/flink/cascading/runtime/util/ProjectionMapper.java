@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dataartisans.flink.cascading.runtime.util;
+
+import cascading.tuple.Tuple;
+import org.apache.flink.api.common.functions.MapFunction;
+
+/**
+ * Selects the fields at the given positions of a Tuple.
+ */
+public class ProjectionMapper implements MapFunction<Tuple, Tuple> {
+
+	private int[] positions;
+
+	public ProjectionMapper(int[] positions) {
+		this.positions = positions;
+	}
+
+	@Override
+	public Tuple map(Tuple value) throws Exception {
+		return value.get(positions);
+	}
+}
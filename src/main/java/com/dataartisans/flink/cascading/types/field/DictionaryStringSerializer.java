@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.field;
+
+import com.dataartisans.flink.cascading.types.tuple.VarIntSerDeUtils;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.types.StringValue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializer for String fields with a fixed dictionary of frequent values.
+ * Values in the dictionary are written as their varint id plus one. All other values are written as 0,
+ * followed by the raw String. The dictionary is part of the serializer, such that each record can be
+ * read on its own, also after it was sorted or spilled.
+ */
+public class DictionaryStringSerializer extends TypeSerializer<String> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int RAW = 0;
+
+	private final String[] dictionary;
+
+	private transient Map<String, Integer> ids;
+
+	public DictionaryStringSerializer(String[] dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	@Override
+	public boolean isImmutableType() {
+		return true;
+	}
+
+	@Override
+	public DictionaryStringSerializer duplicate() {
+		return new DictionaryStringSerializer(this.dictionary);
+	}
+
+	@Override
+	public String createInstance() {
+		return "";
+	}
+
+	@Override
+	public String copy(String from) {
+		return from;
+	}
+
+	@Override
+	public String copy(String from, String reuse) {
+		return from;
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public void serialize(String record, DataOutputView target) throws IOException {
+
+		if(this.ids == null) {
+			this.ids = new HashMap<>(this.dictionary.length * 2);
+			for(int i = 0; i < this.dictionary.length; i++) {
+				this.ids.put(this.dictionary[i], i);
+			}
+		}
+
+		Integer id = this.ids.get(record);
+		if(id != null) {
+			VarIntSerDeUtils.writeVarInt(id + 1, target);
+		}
+		else {
+			VarIntSerDeUtils.writeVarInt(RAW, target);
+			StringValue.writeString(record, target);
+		}
+	}
+
+	@Override
+	public String deserialize(DataInputView source) throws IOException {
+
+		int id = VarIntSerDeUtils.readVarInt(source);
+		if(id == RAW) {
+			return StringValue.readString(source);
+		}
+		else if(id <= this.dictionary.length) {
+			return this.dictionary[id - 1];
+		}
+		else {
+			throw new IOException("Invalid dictionary id " + id + " for dictionary of size " + this.dictionary.length);
+		}
+	}
+
+	@Override
+	public String deserialize(String reuse, DataInputView source) throws IOException {
+		return deserialize(source);
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+
+		int id = VarIntSerDeUtils.readVarInt(source);
+		VarIntSerDeUtils.writeVarInt(id, target);
+		if(id == RAW) {
+			StringValue.copyString(source, target);
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof DictionaryStringSerializer) {
+			DictionaryStringSerializer other = (DictionaryStringSerializer) obj;
+
+			return other.canEqual(this) &&
+					Arrays.equals(this.dictionary, other.dictionary);
+		}
+		else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.dictionary);
+	}
+
+	@Override
+	public boolean canEqual(Object obj) {
+		return obj instanceof DictionaryStringSerializer;
+	}
+}
@@ -21,13 +21,29 @@ import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.core.memory.DataInputView;
 import org.apache.flink.core.memory.DataOutputView;
 import org.apache.flink.core.memory.MemorySegment;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableUtils;
 
 import java.io.IOException;
 
+/**
+ * Comparator for fields without declared type and for Writable fields.
+ * Normalized keys consist of a type tag followed by an order-preserving prefix of the value. Values of types
+ * without order-preserving encoding are only distinguished by their type tag. Values serialized by a
+ * {@link TaggedFieldSerializer} are compared in binary if their encoding permits it.
+ */
 public class FieldComparator<T extends Comparable<T>> extends TypeComparator<T> {
 
 	private static final long serialVersionUID = 1L;
 
+	private static final int NORMALIZED_KEY_LEN = 16;
+
+	// tag of null values in normalized keys, type tags are offset by one
+	private static final byte NULL_KEY = 0;
+
 	private final boolean ascending;
 	private final Class<T> type;
 	private TypeSerializer<T> serializer;
@@ -73,17 +89,18 @@ public class FieldComparator<T extends Comparable<T>> extends TypeComparator<T>
 		int cmp;
 
 		if(this.ref != null && other.ref != null) {
-			cmp = other.ref.compareTo(this.ref);
+			cmp = compareValues(other.ref, this.ref);
 
 		}
 		else if(this.ref == null && other.ref == null) {
 			cmp = 0;
 		}
 		else if(this.ref == null && other.ref != null) {
-			cmp = -1;
+			// the reference of the other comparator is compared to this reference, nulls are smaller
+			cmp = 1;
 		}
 		else {
-			cmp = 1;
+			cmp = -1;
 		}
 		return this.ascending?cmp:-cmp;
 	}
@@ -93,7 +110,7 @@ public class FieldComparator<T extends Comparable<T>> extends TypeComparator<T>
 		int cmp;
 
 		if(t1 != null && t2 != null) {
-			cmp = t1.compareTo(t2);
+			cmp = compareValues(t1, t2);
 		}
 		else if(t1 == null && t2 == null) {
 			cmp = 0;
@@ -107,18 +124,125 @@ public class FieldComparator<T extends Comparable<T>> extends TypeComparator<T>
 		return this.ascending?cmp:-cmp;
 	}
 
+	/**
+	 * Compares two non-null values. Values of different types are ordered by their type tag,
+	 * consistent with their normalized keys and their binary comparison.
+	 */
+	private static <T extends Comparable<T>> int compareValues(T t1, T t2) {
+
+		if(t1.getClass() != t2.getClass()) {
+			byte tag1 = TaggedFieldSerializer.getTypeTag(t1);
+			byte tag2 = TaggedFieldSerializer.getTypeTag(t2);
+			if(tag1 != tag2) {
+				return tag1 < tag2 ? -1 : 1;
+			}
+		}
+		return t1.compareTo(t2);
+	}
+
 	@Override
 	public int compareSerialized(DataInputView firstSource, DataInputView secondSource) throws IOException {
 
-		T t1 = this.serializer.deserialize(firstSource);
-		T t2 = this.serializer.deserialize(secondSource);
-		int cmp = t1.compareTo(t2);
+		int cmp;
+		if(this.serializer instanceof TaggedFieldSerializer) {
+			cmp = compareTagged((TaggedFieldSerializer)this.serializer, firstSource, secondSource);
+		}
+		else {
+			T t1 = this.serializer.deserialize(firstSource);
+			T t2 = this.serializer.deserialize(secondSource);
+			cmp = t1.compareTo(t2);
+		}
 		return this.ascending?cmp:-cmp;
 	}
 
+	/**
+	 * Compares two values serialized with type tags. Values with fixed-length or byte-comparable encodings
+	 * are compared without deserialization. Values of different types are ordered by their type tag.
+	 */
+	private static int compareTagged(TaggedFieldSerializer serializer, DataInputView first, DataInputView second)
+			throws IOException {
+
+		byte tag1 = first.readByte();
+		byte tag2 = second.readByte();
+
+		if(tag1 == tag2) {
+			switch(tag1) {
+				case TaggedFieldSerializer.INTEGER:
+					return Integer.compare(serializer.readInteger(first), serializer.readInteger(second));
+				case TaggedFieldSerializer.INT_WRITABLE:
+					return Integer.compare(first.readInt(), second.readInt());
+				case TaggedFieldSerializer.LONG:
+					return Long.compare(serializer.readLong(first), serializer.readLong(second));
+				case TaggedFieldSerializer.LONG_WRITABLE:
+					return Long.compare(first.readLong(), second.readLong());
+				case TaggedFieldSerializer.DOUBLE:
+					return Double.compare(first.readDouble(), second.readDouble());
+				case TaggedFieldSerializer.FLOAT:
+					return Float.compare(first.readFloat(), second.readFloat());
+				case TaggedFieldSerializer.SHORT:
+					return Short.compare(first.readShort(), second.readShort());
+				case TaggedFieldSerializer.BYTE:
+					return Byte.compare(first.readByte(), second.readByte());
+				case TaggedFieldSerializer.BOOLEAN:
+				case TaggedFieldSerializer.BOOLEAN_WRITABLE:
+					return Boolean.compare(first.readBoolean(), second.readBoolean());
+				case TaggedFieldSerializer.CHARACTER:
+					return Character.compare(first.readChar(), second.readChar());
+				case TaggedFieldSerializer.DOUBLE_WRITABLE: {
+					// same semantics as DoubleWritable.compareTo()
+					double d1 = first.readDouble();
+					double d2 = second.readDouble();
+					return d1 < d2 ? -1 : (d1 == d2 ? 0 : 1);
+				}
+				case TaggedFieldSerializer.FLOAT_WRITABLE: {
+					// same semantics as FloatWritable.compareTo()
+					float f1 = first.readFloat();
+					float f2 = second.readFloat();
+					return f1 < f2 ? -1 : (f1 == f2 ? 0 : 1);
+				}
+				case TaggedFieldSerializer.TEXT:
+					return compareTextBytes(first, second);
+				default:
+					Comparable c1 = serializer.deserialize(tag1, first);
+					Comparable c2 = serializer.deserialize(tag2, second);
+					return c1.compareTo(c2);
+			}
+		}
+		else {
+			// consume both values
+			serializer.deserialize(tag1, first);
+			serializer.deserialize(tag2, second);
+			return tag1 < tag2 ? -1 : 1;
+		}
+	}
+
+	/**
+	 * Compares two serialized Texts byte-wise like Text.compareTo() and consumes both of them.
+	 */
+	private static int compareTextBytes(DataInputView first, DataInputView second) throws IOException {
+
+		int len1 = WritableUtils.readVInt(first);
+		int len2 = WritableUtils.readVInt(second);
+		int minLen = Math.min(len1, len2);
+
+		int cmp = 0;
+		int i = 0;
+		while(i < minLen && cmp == 0) {
+			cmp = first.readUnsignedByte() - second.readUnsignedByte();
+			i++;
+		}
+		first.skipBytesToRead(len1 - i);
+		second.skipBytesToRead(len2 - i);
+
+		if(cmp == 0) {
+			cmp = len1 - len2;
+		}
+		return cmp < 0 ? -1 : (cmp > 0 ? 1 : 0);
+	}
+
 	@Override
 	public boolean supportsNormalizedKey() {
-		return false;
+		return true;
 	}
 
 	@Override
@@ -128,17 +252,118 @@ public class FieldComparator<T extends Comparable<T>> extends TypeComparator<T>
 
 	@Override
 	public int getNormalizeKeyLen() {
-		return -1;
+		return NORMALIZED_KEY_LEN;
 	}
 
 	@Override
-	public boolean isNormalizedKeyPrefixOnly(int i) {
-		return false;
+	public boolean isNormalizedKeyPrefixOnly(int keyBytes) {
+		// values of different types with equal tags are not distinguished by their normalized key
+		return true;
 	}
 
 	@Override
-	public void putNormalizedKey(T t, MemorySegment memorySegment, int i, int i1) {
-		throw new UnsupportedOperationException("Normalized keys not supported for Cascading fields.");
+	public void putNormalizedKey(T value, MemorySegment target, int offset, int numBytes) {
+
+		if(numBytes <= 0) {
+			return;
+		}
+		int end = offset + numBytes;
+
+		if(value == null) {
+			target.put(offset++, NULL_KEY);
+		}
+		else {
+			byte tag = TaggedFieldSerializer.getTypeTag(value);
+			target.put(offset++, (byte)(tag + 1));
+
+			switch(tag) {
+				case TaggedFieldSerializer.STRING:
+					offset = putStringKey((String)value, target, offset, end);
+					break;
+				case TaggedFieldSerializer.INTEGER:
+					offset = putKeyBytes((Integer)value ^ Integer.MIN_VALUE, 4, target, offset, end);
+					break;
+				case TaggedFieldSerializer.LONG:
+					offset = putKeyBytes((Long)value ^ Long.MIN_VALUE, 8, target, offset, end);
+					break;
+				case TaggedFieldSerializer.DOUBLE: {
+					long bits = Double.doubleToLongBits((Double)value);
+					offset = putKeyBytes(bits ^ (bits < 0 ? -1L : Long.MIN_VALUE), 8, target, offset, end);
+					break;
+				}
+				case TaggedFieldSerializer.FLOAT: {
+					int bits = Float.floatToIntBits((Float)value);
+					offset = putKeyBytes(bits ^ (bits < 0 ? -1 : Integer.MIN_VALUE), 4, target, offset, end);
+					break;
+				}
+				case TaggedFieldSerializer.SHORT:
+					offset = putKeyBytes((Short)value ^ Short.MIN_VALUE, 2, target, offset, end);
+					break;
+				case TaggedFieldSerializer.BYTE:
+					offset = putKeyBytes((Byte)value ^ Byte.MIN_VALUE, 1, target, offset, end);
+					break;
+				case TaggedFieldSerializer.BOOLEAN:
+					offset = putKeyBytes((Boolean)value ? 1 : 0, 1, target, offset, end);
+					break;
+				case TaggedFieldSerializer.CHARACTER:
+					offset = putKeyBytes((Character)value, 2, target, offset, end);
+					break;
+				case TaggedFieldSerializer.TEXT: {
+					Text text = (Text)value;
+					byte[] bytes = text.getBytes();
+					int len = Math.min(text.getLength(), end - offset);
+					target.put(offset, bytes, 0, len);
+					offset += len;
+					break;
+				}
+				case TaggedFieldSerializer.INT_WRITABLE:
+					offset = putKeyBytes(((IntWritable)value).get() ^ Integer.MIN_VALUE, 4, target, offset, end);
+					break;
+				case TaggedFieldSerializer.LONG_WRITABLE:
+					offset = putKeyBytes(((LongWritable)value).get() ^ Long.MIN_VALUE, 8, target, offset, end);
+					break;
+				case TaggedFieldSerializer.BOOLEAN_WRITABLE:
+					offset = putKeyBytes(((BooleanWritable)value).get() ? 1 : 0, 1, target, offset, end);
+					break;
+				default:
+					// no order-preserving encoding, values are only distinguished by type
+			}
+		}
+
+		// pad the key
+		while(offset < end) {
+			target.put(offset++, (byte)0);
+		}
+	}
+
+	/**
+	 * Writes the lowest bytes of a value in big-endian order as far as the key has space.
+	 */
+	private static int putKeyBytes(long value, int numValueBytes, MemorySegment target, int offset, int end) {
+
+		for(int shift = (numValueBytes - 1) * 8; shift >= 0 && offset < end; shift -= 8) {
+			target.put(offset++, (byte)(value >>> shift));
+		}
+		return offset;
+	}
+
+	/**
+	 * Writes a prefix-free and order-preserving encoding of the chars of a String as far as the key has space.
+	 * ASCII chars take one byte, all other chars take three bytes.
+	 */
+	private static int putStringKey(String value, MemorySegment target, int offset, int end) {
+
+		for(int i = 0; i < value.length() && offset < end; i++) {
+			char c = value.charAt(i);
+			if(c < 0x80) {
+				target.put(offset++, (byte)c);
+			}
+			else {
+				target.put(offset++, (byte)0xFF);
+				offset = putKeyBytes(c, 2, target, offset, end);
+			}
+		}
+		return offset;
 	}
 
 	@Override
@@ -153,7 +378,7 @@ public class FieldComparator<T extends Comparable<T>> extends TypeComparator<T>
 
 	@Override
 	public boolean invertNormalizedKey() {
-		return false;
+		return !this.ascending;
 	}
 
 	@Override
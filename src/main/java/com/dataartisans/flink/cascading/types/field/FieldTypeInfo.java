@@ -16,6 +16,7 @@
 
 package com.dataartisans.flink.cascading.types.field;
 
+import com.dataartisans.flink.cascading.types.tuple.TupleWireFormat;
 import org.apache.flink.api.common.ExecutionConfig;
 import org.apache.flink.api.common.typeinfo.AtomicType;
 import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
@@ -23,7 +24,10 @@ import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.common.typeutils.TypeComparator;
 import org.apache.flink.api.common.typeutils.TypeSerializer;
 import org.apache.flink.api.java.typeutils.WritableTypeInfo;
-import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 
 import java.util.Comparator;
@@ -38,6 +42,8 @@ public class FieldTypeInfo extends TypeInformation<Comparable> implements Atomic
 
 	private TypeInformation<Comparable> fieldTypeInfo;
 
+	private String[] stringDictionary = null;
+
 	public FieldTypeInfo() {
 
 	}
@@ -67,6 +73,14 @@ public class FieldTypeInfo extends TypeInformation<Comparable> implements Atomic
 		}
 	}
 
+	/**
+	 * Sets a dictionary of frequent values for a String field.
+	 * The dictionary is ignored if the field is not typed as String.
+	 */
+	public void setStringDictionary(String[] dictionary) {
+		this.stringDictionary = dictionary;
+	}
+
 	public void setCustomComparator(Comparator<Comparable> comparator) {
 		this.fieldTypeInfo = null;
 		this.fieldComparator = comparator;
@@ -109,11 +123,23 @@ public class FieldTypeInfo extends TypeInformation<Comparable> implements Atomic
 
 	@Override
 	public TypeSerializer<Comparable> createSerializer(ExecutionConfig config) {
-		if(fieldTypeInfo != null) {
+		if(fieldTypeInfo != null && hasStringDictionary()) {
+			return (TypeSerializer) new DictionaryStringSerializer(this.stringDictionary);
+		}
+		else if(fieldTypeInfo != null && TupleWireFormat.isCompact(config) && hasVarIntType()) {
+			Class typeClass = this.fieldTypeInfo.getTypeClass();
+			if(typeClass == Integer.class) {
+				return (TypeSerializer) ZigZagIntSerializer.INSTANCE;
+			}
+			else {
+				return (TypeSerializer) ZigZagLongSerializer.INSTANCE;
+			}
+		}
+		else if(fieldTypeInfo != null) {
 			return this.fieldTypeInfo.createSerializer(config);
 		}
 		else {
-			return new KryoSerializer(Comparable.class, config);
+			return new TaggedFieldSerializer(config);
 		}
 	}
 
@@ -125,7 +151,14 @@ public class FieldTypeInfo extends TypeInformation<Comparable> implements Atomic
 	@Override
 	public TypeComparator<Comparable> createComparator(boolean sortOrderAscending, ExecutionConfig config) {
 
-		if(this.fieldTypeInfo != null) {
+		if(this.fieldTypeInfo != null &&
+				(hasNormalizableWritableType() || hasStringDictionary() ||
+					(TupleWireFormat.isCompact(config) && hasVarIntType()))) {
+			// Flink's Writable comparators do not support normalized keys,
+			// Flink's String, int, and long comparators do not read dictionary ids or zigzag varints
+			return new FieldComparator(sortOrderAscending, this.createSerializer(config), Comparable.class);
+		}
+		else if(this.fieldTypeInfo != null) {
 			TypeComparator<Comparable> fieldComparator = ((AtomicType)fieldTypeInfo).createComparator(sortOrderAscending, config);
 			return new WrappingFieldComparator(fieldComparator, sortOrderAscending, Comparable.class);
 		}
@@ -163,6 +196,25 @@ public class FieldTypeInfo extends TypeInformation<Comparable> implements Atomic
 		return obj instanceof FieldTypeInfo;
 	}
 
+	private boolean hasNormalizableWritableType() {
+		Class typeClass = this.fieldTypeInfo.getTypeClass();
+		return typeClass == Text.class || typeClass == IntWritable.class ||
+				typeClass == LongWritable.class || typeClass == BooleanWritable.class;
+	}
+
+	private boolean hasStringDictionary() {
+		if(this.stringDictionary == null) {
+			return false;
+		}
+		Class typeClass = this.fieldTypeInfo.getTypeClass();
+		return typeClass == String.class;
+	}
+
+	private boolean hasVarIntType() {
+		Class typeClass = this.fieldTypeInfo.getTypeClass();
+		return typeClass == Integer.class || typeClass == Long.class;
+	}
+
 	private TypeInformation getTypeInfoForClass(Class typeClass) {
 		// try to create BasicTypeInfo
 		TypeInformation typeInfo = BasicTypeInfo.getInfoFor(typeClass);
@@ -0,0 +1,414 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.field;
+
+import com.dataartisans.flink.cascading.types.tuple.TupleWireFormat;
+import com.dataartisans.flink.cascading.types.tuple.VarIntSerDeUtils;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.types.StringValue;
+import org.apache.hadoop.io.BooleanWritable;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.FloatWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializer for fields without declared type.
+ * Each value is prefixed by a one-byte type tag. Common JDK types and Hadoop Writables are written with a
+ * compact encoding. All other types are serialized with Kryo.
+ * In the compact tuple wire format, Integers and Longs are written as zigzag varints.
+ */
+public class TaggedFieldSerializer extends TypeSerializer<Comparable> {
+
+	private static final long serialVersionUID = 1L;
+
+	static final byte KRYO = 0;
+	static final byte STRING = 1;
+	static final byte INTEGER = 2;
+	static final byte LONG = 3;
+	static final byte DOUBLE = 4;
+	static final byte FLOAT = 5;
+	static final byte SHORT = 6;
+	static final byte BYTE = 7;
+	static final byte BOOLEAN = 8;
+	static final byte CHARACTER = 9;
+	static final byte TEXT = 10;
+	static final byte INT_WRITABLE = 11;
+	static final byte LONG_WRITABLE = 12;
+	static final byte DOUBLE_WRITABLE = 13;
+	static final byte FLOAT_WRITABLE = 14;
+	static final byte BOOLEAN_WRITABLE = 15;
+	static final byte WRITABLE = 16;
+
+	private final KryoSerializer<Comparable> kryoSerializer;
+	private final boolean varInts;
+
+	private transient Map<String, Class<?>> writableClasses;
+
+	public TaggedFieldSerializer(ExecutionConfig config) {
+		this(new KryoSerializer<>(Comparable.class, config), TupleWireFormat.isCompact(config));
+	}
+
+	private TaggedFieldSerializer(KryoSerializer<Comparable> kryoSerializer, boolean varInts) {
+		this.kryoSerializer = kryoSerializer;
+		this.varInts = varInts;
+	}
+
+	@Override
+	public boolean isImmutableType() {
+		return false;
+	}
+
+	@Override
+	public TaggedFieldSerializer duplicate() {
+		return new TaggedFieldSerializer(this.kryoSerializer.duplicate(), this.varInts);
+	}
+
+	@Override
+	public Comparable createInstance() {
+		return null;
+	}
+
+	@Override
+	public Comparable copy(Comparable from) {
+		// fields of tuples without schema might be null
+		if(from == null || isImmutable(from)) {
+			return from;
+		}
+		else {
+			return kryoSerializer.copy(from);
+		}
+	}
+
+	@Override
+	public Comparable copy(Comparable from, Comparable reuse) {
+		return copy(from);
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public void serialize(Comparable value, DataOutputView target) throws IOException {
+
+		byte tag = getTypeTag(value);
+		target.writeByte(tag);
+
+		switch(tag) {
+			case STRING:
+				StringValue.writeString((String)value, target);
+				break;
+			case INTEGER:
+				if(varInts) {
+					VarIntSerDeUtils.writeZigZagInt((Integer)value, target);
+				}
+				else {
+					target.writeInt((Integer)value);
+				}
+				break;
+			case LONG:
+				if(varInts) {
+					VarIntSerDeUtils.writeZigZagLong((Long)value, target);
+				}
+				else {
+					target.writeLong((Long)value);
+				}
+				break;
+			case DOUBLE:
+				target.writeDouble((Double)value);
+				break;
+			case FLOAT:
+				target.writeFloat((Float)value);
+				break;
+			case SHORT:
+				target.writeShort((Short)value);
+				break;
+			case BYTE:
+				target.writeByte((Byte)value);
+				break;
+			case BOOLEAN:
+				target.writeBoolean((Boolean)value);
+				break;
+			case CHARACTER:
+				target.writeChar((Character)value);
+				break;
+			case KRYO:
+				kryoSerializer.serialize(value, target);
+				break;
+			case WRITABLE:
+				StringValue.writeString(value.getClass().getName(), target);
+				((Writable)value).write(target);
+				break;
+			default:
+				((Writable)value).write(target);
+		}
+	}
+
+	@Override
+	public Comparable deserialize(DataInputView source) throws IOException {
+		return deserialize(source.readByte(), source);
+	}
+
+	/**
+	 * Deserializes a value whose type tag was already read.
+	 */
+	Comparable deserialize(byte tag, DataInputView source) throws IOException {
+
+		switch(tag) {
+			case KRYO:
+				return kryoSerializer.deserialize(source);
+			case STRING:
+				return StringValue.readString(source);
+			case INTEGER:
+				return readInteger(source);
+			case LONG:
+				return readLong(source);
+			case DOUBLE:
+				return source.readDouble();
+			case FLOAT:
+				return source.readFloat();
+			case SHORT:
+				return source.readShort();
+			case BYTE:
+				return source.readByte();
+			case BOOLEAN:
+				return source.readBoolean();
+			case CHARACTER:
+				return source.readChar();
+			default:
+				Writable writable = createWritable(tag, source);
+				writable.readFields(source);
+				return (Comparable)writable;
+		}
+	}
+
+	/**
+	 * Reads the value of an Integer whose type tag was already read.
+	 */
+	int readInteger(DataInputView source) throws IOException {
+		return varInts ? VarIntSerDeUtils.readZigZagInt(source) : source.readInt();
+	}
+
+	/**
+	 * Reads the value of a Long whose type tag was already read.
+	 */
+	long readLong(DataInputView source) throws IOException {
+		return varInts ? VarIntSerDeUtils.readZigZagLong(source) : source.readLong();
+	}
+
+	@Override
+	public Comparable deserialize(Comparable reuse, DataInputView source) throws IOException {
+		return deserialize(source);
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+
+		byte tag = source.readByte();
+		target.writeByte(tag);
+
+		switch(tag) {
+			case KRYO:
+				kryoSerializer.copy(source, target);
+				break;
+			case STRING:
+				StringValue.copyString(source, target);
+				break;
+			case INTEGER:
+				if(varInts) {
+					VarIntSerDeUtils.copyVarLong(source, target);
+				}
+				else {
+					target.write(source, 4);
+				}
+				break;
+			case LONG:
+				if(varInts) {
+					VarIntSerDeUtils.copyVarLong(source, target);
+				}
+				else {
+					target.write(source, 8);
+				}
+				break;
+			case FLOAT:
+				target.write(source, 4);
+				break;
+			case DOUBLE:
+				target.write(source, 8);
+				break;
+			case SHORT:
+			case CHARACTER:
+				target.write(source, 2);
+				break;
+			case BYTE:
+			case BOOLEAN:
+				target.write(source, 1);
+				break;
+			default:
+				// Writables do not expose their serialized length
+				Writable writable = createWritable(tag, source);
+				if(tag == WRITABLE) {
+					StringValue.writeString(writable.getClass().getName(), target);
+				}
+				writable.readFields(source);
+				writable.write(target);
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof TaggedFieldSerializer) {
+			TaggedFieldSerializer other = (TaggedFieldSerializer) obj;
+
+			return other.canEqual(this) &&
+					varInts == other.varInts &&
+					kryoSerializer.equals(other.kryoSerializer);
+		}
+		else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.kryoSerializer.hashCode() + (this.varInts ? 1 : 0);
+	}
+
+	@Override
+	public boolean canEqual(Object obj) {
+		return obj instanceof TaggedFieldSerializer;
+	}
+
+	private static boolean isImmutable(Object o) {
+		Class<?> clazz = o.getClass();
+		return clazz == String.class || clazz == Integer.class || clazz == Long.class ||
+				clazz == Double.class || clazz == Float.class || clazz == Short.class ||
+				clazz == Byte.class || clazz == Boolean.class || clazz == Character.class;
+	}
+
+	/**
+	 * Returns the type tag with which a non-null value is serialized.
+	 */
+	static byte getTypeTag(Object value) {
+
+		Class<?> clazz = value.getClass();
+
+		if(clazz == String.class) {
+			return STRING;
+		}
+		else if(clazz == Integer.class) {
+			return INTEGER;
+		}
+		else if(clazz == Long.class) {
+			return LONG;
+		}
+		else if(clazz == Double.class) {
+			return DOUBLE;
+		}
+		else if(clazz == Float.class) {
+			return FLOAT;
+		}
+		else if(clazz == Short.class) {
+			return SHORT;
+		}
+		else if(clazz == Byte.class) {
+			return BYTE;
+		}
+		else if(clazz == Boolean.class) {
+			return BOOLEAN;
+		}
+		else if(clazz == Character.class) {
+			return CHARACTER;
+		}
+		else if(clazz == Text.class) {
+			return TEXT;
+		}
+		else if(clazz == IntWritable.class) {
+			return INT_WRITABLE;
+		}
+		else if(clazz == LongWritable.class) {
+			return LONG_WRITABLE;
+		}
+		else if(clazz == DoubleWritable.class) {
+			return DOUBLE_WRITABLE;
+		}
+		else if(clazz == FloatWritable.class) {
+			return FLOAT_WRITABLE;
+		}
+		else if(clazz == BooleanWritable.class) {
+			return BOOLEAN_WRITABLE;
+		}
+		else if(value instanceof Writable) {
+			return WRITABLE;
+		}
+		else {
+			return KRYO;
+		}
+	}
+
+	private Writable createWritable(byte tag, DataInputView source) throws IOException {
+		switch(tag) {
+			case TEXT:
+				return new Text();
+			case INT_WRITABLE:
+				return new IntWritable();
+			case LONG_WRITABLE:
+				return new LongWritable();
+			case DOUBLE_WRITABLE:
+				return new DoubleWritable();
+			case FLOAT_WRITABLE:
+				return new FloatWritable();
+			case BOOLEAN_WRITABLE:
+				return new BooleanWritable();
+			case WRITABLE:
+				return (Writable)ReflectionUtils.newInstance(getWritableClass(StringValue.readString(source)), null);
+			default:
+				throw new IOException("Unknown field type tag " + tag);
+		}
+	}
+
+	private Class<?> getWritableClass(String className) throws IOException {
+
+		if(writableClasses == null) {
+			writableClasses = new HashMap<>();
+		}
+		Class<?> clazz = writableClasses.get(className);
+		if(clazz == null) {
+			try {
+				clazz = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+			}
+			catch(ClassNotFoundException e) {
+				throw new IOException("Could not load Writable class " + className, e);
+			}
+			writableClasses.put(className, clazz);
+		}
+		return clazz;
+	}
+}
@@ -86,10 +86,11 @@ public class WrappingFieldComparator<T extends Comparable<T>> extends TypeCompar
 			return 0;
 		}
 		else if(this.refNull && !other.refNull) {
-			return ascending ? -1 : 1;
+			// the reference of the other comparator is compared to this reference, nulls are smaller
+			return ascending ? 1 : -1;
 		}
 		else {
-			return ascending ? 1 : -1;
+			return ascending ? -1 : 1;
 		}
 	}
 
@@ -148,7 +149,7 @@ public class WrappingFieldComparator<T extends Comparable<T>> extends TypeCompar
 		}
 		else {
 			for(int i=0; i < numBytes; i++) {
-				target.put(offset, NULL_FLAG);
+				target.put(offset + i, NULL_FLAG);
 			}
 		}
 	}
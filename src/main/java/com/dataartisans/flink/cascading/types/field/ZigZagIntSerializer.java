@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.field;
+
+import com.dataartisans.flink.cascading.types.tuple.VarIntSerDeUtils;
+import org.apache.flink.api.common.typeutils.base.TypeSerializerSingleton;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+
+/**
+ * Serializer for int fields which writes values as zigzag varints.
+ * Used by the compact tuple wire format.
+ */
+public final class ZigZagIntSerializer extends TypeSerializerSingleton<Integer> {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final ZigZagIntSerializer INSTANCE = new ZigZagIntSerializer();
+
+	private static final Integer ZERO = 0;
+
+	@Override
+	public boolean isImmutableType() {
+		return true;
+	}
+
+	@Override
+	public Integer createInstance() {
+		return ZERO;
+	}
+
+	@Override
+	public Integer copy(Integer from) {
+		return from;
+	}
+
+	@Override
+	public Integer copy(Integer from, Integer reuse) {
+		return from;
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public void serialize(Integer record, DataOutputView target) throws IOException {
+		VarIntSerDeUtils.writeZigZagInt(record, target);
+	}
+
+	@Override
+	public Integer deserialize(DataInputView source) throws IOException {
+		return VarIntSerDeUtils.readZigZagInt(source);
+	}
+
+	@Override
+	public Integer deserialize(Integer reuse, DataInputView source) throws IOException {
+		return deserialize(source);
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+		VarIntSerDeUtils.copyVarLong(source, target);
+	}
+
+	@Override
+	public boolean canEqual(Object obj) {
+		return obj instanceof ZigZagIntSerializer;
+	}
+}
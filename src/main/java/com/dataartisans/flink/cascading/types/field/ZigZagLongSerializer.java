@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.field;
+
+import com.dataartisans.flink.cascading.types.tuple.VarIntSerDeUtils;
+import org.apache.flink.api.common.typeutils.base.TypeSerializerSingleton;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+
+/**
+ * Serializer for long fields which writes values as zigzag varints.
+ * Used by the compact tuple wire format.
+ */
+public final class ZigZagLongSerializer extends TypeSerializerSingleton<Long> {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final ZigZagLongSerializer INSTANCE = new ZigZagLongSerializer();
+
+	private static final Long ZERO = 0L;
+
+	@Override
+	public boolean isImmutableType() {
+		return true;
+	}
+
+	@Override
+	public Long createInstance() {
+		return ZERO;
+	}
+
+	@Override
+	public Long copy(Long from) {
+		return from;
+	}
+
+	@Override
+	public Long copy(Long from, Long reuse) {
+		return from;
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public void serialize(Long record, DataOutputView target) throws IOException {
+		VarIntSerDeUtils.writeZigZagLong(record, target);
+	}
+
+	@Override
+	public Long deserialize(DataInputView source) throws IOException {
+		return VarIntSerDeUtils.readZigZagLong(source);
+	}
+
+	@Override
+	public Long deserialize(Long reuse, DataInputView source) throws IOException {
+		return deserialize(source);
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+		VarIntSerDeUtils.copyVarLong(source, target);
+	}
+
+	@Override
+	public boolean canEqual(Object obj) {
+		return obj instanceof ZigZagLongSerializer;
+	}
+}
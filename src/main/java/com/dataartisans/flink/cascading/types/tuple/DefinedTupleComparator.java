@@ -45,10 +45,17 @@ public class DefinedTupleComparator extends CompositeTypeComparator<Tuple> {
 	private final Object[] fields1;
 	private final Object[] fields2;
 
-	private final boolean[] nullFields1;
-	private final boolean[] nullFields2;
+	private final long[] nullFields1;
+	private final long[] nullFields2;
+
+	private final SerializedKeyComparison keyComparison;
+	private final boolean nullMask;
 
 	public DefinedTupleComparator(int[] keyPositions, TypeComparator<?>[] comparators, TypeSerializer<?>[] serializers, int tupleLength) {
+		this(keyPositions, comparators, serializers, tupleLength, true);
+	}
+
+	public DefinedTupleComparator(int[] keyPositions, TypeComparator<?>[] comparators, TypeSerializer<?>[] serializers, int tupleLength, boolean nullMask) {
 
 		this.keyPositions = keyPositions;
 		this.comparators = comparators;
@@ -57,8 +64,10 @@ public class DefinedTupleComparator extends CompositeTypeComparator<Tuple> {
 
 		this.fields1 = new Object[serializers.length];
 		this.fields2 = new Object[serializers.length];
-		this.nullFields1 = new boolean[this.tupleLength];
-		this.nullFields2 = new boolean[this.tupleLength];
+		this.nullFields1 = NullMaskSerDeUtils.newMask(this.tupleLength);
+		this.nullFields2 = NullMaskSerDeUtils.newMask(this.tupleLength);
+		this.keyComparison = SerializedKeyComparison.forKeys(keyPositions);
+		this.nullMask = nullMask;
 
 		// set up auxiliary fields for normalized key support
 		this.normalizedKeyLengths = new int[keyPositions.length];
@@ -103,7 +112,8 @@ public class DefinedTupleComparator extends CompositeTypeComparator<Tuple> {
 	}
 
 	private DefinedTupleComparator(DefinedTupleComparator toClone) {
-		this(toClone.keyPositions, cloneComparators(toClone.comparators), cloneSerializers(toClone.serializers), toClone.tupleLength);
+		this(toClone.keyPositions, cloneComparators(toClone.comparators), cloneSerializers(toClone.serializers), toClone.tupleLength,
+				toClone.nullMask);
 	}
 
 	// --------------------------------------------------------------------------------------------
@@ -157,17 +167,24 @@ public class DefinedTupleComparator extends CompositeTypeComparator<Tuple> {
 
 	public int compareSerialized(DataInputView firstSource, DataInputView secondSource) throws IOException {
 
-		NullMaskSerDeUtils.readNullMask(nullFields1, this.tupleLength, firstSource);
-		NullMaskSerDeUtils.readNullMask(nullFields2, this.tupleLength, secondSource);
+		if(this.nullMask) {
+			NullMaskSerDeUtils.readNullMask(nullFields1, this.tupleLength, firstSource);
+			NullMaskSerDeUtils.readNullMask(nullFields2, this.tupleLength, secondSource);
+		}
+
+		if(keyComparison != null) {
+			// compare keys without deserializing fields
+			return keyComparison.compare(firstSource, nullFields1, secondSource, nullFields2, comparators, serializers);
+		}
 
 		for (int i=0; i < serializers.length; i++) {
-			if(!nullFields1[i]) {
+			if(!NullMaskSerDeUtils.isNull(nullFields1, i)) {
 				fields1[i] = serializers[i].deserialize(fields1[i], firstSource);
 			}
 			else {
 				fields1[i] = null;
 			}
-			if(!nullFields2[i]) {
+			if(!NullMaskSerDeUtils.isNull(nullFields2, i)) {
 				fields2[i] = serializers[i].deserialize(fields2[i], secondSource);
 			}
 			else {
@@ -218,9 +235,18 @@ public class DefinedTupleComparator extends CompositeTypeComparator<Tuple> {
 
 	@Override
 	public boolean isNormalizedKeyPrefixOnly(int keyBytes) {
-		return this.numLeadingNormalizableKeys < this.keyPositions.length ||
+		if(this.numLeadingNormalizableKeys < this.keyPositions.length ||
 				this.normalizableKeyPrefixLen == Integer.MAX_VALUE ||
-				this.normalizableKeyPrefixLen > keyBytes;
+				this.normalizableKeyPrefixLen > keyBytes) {
+			return true;
+		}
+		// the keys are only decided by the normalized key if no key comparator writes a lossy prefix
+		for(int i = 0; i < this.numLeadingNormalizableKeys; i++) {
+			if(this.comparators[i].isNormalizedKeyPrefixOnly(this.normalizedKeyLengths[i])) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@SuppressWarnings("unchecked")
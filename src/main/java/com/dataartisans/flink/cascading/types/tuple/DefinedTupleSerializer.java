@@ -33,9 +33,21 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 	private final Fields fields;
 	private final TypeSerializer[] fieldSers;
 	private final int length;
-	private final boolean[] nullFields;
+	private final long[] nullFields;
+	private final boolean nullMask;
 
 	public DefinedTupleSerializer(Fields fields, TypeSerializer[] fieldSers) {
+		this(fields, fieldSers, true);
+	}
+
+	/**
+	 * Creates a serializer for tuples of the given schema.
+	 *
+	 * @param fields The schema of the tuples.
+	 * @param fieldSers One serializer for each field.
+	 * @param nullMask Whether a null mask is written. Tuples without null mask must not contain null fields.
+	 */
+	public DefinedTupleSerializer(Fields fields, TypeSerializer[] fieldSers, boolean nullMask) {
 		if(!fields.isDefined()) {
 			throw new RuntimeException("DefinedTupleSerializer requires defined Fields schema");
 		}
@@ -46,7 +58,8 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 		this.fields = fields;
 		this.fieldSers = fieldSers;
 		this.length = fields.size();
-		this.nullFields = new boolean[this.length];
+		this.nullFields = NullMaskSerDeUtils.newMask(this.length);
+		this.nullMask = nullMask;
 	}
 
 	@Override
@@ -60,7 +73,7 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 		for(int i=0; i<copies.length; i++) {
 			copies[i] = this.fieldSers[i].duplicate();
 		}
-		return new DefinedTupleSerializer(this.fields, copies);
+		return new DefinedTupleSerializer(this.fields, copies, this.nullMask);
 	}
 
 	@Override
@@ -132,11 +145,17 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 	@Override
 	public void serialize(Tuple value, DataOutputView target) throws IOException {
 
-		// write null mask
-		NullMaskSerDeUtils.writeNullMask(value, target);
+		if(this.nullMask) {
+			// write null mask
+			NullMaskSerDeUtils.writeNullMask(value, target);
+		}
 
 		for (int i = 0; i < value.size(); i++) {
 			Object o = value.getObject(i);
+			if(o == null && !this.nullMask) {
+				throw new FlowException("Field \""+fields.get(i)+"\" is declared with primitive type "+
+										fields.getType(i)+" but is null.");
+			}
 			if(o != null) {
 				try {
 					fieldSers[i].serialize(o, target);
@@ -152,14 +171,16 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 	@Override
 	public Tuple deserialize(DataInputView source) throws IOException {
 
-		// read null mask
-		NullMaskSerDeUtils.readNullMask(this.nullFields, this.length, source);
+		if(this.nullMask) {
+			// read null mask
+			NullMaskSerDeUtils.readNullMask(this.nullFields, this.length, source);
+		}
 
 		// read non-null fields
 		Tuple tuple = Tuple.size(this.length);
 		for (int i = 0; i < this.length; i++) {
 			Object field;
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				field = fieldSers[i].deserialize(source);
 			}
 			else {
@@ -176,12 +197,14 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 
 		Tuple tuple = getReuseOrNew(reuse);
 
-		// read null mask
-		NullMaskSerDeUtils.readNullMask(nullFields, this.length, source);
+		if(this.nullMask) {
+			// read null mask
+			NullMaskSerDeUtils.readNullMask(nullFields, this.length, source);
+		}
 
 		for (int i = 0; i < this.length; i++) {
 			Object field;
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				field = fieldSers[i].deserialize(source);
 			}
 			else {
@@ -196,12 +219,14 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 	@Override
 	public void copy(DataInputView source, DataOutputView target) throws IOException {
 
-		// read and copy null mask
-		NullMaskSerDeUtils.readAndCopyNullMask(nullFields, this.length, source, target);
+		if(this.nullMask) {
+			// read and copy null mask
+			NullMaskSerDeUtils.readAndCopyNullMask(nullFields, this.length, source, target);
+		}
 
 		// copy non-null fields
 		for (int i = 0; i < this.length; i++) {
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				fieldSers[i].copy(source, target);
 			}
 		}
@@ -214,6 +239,7 @@ public class DefinedTupleSerializer extends TypeSerializer<Tuple> {
 
 			return other.canEqual(this) &&
 					fields.equals(other.fields) &&
+					nullMask == other.nullMask &&
 					Arrays.equals(this.fieldSers, other.fieldSers);
 		}
 		else {
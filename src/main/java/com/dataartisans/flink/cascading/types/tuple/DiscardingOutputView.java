@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.tuple;
+
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+
+/**
+ * A DataOutputView which discards all data. Serializers copy into this view to skip serialized values
+ * without deserializing them.
+ */
+final class DiscardingOutputView implements DataOutputView {
+
+	static final DiscardingOutputView INSTANCE = new DiscardingOutputView();
+
+	private DiscardingOutputView() {}
+
+	@Override
+	public void skipBytesToWrite(int numBytes) {}
+
+	@Override
+	public void write(DataInputView source, int numBytes) throws IOException {
+		source.skipBytesToRead(numBytes);
+	}
+
+	@Override
+	public void write(int b) {}
+
+	@Override
+	public void write(byte[] b) {}
+
+	@Override
+	public void write(byte[] b, int off, int len) {}
+
+	@Override
+	public void writeBoolean(boolean v) {}
+
+	@Override
+	public void writeByte(int v) {}
+
+	@Override
+	public void writeShort(int v) {}
+
+	@Override
+	public void writeChar(int v) {}
+
+	@Override
+	public void writeInt(int v) {}
+
+	@Override
+	public void writeLong(long v) {}
+
+	@Override
+	public void writeFloat(float v) {}
+
+	@Override
+	public void writeDouble(double v) {}
+
+	@Override
+	public void writeBytes(String s) {}
+
+	@Override
+	public void writeChars(String s) {}
+
+	@Override
+	public void writeUTF(String s) {}
+}
@@ -22,84 +22,123 @@ import org.apache.flink.core.memory.DataOutputView;
 
 import java.io.IOException;
 
+/**
+ * Reads and writes the null mask of serialized tuples. The mask holds one bit per field, most significant
+ * bit first, and is padded to full bytes.
+ * Masks are handled as 64-bit words: null bits are shifted into a word which is written at once, and read
+ * masks are kept as words which are tested with {@link #isNull(long[], int)} instead of being expanded into
+ * one flag per field.
+ */
 public class NullMaskSerDeUtils {
 
+	private static final int WORD_BITS = 64;
+
+	/**
+	 * Returns a mask which can hold the null bits of the given number of fields.
+	 */
+	public static long[] newMask(int length) {
+		return new long[(length + WORD_BITS - 1) / WORD_BITS];
+	}
+
+	/**
+	 * Returns the given mask if it can hold the null bits of the given number of fields or a new mask otherwise.
+	 */
+	public static long[] ensureCapacity(long[] mask, int length) {
+		if(mask == null || mask.length * WORD_BITS < length) {
+			return newMask(length);
+		}
+		else {
+			return mask;
+		}
+	}
+
+	/**
+	 * Checks whether the field at the given position is null.
+	 */
+	public static boolean isNull(long[] mask, int fieldPos) {
+		// shift distances of longs are taken modulo 64
+		return (mask[fieldPos / WORD_BITS] << fieldPos) < 0;
+	}
+
 	public static void writeNullMask(
 			Tuple t, DataOutputView target) throws IOException {
 
 		final int length = t.size();
-		int b;
-		int bytePos;
-
-		for(int fieldPos = 0; fieldPos < length; ) {
-			b = 0x00;
-			// set bits in byte
-			for(bytePos = 0; bytePos < 8 && fieldPos < length; bytePos++, fieldPos++) {
-				b = b << 1;
-				// set bit if field is null
-				if(t.getObject(fieldPos) == null) {
-					b |= 0x01;
-				}
-			}
-			// shift bits if last byte is not completely filled
-			for(; bytePos < 8; bytePos++) {
-				b = b << 1;
+
+		for(int fieldPos = 0; fieldPos < length; fieldPos += WORD_BITS) {
+			int wordLength = Math.min(WORD_BITS, length - fieldPos);
+			long word = 0L;
+			// shift null bits into word
+			for(int i = fieldPos; i < fieldPos + wordLength; i++) {
+				word = (word << 1) | (t.getObject(i) == null ? 1L : 0L);
 			}
-			// write byte
-			target.writeByte(b);
+			writeWord(word << (WORD_BITS - wordLength), wordLength, target);
 		}
 	}
 
 	public static void writeNullMask(
 			Object[] array, int length, DataOutputView target) throws IOException {
 
-		int b;
-		int bytePos;
-
-		for(int fieldPos = 0; fieldPos < length; ) {
-			b = 0x00;
-			// set bits in byte
-			for(bytePos = 0; bytePos < 8 && fieldPos < length; bytePos++, fieldPos++) {
-				b = b << 1;
-				// set bit if field is null
-				if(array[fieldPos] == null) {
-					b |= 0x01;
-				}
-			}
-			// shift bits if last byte is not completely filled
-			for(; bytePos < 8; bytePos++) {
-				b = b << 1;
+		for(int fieldPos = 0; fieldPos < length; fieldPos += WORD_BITS) {
+			int wordLength = Math.min(WORD_BITS, length - fieldPos);
+			long word = 0L;
+			// shift null bits into word
+			for(int i = fieldPos; i < fieldPos + wordLength; i++) {
+				word = (word << 1) | (array[i] == null ? 1L : 0L);
 			}
-			// write byte
-			target.writeByte(b);
+			writeWord(word << (WORD_BITS - wordLength), wordLength, target);
 		}
 	}
 
 	public static void readNullMask(
-			boolean[] mask, int length, DataInputView source) throws IOException {
-
-		for(int fieldPos = 0; fieldPos < length; ) {
-			// read byte
-			int b = source.readUnsignedByte();
-			for(int bytePos = 0; bytePos < 8 && fieldPos < length; bytePos++, fieldPos++) {
-				mask[fieldPos] = (b & 0x80) > 0;
-				b = b << 1;
-			}
+			long[] mask, int length, DataInputView source) throws IOException {
+
+		for(int fieldPos = 0, wordPos = 0; fieldPos < length; fieldPos += WORD_BITS, wordPos++) {
+			mask[wordPos] = readWord(Math.min(WORD_BITS, length - fieldPos), source);
 		}
 	}
 
 	public static void readAndCopyNullMask(
-			boolean[] mask, int length, DataInputView source, DataOutputView target) throws IOException {
-
-		for(int fieldPos = 0; fieldPos < length; ) {
-			// read byte
-			int b = source.readUnsignedByte();
-			// copy byte
-			target.writeByte(b);
-			for(int bytePos = 0; bytePos < 8 && fieldPos < length; bytePos++, fieldPos++) {
-				mask[fieldPos] = (b & 0x80) > 0;
-				b = b << 1;
+			long[] mask, int length, DataInputView source, DataOutputView target) throws IOException {
+
+		for(int fieldPos = 0, wordPos = 0; fieldPos < length; fieldPos += WORD_BITS, wordPos++) {
+			int wordLength = Math.min(WORD_BITS, length - fieldPos);
+			mask[wordPos] = readWord(wordLength, source);
+			writeWord(mask[wordPos], wordLength, target);
+		}
+	}
+
+	/**
+	 * Writes the bytes of a mask word which hold bits of the next wordLength fields.
+	 */
+	private static void writeWord(long word, int wordLength, DataOutputView target) throws IOException {
+
+		if(wordLength == WORD_BITS) {
+			target.writeLong(word);
+		}
+		else {
+			int numBytes = (wordLength + 7) >>> 3;
+			for(int i = 0; i < numBytes; i++) {
+				target.writeByte((int) (word >>> (56 - (i << 3))));
+			}
+		}
+	}
+
+	/**
+	 * Reads the bytes of a mask word which hold bits of the next wordLength fields.
+	 */
+	private static long readWord(int wordLength, DataInputView source) throws IOException {
+
+		if(wordLength == WORD_BITS) {
+			return source.readLong();
+		}
+		else {
+			long word = 0L;
+			int numBytes = (wordLength + 7) >>> 3;
+			for(int i = 0; i < numBytes; i++) {
+				word |= ((long) source.readUnsignedByte()) << (56 - (i << 3));
 			}
+			return word;
 		}
 	}
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.tuple;
+
+import org.apache.flink.api.common.typeutils.TypeComparator;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.DataInputView;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Compares the keys of two serialized tuples without materializing their fields.
+ * The fields of both tuples are read in the order of their positions up to the last key position.
+ * Key fields are compared by their comparators in serialized form and all other fields are skipped.
+ * Only a key which is null in exactly one tuple is deserialized to compare it with null.
+ */
+final class SerializedKeyComparison implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int[] keyIndexes;
+	private final int[] keyResults;
+
+	/**
+	 * @param keyPositions The non-negative positions of the keys.
+	 * @return The comparison or null if a position is used by more than one key.
+	 */
+	static SerializedKeyComparison forKeys(int[] keyPositions) {
+
+		int maxKey = 0;
+		for(int keyPos : keyPositions) {
+			maxKey = Math.max(maxKey, keyPos);
+		}
+
+		int[] keyIndexes = new int[maxKey + 1];
+		for(int i = 0; i < keyIndexes.length; i++) {
+			keyIndexes[i] = -1;
+		}
+		for(int i = 0; i < keyPositions.length; i++) {
+			if(keyPositions[i] < 0 || keyIndexes[keyPositions[i]] >= 0) {
+				return null;
+			}
+			keyIndexes[keyPositions[i]] = i;
+		}
+		return new SerializedKeyComparison(keyIndexes, keyPositions.length);
+	}
+
+	private SerializedKeyComparison(int[] keyIndexes, int numKeys) {
+		this.keyIndexes = keyIndexes;
+		this.keyResults = new int[numKeys];
+	}
+
+	int getMaxKey() {
+		return keyIndexes.length - 1;
+	}
+
+	/**
+	 * Compares the keys of two serialized tuples whose null masks were already read.
+	 *
+	 * @param serializers The serializer of each field up to the last key position.
+	 */
+	int compare(DataInputView first, long[] nullFields1, DataInputView second, long[] nullFields2,
+				TypeComparator[] comparators, TypeSerializer[] serializers) throws IOException {
+
+		for(int pos = 0; pos < keyIndexes.length; pos++) {
+
+			int keyIdx = keyIndexes[pos];
+			TypeSerializer serializer = serializers[pos];
+
+			if(keyIdx < 0) {
+				if(!NullMaskSerDeUtils.isNull(nullFields1, pos)) {
+					skip(serializer, first);
+				}
+				if(!NullMaskSerDeUtils.isNull(nullFields2, pos)) {
+					skip(serializer, second);
+				}
+			}
+			else if(!NullMaskSerDeUtils.isNull(nullFields1, pos) && !NullMaskSerDeUtils.isNull(nullFields2, pos)) {
+				keyResults[keyIdx] = comparators[keyIdx].compareSerialized(first, second);
+			}
+			else if(NullMaskSerDeUtils.isNull(nullFields1, pos) && NullMaskSerDeUtils.isNull(nullFields2, pos)) {
+				keyResults[keyIdx] = 0;
+			}
+			else if(NullMaskSerDeUtils.isNull(nullFields1, pos)) {
+				keyResults[keyIdx] = comparators[keyIdx].compare(null, serializer.deserialize(second));
+			}
+			else {
+				keyResults[keyIdx] = comparators[keyIdx].compare(serializer.deserialize(first), null);
+			}
+		}
+
+		for(int keyResult : keyResults) {
+			if(keyResult != 0) {
+				return keyResult;
+			}
+		}
+		return 0;
+	}
+
+	private static void skip(TypeSerializer serializer, DataInputView source) throws IOException {
+
+		int length = serializer.getLength();
+		if(length > 0) {
+			source.skipBytesToRead(length);
+		}
+		else {
+			serializer.copy(source, DiscardingOutputView.INSTANCE);
+		}
+	}
+}
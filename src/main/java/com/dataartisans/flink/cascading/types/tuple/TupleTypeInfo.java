@@ -20,6 +20,7 @@ import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import com.dataartisans.flink.cascading.types.field.FieldTypeInfo;
 import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.operators.Order;
 import org.apache.flink.api.common.typeinfo.AtomicType;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.common.typeutils.CompositeType;
@@ -28,8 +29,10 @@ import org.apache.flink.api.common.typeutils.TypeSerializer;
 
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TupleTypeInfo extends CompositeType<Tuple> {
 
@@ -40,12 +43,14 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 	private final int length;
 	private LinkedHashMap<String, FieldTypeInfo> fieldTypes;
 	private HashMap<String, Integer> fieldIndexes;
+	private HashSet<String> descendingKeyFields;
 
 	public TupleTypeInfo(Fields schema) {
 		super(Tuple.class);
 
 		this.schema = schema;
 		this.fieldIndexes = new HashMap<String, Integer>();
+		this.descendingKeyFields = new HashSet<String>();
 
 		if(schema.isDefined()) {
 			this.length = schema.size();
@@ -77,6 +82,20 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 	}
 
 	public String[] registerKeyFields(Fields keyFields) {
+		return registerKeyFields(keyFields, Order.ASCENDING);
+	}
+
+	/**
+	 * Registers key fields and returns their Flink key expressions.
+	 * Comparators for key fields registered in descending order sort in descending order,
+	 * independent of the order requested by Flink. Since the order is a property of the type,
+	 * a type with descending keys must not be shared with operators that expect ascending keys.
+	 *
+	 * @param keyFields The key fields to register.
+	 * @param keyOrder The order of the key fields.
+	 * @return The Flink key expressions of the key fields.
+	 */
+	public String[] registerKeyFields(Fields keyFields, Order keyOrder) {
 
 		int[] keyPos;
 		if(keyFields.isAll()) {
@@ -111,6 +130,10 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 			// set serde position
 			serdePos[j] = fieldName;
 
+			if(keyOrder == Order.DESCENDING) {
+				this.descendingKeyFields.add(fieldName);
+			}
+
 			if(keyTypes != null && keyTypes.length > j && keyTypes[j] != null) {
 				// set key type
 				fieldType.setFieldType(keyTypes[j]);
@@ -125,6 +148,26 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 		return serdePos;
 	}
 
+	/**
+	 * Sets dictionaries of frequent values on String fields of the schema.
+	 *
+	 * @param dictionaries The dictionaries by field name.
+	 * @return True if a dictionary was set on at least one field.
+	 */
+	public boolean setStringDictionaries(Map<Comparable, String[]> dictionaries) {
+
+		boolean set = false;
+		for(int i=0; i<this.length; i++) {
+			String[] dictionary = dictionaries.get(this.schema.get(i));
+			FieldTypeInfo fieldType = this.fieldTypes.get(getFieldName(i));
+			if(dictionary != null && fieldType.getTypeClass() == String.class) {
+				fieldType.setStringDictionary(dictionary);
+				set = true;
+			}
+		}
+		return set;
+	}
+
 	public Fields getSchema() {
 		return this.schema;
 	}
@@ -233,13 +276,13 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 				Integer fieldIdx = Integer.parseInt(field);
 				fieldSers[fieldIdx] = this.fieldTypes.get(field).createSerializer(config);
 			}
-			return new DefinedTupleSerializer(this.schema, fieldSers);
+			return new DefinedTupleSerializer(this.schema, fieldSers, TupleWireFormat.hasNullMask(this.schema, config));
 		}
 		else {
 			// create serializer for tuple without schema
 
 			TypeSerializer defaultFieldSer = new FieldTypeInfo().createSerializer(config);
-			return new UnknownTupleSerializer(defaultFieldSer);
+			return new UnknownTupleSerializer(defaultFieldSer, TupleWireFormat.isCompact(config));
 		}
 	}
 
@@ -253,10 +296,11 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 			throw new RuntimeException("Only 0 offset supported.");
 		}
 
-		// get key comparators
+		// get key comparators, keys registered in descending order are always sorted in descending order
 		TypeComparator<?>[] keyComps = new TypeComparator[keyIdxs.length];
 		for(int i = 0; i < keyIdxs.length; i++) {
-			keyComps[i] = ((AtomicType)this.getTypeAt(keyIdxs[i])).createComparator(orders[i], config);
+			boolean descending = this.descendingKeyFields.contains(getFieldName(getCascadingPos(keyIdxs[i])));
+			keyComps[i] = ((AtomicType)this.getTypeAt(keyIdxs[i])).createComparator(orders[i] && !descending, config);
 		}
 
 		if(length > 0) {
@@ -273,7 +317,8 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 				serializers[i] = this.fieldTypes.get(Integer.toString(i)).createSerializer(config);
 			}
 
-			return new DefinedTupleComparator(keyIdxs, keyComps, serializers, this.length);
+			return new DefinedTupleComparator(keyIdxs, keyComps, serializers, this.length,
+					TupleWireFormat.hasNullMask(this.schema, config));
 		}
 		else {
 			// comparator for unknown tuples
@@ -282,7 +327,8 @@ public class TupleTypeInfo extends CompositeType<Tuple> {
 				cascadingKeyIdx[i] = getCascadingPos(keyIdxs[i]);
 			}
 
-			return new UnknownTupleComparator(cascadingKeyIdx, keyComps, new FieldTypeInfo().createSerializer(config));
+			return new UnknownTupleComparator(cascadingKeyIdx, keyComps, new FieldTypeInfo().createSerializer(config),
+					TupleWireFormat.isCompact(config));
 		}
 
 	}
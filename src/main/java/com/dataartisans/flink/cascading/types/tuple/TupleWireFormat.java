@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.tuple;
+
+import cascading.tuple.Fields;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.configuration.Configuration;
+
+import java.util.Map;
+
+/**
+ * Versions of the binary format of serialized Cascading tuples.
+ *
+ * Version 1 is the default format. Version 2 is a compact format which is enabled by setting
+ * {@link FlinkConfigConstants#TUPLE_WIRE_FORMAT} to 2. It writes the arity of tuples without schema as
+ * varint, omits the null mask of tuples whose fields are all declared with primitive types, and writes
+ * int and long fields as zigzag varints.
+ *
+ * The version is passed to the serializers via the global job parameters of the ExecutionConfig.
+ * A flow fails if the version cannot be set because the job parameters are user-defined.
+ */
+public class TupleWireFormat {
+
+	public static final int VERSION_1 = 1;
+	public static final int VERSION_2 = 2;
+
+	/**
+	 * Returns the tuple wire format version configured in the global job parameters.
+	 */
+	public static int getVersion(ExecutionConfig config) {
+
+		ExecutionConfig.GlobalJobParameters params = config != null ? config.getGlobalJobParameters() : null;
+		Map<String, String> paramMap = params != null ? params.toMap() : null;
+		String version = paramMap != null ? paramMap.get(FlinkConfigConstants.TUPLE_WIRE_FORMAT) : null;
+
+		if(version == null) {
+			return VERSION_1;
+		}
+		else {
+			return parseVersion(version);
+		}
+	}
+
+	public static boolean isCompact(ExecutionConfig config) {
+		return getVersion(config) == VERSION_2;
+	}
+
+	/**
+	 * Sets the tuple wire format version in the global job parameters.
+	 * Returns false if the job parameters are user-defined and cannot hold the version.
+	 */
+	public static boolean setVersion(ExecutionConfig config, int version) {
+
+		parseVersion(Integer.toString(version));
+
+		ExecutionConfig.GlobalJobParameters params = config.getGlobalJobParameters();
+		if(params == null) {
+			Configuration paramConfig = new Configuration();
+			paramConfig.setInteger(FlinkConfigConstants.TUPLE_WIRE_FORMAT, version);
+			config.setGlobalJobParameters(paramConfig);
+			return true;
+		}
+		else if(params instanceof Configuration) {
+			((Configuration) params).setInteger(FlinkConfigConstants.TUPLE_WIRE_FORMAT, version);
+			return true;
+		}
+		else {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks whether serialized tuples of a schema carry a null mask.
+	 * In the compact format, the mask is omitted if all fields are declared with primitive types.
+	 */
+	public static boolean hasNullMask(Fields schema, ExecutionConfig config) {
+
+		if(!isCompact(config)) {
+			return true;
+		}
+
+		Class[] typeClasses = schema.getTypesClasses();
+		if(typeClasses == null || typeClasses.length == 0) {
+			return true;
+		}
+		for(Class typeClass : typeClasses) {
+			if(typeClass == null || !typeClass.isPrimitive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int parseVersion(String version) {
+
+		int v;
+		try {
+			v = Integer.parseInt(version.trim());
+		}
+		catch(NumberFormatException nfe) {
+			throw new IllegalArgumentException("Invalid tuple wire format version: " + version, nfe);
+		}
+		if(v != VERSION_1 && v != VERSION_2) {
+			throw new IllegalArgumentException("Unsupported tuple wire format version: " + version);
+		}
+		return v;
+	}
+
+}
@@ -25,6 +25,7 @@ import org.apache.flink.core.memory.DataOutputView;
 import org.apache.flink.core.memory.MemorySegment;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 public class UnknownTupleComparator extends CompositeTypeComparator<Tuple> {
@@ -44,15 +45,24 @@ public class UnknownTupleComparator extends CompositeTypeComparator<Tuple> {
 
 	private Object[] fields1;
 	private Object[] fields2;
-	private boolean[] nullFields1;
-	private boolean[] nullFields2;
+	private long[] nullFields1;
+	private long[] nullFields2;
 	private int maxKey;
 
+	private SerializedKeyComparison keyComparison;
+	private TypeSerializer[] keySerializers;
+	private final boolean varIntArity;
+
 	public UnknownTupleComparator(int[] keyPositions, TypeComparator<?>[] comparators, TypeSerializer<?> serializer) {
+		this(keyPositions, comparators, serializer, false);
+	}
+
+	public UnknownTupleComparator(int[] keyPositions, TypeComparator<?>[] comparators, TypeSerializer<?> serializer, boolean varIntArity) {
 
 		this.keyPositions = keyPositions;
 		this.comparators = comparators;
 		this.serializer = serializer;
+		this.varIntArity = varIntArity;
 
 		// set up auxiliary fields for normalized key support
 		this.normalizedKeyLengths = new int[keyPositions.length];
@@ -97,7 +107,8 @@ public class UnknownTupleComparator extends CompositeTypeComparator<Tuple> {
 	}
 
 	private UnknownTupleComparator(UnknownTupleComparator toClone) {
-		this(toClone.keyPositions, cloneComparators(toClone.comparators), toClone.serializer.duplicate());
+		this(toClone.keyPositions, cloneComparators(toClone.comparators), toClone.serializer.duplicate(),
+				toClone.varIntArity);
 	}
 
 	// --------------------------------------------------------------------------------------------
@@ -169,37 +180,48 @@ public class UnknownTupleComparator extends CompositeTypeComparator<Tuple> {
 
 	public int compareSerialized(DataInputView firstSource, DataInputView secondSource) throws IOException {
 
-		int arity1 = firstSource.readInt();
-		int arity2 = secondSource.readInt();
+		int arity1 = this.varIntArity ? VarIntSerDeUtils.readVarInt(firstSource) : firstSource.readInt();
+		int arity2 = this.varIntArity ? VarIntSerDeUtils.readVarInt(secondSource) : secondSource.readInt();
 
 		if(this.fields1 == null) {
 			// first time.
 			this.fields1 = new Object[arity1];
 			this.fields2 = new Object[arity2];
-			this.nullFields1 = new boolean[arity1];
-			this.nullFields2 = new boolean[arity2];
+			this.nullFields1 = NullMaskSerDeUtils.newMask(arity1);
+			this.nullFields2 = NullMaskSerDeUtils.newMask(arity2);
 		}
 
 		if(!areKeysAbs) {
 			makeKeysAbs(keyPositions, arity1);
 			areKeysAbs = true;
+		}
+		if(keySerializers == null) {
+			// keys might have been made absolute by another method
 			maxKey = 0;
 			for(int i=0; i<keyPositions.length; i++) {
 				maxKey = maxKey > keyPositions[i] ? maxKey : keyPositions[i];
 			}
+			keyComparison = SerializedKeyComparison.forKeys(keyPositions);
+			keySerializers = new TypeSerializer[maxKey + 1];
+			Arrays.fill(keySerializers, serializer);
 		}
 
 		NullMaskSerDeUtils.readNullMask(nullFields1, arity1, firstSource);
 		NullMaskSerDeUtils.readNullMask(nullFields2, arity2, secondSource);
 
+		if(keyComparison != null) {
+			// compare keys without deserializing fields
+			return keyComparison.compare(firstSource, nullFields1, secondSource, nullFields2, comparators, keySerializers);
+		}
+
 		for (int i=0; i <= maxKey; i++) {
-			if(!nullFields1[i]) {
+			if(!NullMaskSerDeUtils.isNull(nullFields1, i)) {
 				fields1[i] = serializer.deserialize(fields1[i], firstSource);
 			}
 			else {
 				fields1[i] = null;
 			}
-			if(!nullFields2[i]) {
+			if(!NullMaskSerDeUtils.isNull(nullFields2, i)) {
 				fields2[i] = serializer.deserialize(fields2[i], secondSource);
 			}
 			else {
@@ -254,9 +276,18 @@ public class UnknownTupleComparator extends CompositeTypeComparator<Tuple> {
 
 	@Override
 	public boolean isNormalizedKeyPrefixOnly(int keyBytes) {
-		return this.numLeadingNormalizableKeys < this.keyPositions.length ||
+		if(this.numLeadingNormalizableKeys < this.keyPositions.length ||
 				this.normalizableKeyPrefixLen == Integer.MAX_VALUE ||
-				this.normalizableKeyPrefixLen > keyBytes;
+				this.normalizableKeyPrefixLen > keyBytes) {
+			return true;
+		}
+		// the keys are only decided by the normalized key if no key comparator writes a lossy prefix
+		for(int i = 0; i < this.numLeadingNormalizableKeys; i++) {
+			if(this.comparators[i].isNormalizedKeyPrefixOnly(this.normalizedKeyLengths[i])) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -27,11 +27,23 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 
 	private static final long serialVersionUID = 1L;
 
-	private boolean[] nullFields;
+	private long[] nullFields;
 	private final TypeSerializer fieldSer;
+	private final boolean varIntArity;
 
 	public UnknownTupleSerializer(TypeSerializer fieldSer) {
+		this(fieldSer, false);
+	}
+
+	/**
+	 * Creates a serializer for tuples without schema.
+	 *
+	 * @param fieldSer The serializer for all fields.
+	 * @param varIntArity Whether the arity is written as varint instead of a four-byte int.
+	 */
+	public UnknownTupleSerializer(TypeSerializer fieldSer, boolean varIntArity) {
 		this.fieldSer = fieldSer;
+		this.varIntArity = varIntArity;
 	}
 
 	@Override
@@ -41,7 +53,7 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 
 	@Override
 	public UnknownTupleSerializer duplicate() {
-		return new UnknownTupleSerializer(this.fieldSer.duplicate());
+		return new UnknownTupleSerializer(this.fieldSer.duplicate(), this.varIntArity);
 	}
 
 	@Override
@@ -85,7 +97,7 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 	public void serialize(Tuple value, DataOutputView target) throws IOException {
 
 		// write length
-		target.writeInt(value.size());
+		writeArity(value.size(), target);
 
 		// write null mask
 		NullMaskSerDeUtils.writeNullMask(value, target);
@@ -102,12 +114,10 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 	public Tuple deserialize(DataInputView source) throws IOException {
 
 		// read length
-		int arity = source.readInt();
+		int arity = readArity(source);
 
 		// initialize or resize null fields if necessary
-		if(this.nullFields == null || this.nullFields.length < arity) {
-			this.nullFields = new boolean[arity];
-		}
+		this.nullFields = NullMaskSerDeUtils.ensureCapacity(this.nullFields, arity);
 
 		// read null mask
 		NullMaskSerDeUtils.readNullMask(this.nullFields, arity, source);
@@ -116,7 +126,7 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 		Tuple tuple = Tuple.size(arity);
 		for (int i = 0; i < arity; i++) {
 			Object field;
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				field = fieldSer.deserialize(source);
 			}
 			else {
@@ -132,12 +142,10 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 	public Tuple deserialize(Tuple reuse, DataInputView source) throws IOException {
 
 		// read length
-		int arity = source.readInt();
+		int arity = readArity(source);
 
 		// initialize or resize null fields if necessary
-		if(this.nullFields == null || this.nullFields.length < arity) {
-			this.nullFields = new boolean[arity];
-		}
+		this.nullFields = NullMaskSerDeUtils.ensureCapacity(this.nullFields, arity);
 
 		Tuple tuple = getReuseOrNew(reuse, arity);
 
@@ -146,7 +154,7 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 
 		for (int i = 0; i < arity; i++) {
 			Object field;
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				field = fieldSer.deserialize(source);
 			}
 			else {
@@ -162,22 +170,20 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 	public void copy(DataInputView source, DataOutputView target) throws IOException {
 
 		// read length
-		int arity = source.readInt();
+		int arity = readArity(source);
 
 		// write length if necessary
-		target.writeInt(arity);
+		writeArity(arity, target);
 
 		// initialize or resize nullFields if necessary
-		if(this.nullFields == null || this.nullFields.length < arity) {
-			this.nullFields = new boolean[arity];
-		}
+		this.nullFields = NullMaskSerDeUtils.ensureCapacity(this.nullFields, arity);
 
 		// read and copy null mask
 		NullMaskSerDeUtils.readAndCopyNullMask(nullFields, arity, source, target);
 
 		// copy non-null fields
 		for (int i = 0; i < arity; i++) {
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				fieldSer.copy(source, target);
 			}
 		}
@@ -189,7 +195,8 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 			UnknownTupleSerializer other = (UnknownTupleSerializer) obj;
 
 			return other.canEqual(this) &&
-					fieldSer == other.fieldSer;
+					fieldSer == other.fieldSer &&
+					varIntArity == other.varIntArity;
 		}
 		else {
 			return false;
@@ -206,6 +213,24 @@ public class UnknownTupleSerializer extends TypeSerializer<Tuple> {
 		return obj instanceof UnknownTupleSerializer;
 	}
 
+	private void writeArity(int arity, DataOutputView target) throws IOException {
+		if(this.varIntArity) {
+			VarIntSerDeUtils.writeVarInt(arity, target);
+		}
+		else {
+			target.writeInt(arity);
+		}
+	}
+
+	private int readArity(DataInputView source) throws IOException {
+		if(this.varIntArity) {
+			return VarIntSerDeUtils.readVarInt(source);
+		}
+		else {
+			return source.readInt();
+		}
+	}
+
 	private Tuple getReuseOrNew(Tuple reuse, int arity) {
 
 		if(reuse.isUnmodifiable() || reuse.size() != arity) {
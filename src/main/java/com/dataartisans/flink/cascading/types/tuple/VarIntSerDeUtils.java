@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.tuple;
+
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes variable-length integers with seven bits per byte, least significant group first.
+ * Signed values are zigzag encoded such that values of small magnitude result in short encodings.
+ */
+public class VarIntSerDeUtils {
+
+	public static void writeVarInt(int value, DataOutputView target) throws IOException {
+		while((value & ~0x7F) != 0) {
+			target.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		target.writeByte(value);
+	}
+
+	public static int readVarInt(DataInputView source) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			if(shift > 28) {
+				throw new IOException("Malformed variable-length int.");
+			}
+			b = source.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+		return value;
+	}
+
+	public static void writeVarLong(long value, DataOutputView target) throws IOException {
+		while((value & ~0x7FL) != 0L) {
+			target.writeByte(((int) value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		target.writeByte((int) value);
+	}
+
+	public static long readVarLong(DataInputView source) throws IOException {
+		long value = 0L;
+		int shift = 0;
+		int b;
+		do {
+			if(shift > 63) {
+				throw new IOException("Malformed variable-length long.");
+			}
+			b = source.readUnsignedByte();
+			value |= ((long) (b & 0x7F)) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Copies a variable-length int or long without decoding it.
+	 */
+	public static void copyVarLong(DataInputView source, DataOutputView target) throws IOException {
+		int b;
+		do {
+			b = source.readUnsignedByte();
+			target.writeByte(b);
+		} while((b & 0x80) != 0);
+	}
+
+	public static void writeZigZagInt(int value, DataOutputView target) throws IOException {
+		writeVarInt((value << 1) ^ (value >> 31), target);
+	}
+
+	public static int readZigZagInt(DataInputView source) throws IOException {
+		int value = readVarInt(source);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public static void writeZigZagLong(long value, DataOutputView target) throws IOException {
+		writeVarLong((value << 1) ^ (value >> 63), target);
+	}
+
+	public static long readZigZagLong(DataInputView source) throws IOException {
+		long value = readVarLong(source);
+		return (value >>> 1) ^ -(value & 1L);
+	}
+
+}
@@ -31,14 +31,14 @@ public class TupleArraySerializer extends TypeSerializer<Tuple[]> {
 	private final int fillLength;
 	private final TypeSerializer<Tuple>[] tupleSerializers;
 
-	private final boolean[] nullFields;
+	private final long[] nullFields;
 
 	public TupleArraySerializer(int length, TypeSerializer<Tuple>[] tupleSerializers) {
 
 		this.length = length;
 		this.fillLength = tupleSerializers.length;
 		this.tupleSerializers = tupleSerializers;
-		this.nullFields = new boolean[this.fillLength];
+		this.nullFields = NullMaskSerDeUtils.newMask(this.fillLength);
 	}
 
 	@Override
@@ -117,7 +117,7 @@ public class TupleArraySerializer extends TypeSerializer<Tuple[]> {
 		Tuple[] tuples = new Tuple[this.length];
 		for (int i = 0; i < this.fillLength; i++) {
 
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				tuples[i] = tupleSerializers[i].deserialize(source);
 			}
 		}
@@ -133,7 +133,7 @@ public class TupleArraySerializer extends TypeSerializer<Tuple[]> {
 		// read non-null fields
 		for (int i = 0; i < this.fillLength; i++) {
 
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				reuse[i] = tupleSerializers[i].deserialize(source);
 			}
 			else {
@@ -151,7 +151,7 @@ public class TupleArraySerializer extends TypeSerializer<Tuple[]> {
 
 		// copy non-null fields
 		for (int i = 0; i < this.fillLength; i++) {
-			if(!this.nullFields[i]) {
+			if(!NullMaskSerDeUtils.isNull(this.nullFields, i)) {
 				tupleSerializers[i].copy(source, target);
 			}
 		}
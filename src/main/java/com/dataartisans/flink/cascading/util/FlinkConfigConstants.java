@@ -22,4 +22,48 @@ public class FlinkConfigConstants {
 	public static final String EXECUTION_MODE_BATCH = "BATCH";
 	public static final String EXECUTION_MODE_PIPELINED = "PIPELINED";
 
+	public static final String MAX_CONCURRENT_JOBS = "flink.maxConcurrentJobs";
+
+	public static final String CASCADE_WRITE_INTERMEDIATES = "flink.cascade.writeIntermediates";
+
+	public static final String COMBINE_AGGREGATORS = "flink.combineAggregators";
+
+	public static final String HASHJOIN_STRATEGY = "flink.hashJoin.strategy";
+	public static final String HASHJOIN_BROADCAST_THRESHOLD = "flink.hashJoin.broadcastThreshold";
+
+	public static final String PARALLEL_GLOBAL_SORT = "flink.parallelGlobalSort";
+
+	public static final String ADAPTIVE_PARALLELISM = "flink.adaptiveParallelism";
+	public static final String ADAPTIVE_PARALLELISM_BYTES_PER_TASK = "flink.adaptiveParallelism.bytesPerTask";
+	public static final String ADAPTIVE_PARALLELISM_MIN = "flink.adaptiveParallelism.min";
+	public static final String ADAPTIVE_PARALLELISM_MAX = "flink.adaptiveParallelism.max";
+	public static final String SELECTIVITY = "flink.selectivity";
+
+	public static final String SKEW_MITIGATION = "flink.skewMitigation";
+	public static final String SKEW_MITIGATION_SAMPLE_SIZE = "flink.skewMitigation.sampleSize";
+	public static final String SKEW_MITIGATION_HEAVY_KEY_FRACTION = "flink.skewMitigation.heavyKeyFraction";
+	public static final String SKEW_MITIGATION_MAX_REPLICATED_RECORDS = "flink.skewMitigation.maxReplicatedRecords";
+
+	public static final String BLOOM_FILTER_JOIN = "flink.bloomFilterJoin";
+	public static final String BLOOM_FILTER_FALSE_POSITIVE_RATE = "flink.bloomFilterJoin.falsePositiveRate";
+	public static final String BLOOM_FILTER_MAX_BYTES = "flink.bloomFilterJoin.maxBytes";
+
+	public static final String PROJECTION_PUSHDOWN = "flink.projectionPushdown";
+	public static final String SOURCE_PROJECTED_FIELDS = "flink.source.projectedFields";
+
+	public static final String PARTITIONING_REUSE = "flink.partitioningReuse";
+
+	public static final String FIELD_TYPE_INFERENCE = "flink.fieldTypeInference";
+
+	public static final String PLAN_CACHE_DIR = "flink.planCache.dir";
+
+	public static final String RESULT_CACHE = "flink.resultCache";
+	public static final String RESULT_CACHE_DIR = "flink.resultCache.dir";
+
+	public static final String TUPLE_WIRE_FORMAT = "flink.tupleWireFormat";
+
+	public static final String STRING_DICTIONARY = "flink.stringDictionary";
+	public static final String STRING_DICTIONARY_SAMPLE_SIZE = "flink.stringDictionary.sampleSize";
+	public static final String STRING_DICTIONARY_MAX_SIZE = "flink.stringDictionary.maxSize";
+
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.PlatformTestCase;
+import cascading.flow.Flow;
+import cascading.flow.FlowDef;
+import cascading.operation.aggregator.Count;
+import cascading.operation.aggregator.Sum;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntryIterator;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FieldTypeInferencePlatformTest extends PlatformTestCase {
+
+	private static final String INPUT = "1\t10\n2\t20\n1\t30\n3\t5\n";
+
+	@Test
+	public void testSumWithResultTypeIsShuffled() throws Exception {
+
+		Tap source = getPlatform().getDelimitedFile(new Fields("a", "n"), false, "\t", null, null,
+				writeInput("sum", INPUT), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("a", "s"), false, "\t", null, null,
+				getOutputPath("inference/sum/out"), SinkMode.REPLACE);
+
+		// the Sum emits Longs, its result field is declared without type
+		Pipe pipe = new Pipe("inference");
+		pipe = new GroupBy(pipe, new Fields("a"));
+		pipe = new Every(pipe, new Fields("n"), new Sum(new Fields("s"), Long.class), Fields.ALL);
+		pipe = new GroupBy(pipe, new Fields("s"));
+
+		Flow flow = getPlatform().getFlowConnector(getInferenceProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink));
+		flow.complete();
+
+		assertEquals(Arrays.asList("3\t5", "2\t20", "1\t40"), readLines(sink));
+	}
+
+	@Test
+	public void testCountIsShuffled() throws Exception {
+
+		Tap source = getPlatform().getDelimitedFile(new Fields("a", "n"), false, "\t", null, null,
+				writeInput("count", INPUT), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("a", "c"), false, "\t", null, null,
+				getOutputPath("inference/count/out"), SinkMode.REPLACE);
+
+		Pipe pipe = new Pipe("inference");
+		pipe = new GroupBy(pipe, new Fields("a"));
+		pipe = new Every(pipe, new Count(new Fields("c")), Fields.ALL);
+		pipe = new GroupBy(pipe, new Fields("c"), new Fields("a"));
+
+		Flow flow = getPlatform().getFlowConnector(getInferenceProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink));
+		flow.complete();
+
+		assertEquals(Arrays.asList("2\t1", "3\t1", "1\t2"), readLines(sink));
+	}
+
+	private Map<Object, Object> getInferenceProperties() {
+
+		Map<Object, Object> properties = new HashMap<Object, Object>(getPlatform().getProperties());
+		properties.put(FlinkConfigConstants.FIELD_TYPE_INFERENCE, "true");
+		return properties;
+	}
+
+	private String writeInput(String name, String content) throws IOException {
+
+		String path = getOutputPath("inference/" + name + "/in.txt");
+		FileUtils.writeStringToFile(new File(path), content);
+		return path;
+	}
+
+	private List<String> readLines(Tap tap) throws IOException {
+
+		List<String> lines = new ArrayList<String>();
+		TupleEntryIterator iterator = tap.openForRead(getPlatform().getFlowProcess());
+		try {
+			while(iterator.hasNext()) {
+				lines.add(iterator.next().getTuple().toString("\t"));
+			}
+		}
+		finally {
+			iterator.close();
+		}
+		return lines;
+	}
+
+}
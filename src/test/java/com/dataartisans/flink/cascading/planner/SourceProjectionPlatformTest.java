@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.planner;
+
+import cascading.PlatformTestCase;
+import cascading.flow.Flow;
+import cascading.flow.FlowDef;
+import cascading.operation.Identity;
+import cascading.operation.expression.ExpressionFunction;
+import cascading.pipe.Boundary;
+import cascading.pipe.Each;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntryIterator;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SourceProjectionPlatformTest extends PlatformTestCase {
+
+	private static final String INPUT = "1\t10\tx\n2\t20\ty\n1\t30\tz\n3\t40\tw\n";
+
+	@Test
+	public void testProjectionWithCompactWireFormat() throws Exception {
+
+		Fields fields = new Fields("a", "b").applyTypes(Integer.TYPE, Integer.TYPE);
+		Tap source = getPlatform().getDelimitedFile(fields, false, "\t", null, null,
+				writeInput("compact", "1\t10\n2\t20\n1\t30\n3\t40\n"), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("a"), false, "\t", null, null,
+				getOutputPath("projection/compact/out"), SinkMode.REPLACE);
+
+		Pipe pipe = new Pipe("projection");
+		pipe = new Boundary(pipe);
+		pipe = new Each(pipe, new Fields("a"), new Identity(), Fields.RESULTS);
+		pipe = new GroupBy(pipe, new Fields("a"));
+
+		Flow flow = getPlatform().getFlowConnector(getProjectionProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink));
+		flow.complete();
+
+		assertEquals(Arrays.asList("1", "1", "2", "3"), readFirstFields(sink));
+	}
+
+	@Test
+	public void testProjectionOfNullableFieldsWithCompactWireFormat() throws Exception {
+
+		Fields fields = new Fields("a", "b", "c").applyTypes(Integer.TYPE, Integer.class, String.class);
+		Tap source = getPlatform().getDelimitedFile(fields, false, "\t", null, null,
+				writeInput("nullable", INPUT), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("a"), false, "\t", null, null,
+				getOutputPath("projection/nullable/out"), SinkMode.REPLACE);
+
+		Pipe pipe = new Pipe("projection");
+		pipe = new Boundary(pipe);
+		pipe = new Each(pipe, new Fields("a"), new Identity(), Fields.RESULTS);
+		pipe = new GroupBy(pipe, new Fields("a"));
+
+		Flow flow = getPlatform().getFlowConnector(getProjectionProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink));
+		flow.complete();
+
+		assertEquals(Arrays.asList("1", "1", "2", "3"), readFirstFields(sink));
+	}
+
+	@Test
+	public void testTrapsReceiveUnprojectedTuples() throws Exception {
+
+		Fields fields = new Fields("a", "b", "c").applyTypes(Integer.class, Integer.class, String.class);
+		Tap source = getPlatform().getDelimitedFile(fields, false, "\t", null, null,
+				writeInput("trap", INPUT), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("d"), false, "\t", null, null,
+				getOutputPath("projection/trap/out"), SinkMode.REPLACE);
+		Tap trap = getPlatform().getDelimitedFile(fields, false, "\t", null, null,
+				getOutputPath("projection/trap/trap"), SinkMode.REPLACE);
+
+		Pipe pipe = new Pipe("projection");
+		pipe = new Each(pipe, new Fields("a"), new ExpressionFunction(new Fields("d"), "10 / (a - 2)", Integer.class),
+				Fields.RESULTS);
+		pipe = new GroupBy(pipe, new Fields("d"));
+
+		Flow flow = getPlatform().getFlowConnector(getProjectionProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink).addTrap("projection", trap));
+		flow.complete();
+
+		validateLength(flow, 3);
+		assertEquals(Arrays.asList("2\t20\ty"), readLines(trap));
+	}
+
+	private Map<Object, Object> getProjectionProperties() {
+
+		Map<Object, Object> properties = new HashMap<Object, Object>(getPlatform().getProperties());
+		properties.put(FlinkConfigConstants.PROJECTION_PUSHDOWN, "true");
+		properties.put(FlinkConfigConstants.TUPLE_WIRE_FORMAT, "2");
+		return properties;
+	}
+
+	private String writeInput(String name, String content) throws IOException {
+
+		String path = getOutputPath("projection/" + name + "/in.txt");
+		FileUtils.writeStringToFile(new File(path), content);
+		return path;
+	}
+
+	private List<String> readFirstFields(Tap tap) throws IOException {
+
+		List<String> values = new ArrayList<String>();
+		TupleEntryIterator iterator = tap.openForRead(getPlatform().getFlowProcess());
+		try {
+			while(iterator.hasNext()) {
+				Tuple tuple = iterator.next().getTuple();
+				values.add(tuple.getString(0));
+			}
+		}
+		finally {
+			iterator.close();
+		}
+		return values;
+	}
+
+	private List<String> readLines(Tap tap) throws IOException {
+
+		List<String> lines = new ArrayList<String>();
+		TupleEntryIterator iterator = tap.openForRead(getPlatform().getFlowProcess());
+		try {
+			while(iterator.hasNext()) {
+				lines.add(iterator.next().getTuple().toString("\t"));
+			}
+		}
+		finally {
+			iterator.close();
+		}
+		return lines;
+	}
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.runtime.groupBy;
+
+import cascading.PlatformTestCase;
+import cascading.flow.Flow;
+import cascading.flow.FlowDef;
+import cascading.flow.FlowProcess;
+import cascading.operation.Aggregator;
+import cascading.operation.AggregatorCall;
+import cascading.operation.BaseOperation;
+import cascading.operation.aggregator.Count;
+import cascading.operation.aggregator.Last;
+import cascading.operation.aggregator.Max;
+import cascading.operation.aggregator.MaxValue;
+import cascading.operation.aggregator.Min;
+import cascading.operation.aggregator.MinValue;
+import cascading.operation.aggregator.Sum;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryIterator;
+import com.dataartisans.flink.cascading.operation.CombinableAggregator;
+import com.dataartisans.flink.cascading.util.FlinkConfigConstants;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CombinedAggregatorsPlatformTest extends PlatformTestCase {
+
+	private static final String INPUT = "a\t1\tx\na\t3\tx\nb\t2\ty\na\t2\tx\nb\t5\ty\nc\t4\tz\n";
+
+	private static final Fields INPUT_FIELDS = new Fields("key", "value", "tag").applyTypes(String.class, Integer.class, String.class);
+
+	@Test
+	public void testCount() throws Exception {
+
+		Map<String, String> results = aggregate("count", new Fields("value"), new Count(new Fields("result")));
+		assertNumbers(results, 3, 2, 1);
+	}
+
+	@Test
+	public void testSum() throws Exception {
+
+		Map<String, String> results = aggregate("sum", new Fields("value"), new Sum(new Fields("result"), Long.class));
+		assertNumbers(results, 6, 7, 4);
+	}
+
+	@Test
+	public void testMin() throws Exception {
+
+		Map<String, String> results = aggregate("min", new Fields("value"), new Min(new Fields("result")));
+		assertNumbers(results, 1, 2, 4);
+	}
+
+	@Test
+	public void testMax() throws Exception {
+
+		Map<String, String> results = aggregate("max", new Fields("value"), new Max(new Fields("result")));
+		assertNumbers(results, 3, 5, 4);
+	}
+
+	@Test
+	public void testMinValue() throws Exception {
+
+		Map<String, String> results = aggregate("minValue", new Fields("value"), new MinValue(new Fields("result")));
+		assertNumbers(results, 1, 2, 4);
+	}
+
+	@Test
+	public void testMaxValue() throws Exception {
+
+		Map<String, String> results = aggregate("maxValue", new Fields("value"), new MaxValue(new Fields("result")));
+		assertNumbers(results, 3, 5, 4);
+	}
+
+	@Test
+	public void testLast() throws Exception {
+
+		// the tag is the same for all tuples of a group, such that the result does not depend on the order of tuples
+		Map<String, String> results = aggregate("last", new Fields("tag"), new Last(new Fields("result")));
+		assertEquals("x", results.get("a"));
+		assertEquals("y", results.get("b"));
+		assertEquals("z", results.get("c"));
+	}
+
+	@Test
+	public void testCombinableAggregator() throws Exception {
+
+		Map<String, String> results = aggregate("squareSum", new Fields("value"), new SquareSum(new Fields("result")));
+		assertNumbers(results, 14, 29, 16);
+	}
+
+	@Test
+	public void testAggregatorChain() throws Exception {
+
+		Tap source = getPlatform().getDelimitedFile(INPUT_FIELDS, false, "\t", null, null,
+				writeInput("chain"), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("key", "count", "sum"), false, "\t", null, null,
+				getOutputPath("combine/chain/out"), SinkMode.REPLACE);
+
+		Pipe pipe = new Pipe("combine");
+		pipe = new GroupBy(pipe, new Fields("key"));
+		pipe = new Every(pipe, new Fields("value"), new Count(new Fields("count")), Fields.ALL);
+		pipe = new Every(pipe, new Fields("value"), new Sum(new Fields("sum"), Long.class), Fields.ALL);
+
+		Flow flow = getPlatform().getFlowConnector(getCombineProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink));
+		flow.complete();
+
+		Map<String, String> results = new HashMap<String, String>();
+		TupleEntryIterator iterator = sink.openForRead(getPlatform().getFlowProcess());
+		try {
+			while(iterator.hasNext()) {
+				TupleEntry entry = iterator.next();
+				results.put(entry.getString("key"), entry.getString("count") + "/" + entry.getString("sum"));
+			}
+		}
+		finally {
+			iterator.close();
+		}
+
+		assertEquals(3, results.size());
+		assertEquals("3/6", results.get("a"));
+		assertEquals("2/7", results.get("b"));
+		assertEquals("1/4", results.get("c"));
+	}
+
+	private Map<String, String> aggregate(String name, Fields argumentFields, Aggregator aggregator) throws IOException {
+
+		Tap source = getPlatform().getDelimitedFile(INPUT_FIELDS, false, "\t", null, null,
+				writeInput(name), SinkMode.KEEP);
+		Tap sink = getPlatform().getDelimitedFile(new Fields("key", "result"), false, "\t", null, null,
+				getOutputPath("combine/" + name + "/out"), SinkMode.REPLACE);
+
+		Pipe pipe = new Pipe("combine");
+		pipe = new GroupBy(pipe, new Fields("key"));
+		pipe = new Every(pipe, argumentFields, aggregator, Fields.ALL);
+
+		Flow flow = getPlatform().getFlowConnector(getCombineProperties())
+				.connect(FlowDef.flowDef().addSource(pipe, source).addTailSink(pipe, sink));
+		flow.complete();
+
+		Map<String, String> results = new HashMap<String, String>();
+		TupleEntryIterator iterator = sink.openForRead(getPlatform().getFlowProcess());
+		try {
+			while(iterator.hasNext()) {
+				TupleEntry entry = iterator.next();
+				assertNull("duplicate group " + entry, results.put(entry.getString("key"), entry.getString("result")));
+			}
+		}
+		finally {
+			iterator.close();
+		}
+		assertEquals(3, results.size());
+		return results;
+	}
+
+	private static void assertNumbers(Map<String, String> results, double a, double b, double c) {
+
+		assertEquals(a, Double.parseDouble(results.get("a")), 0.0);
+		assertEquals(b, Double.parseDouble(results.get("b")), 0.0);
+		assertEquals(c, Double.parseDouble(results.get("c")), 0.0);
+	}
+
+	private Map<Object, Object> getCombineProperties() {
+
+		Map<Object, Object> properties = new HashMap<Object, Object>(getPlatform().getProperties());
+		properties.put(FlinkConfigConstants.COMBINE_AGGREGATORS, "true");
+		return properties;
+	}
+
+	private String writeInput(String name) throws IOException {
+
+		String path = getOutputPath("combine/" + name + "/in.txt");
+		FileUtils.writeStringToFile(new File(path), INPUT);
+		return path;
+	}
+
+	/**
+	 * Sums up the squares of its argument. Partial results are merged by summing them up.
+	 */
+	private static class SquareSum extends BaseOperation<double[]> implements CombinableAggregator<double[]> {
+
+		public SquareSum(Fields fieldDeclaration) {
+			super(1, fieldDeclaration);
+		}
+
+		@Override
+		public void start(FlowProcess flowProcess, AggregatorCall<double[]> aggregatorCall) {
+			if(aggregatorCall.getContext() == null) {
+				aggregatorCall.setContext(new double[1]);
+			}
+			aggregatorCall.getContext()[0] = 0.0;
+		}
+
+		@Override
+		public void aggregate(FlowProcess flowProcess, AggregatorCall<double[]> aggregatorCall) {
+			double value = aggregatorCall.getArguments().getDouble(0);
+			aggregatorCall.getContext()[0] += value * value;
+		}
+
+		@Override
+		public void complete(FlowProcess flowProcess, AggregatorCall<double[]> aggregatorCall) {
+			aggregatorCall.getOutputCollector().add(new Tuple(aggregatorCall.getContext()[0]));
+		}
+
+		@Override
+		public Aggregator getMergeAggregator() {
+			return new Sum(getFieldDeclaration());
+		}
+	}
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.field;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeComparator;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.util.DataInputDeserializer;
+import org.apache.flink.runtime.util.DataOutputSerializer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FieldComparatorTest {
+
+	private static final Comparable[] PREFIX_STRINGS = new Comparable[] {
+			"", "a", "abcdefghijklmno", "abcdefghijklmnop", "abcdefghijklmnopq", "abcdefghijklmnopr",
+			"abcdefghijklmnoz", "abcdefghijklmnoa", "abcdefghijklmnopqrstuvwxyz", "abcdefghijklmnopqrstuvwxyy"
+	};
+
+	private static final Comparable[] NON_ASCII_STRINGS = new Comparable[] {
+			"a", "z", "\u007f", "\u0080", "\u00e9t\u00e9", "\u00e9tage", "\u00e9t\u00e9s", "\u4e2d\u6587",
+			"\u4e2d\u6587\u5b57", "\uffff", "\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9a", "\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9b"
+	};
+
+	private static final Comparable[] MIXED = new Comparable[] {
+			1, -1, Integer.MAX_VALUE, 2L, -3L, Long.MIN_VALUE, 1.5d, -0.5d, 0.0d, 2.5f, -2.5f,
+			"a", "b", 'c', 'd', (short)3, (short)-3, (byte)-2, (byte)7, true, false,
+			new Text("abc"), new Text("abd"), new IntWritable(3), new IntWritable(-3), new LongWritable(-4),
+			new BigDecimal("1.5"), new BigDecimal("2.5"), new BigDecimal("1.50000000000000000001")
+	};
+
+	private static final Comparable[] DATES = new Comparable[] {
+			new Date(-1000L), new Date(0L), new Date(1000L), new Date(2000L)
+	};
+
+	private static final String[] DICTIONARY = new String[] {
+			"zulu", "alpha", "abcdefghijklmnopq", "\u00e9t\u00e9", ""
+	};
+
+	private static final Comparable[] DICTIONARY_STRINGS = new Comparable[] {
+			"zulu", "alpha", "abcdefghijklmnopq", "\u00e9t\u00e9", "", "alphabet", "abcdefghijklmnopr",
+			"abcdefghijklmnop", "\u00e9tage", "zulu2", "a"
+	};
+
+	@Test
+	public void testStringsWithSharedPrefix() throws IOException {
+		checkConsistentOrder(PREFIX_STRINGS, true);
+		checkConsistentOrder(PREFIX_STRINGS, false);
+	}
+
+	@Test
+	public void testNonAsciiStrings() throws IOException {
+		checkConsistentOrder(NON_ASCII_STRINGS, true);
+		checkConsistentOrder(NON_ASCII_STRINGS, false);
+	}
+
+	@Test
+	public void testMixedTypes() throws IOException {
+		checkConsistentOrder(MIXED, true);
+		checkConsistentOrder(MIXED, false);
+	}
+
+	@Test
+	public void testKryoValues() throws IOException {
+		checkConsistentOrder(DATES, true);
+		checkConsistentOrder(DATES, false);
+	}
+
+	@Test
+	public void testDictionaryStrings() throws IOException {
+		FieldTypeInfo typeInfo = new FieldTypeInfo(String.class);
+		typeInfo.setStringDictionary(DICTIONARY);
+
+		checkConsistentOrder(typeInfo, DICTIONARY_STRINGS, true);
+		checkConsistentOrder(typeInfo, DICTIONARY_STRINGS, false);
+	}
+
+	@Test
+	public void testDictionaryStringsRoundTrip() throws IOException {
+		FieldTypeInfo typeInfo = new FieldTypeInfo(String.class);
+		typeInfo.setStringDictionary(DICTIONARY);
+		TypeSerializer<Comparable> serializer = typeInfo.createSerializer(new ExecutionConfig());
+		assertTrue(((Object) serializer) instanceof DictionaryStringSerializer);
+
+		for(Comparable value : DICTIONARY_STRINGS) {
+			assertEquals(value, serializer.deserialize(serialize(serializer, value)));
+
+			DataOutputSerializer copy = new DataOutputSerializer(64);
+			serializer.copy(serialize(serializer, value), copy);
+			assertEquals(value, serializer.deserialize(new DataInputDeserializer(copy.getByteArray(), 0, copy.length())));
+		}
+	}
+
+	@Test
+	public void testNulls() {
+		TypeComparator<Comparable> comp = new FieldTypeInfo().createComparator(true, new ExecutionConfig());
+		assertTrue(comp.compare(null, "a") < 0);
+		assertTrue(comp.compare("a", null) > 0);
+		assertEquals(0, comp.compare(null, null));
+
+		byte[] nullKey = normalizedKey(comp, null);
+		byte[] valueKey = normalizedKey(comp, "");
+		assertTrue(compareKeys(nullKey, valueKey) < 0);
+
+		TypeComparator<Comparable> desc = new FieldTypeInfo().createComparator(false, new ExecutionConfig());
+		assertTrue(desc.compare(null, "a") > 0);
+		assertTrue(desc.invertNormalizedKey());
+	}
+
+	@Test
+	public void testTypedNullsHaveEqualNormalizedKeys() {
+		TypeComparator<Comparable> comp = new FieldTypeInfo(Integer.class).createComparator(true, new ExecutionConfig());
+		int keyLen = comp.getNormalizeKeyLen();
+
+		// null keys must not depend on the previous content of the target
+		byte[] key1 = new byte[keyLen];
+		byte[] key2 = new byte[keyLen];
+		for(int i = 0; i < keyLen; i++) {
+			key1[i] = (byte) i;
+			key2[i] = (byte) (0xFF - i);
+		}
+		comp.putNormalizedKey(null, MemorySegmentFactory.wrap(key1), 0, keyLen);
+		comp.putNormalizedKey(null, MemorySegmentFactory.wrap(key2), 0, keyLen);
+		assertEquals(0, compareKeys(key1, key2));
+		assertTrue(compareKeys(key1, normalizedKey(comp, Integer.MIN_VALUE)) < 0);
+	}
+
+	@Test
+	public void testNormalizedKeyIsPrefixOnly() {
+		TypeComparator<Comparable> comp = new FieldTypeInfo().createComparator(true, new ExecutionConfig());
+		assertTrue(comp.isNormalizedKeyPrefixOnly(comp.getNormalizeKeyLen()));
+	}
+
+	/**
+	 * Checks that object comparison, comparison of references, binary comparison, and normalized keys
+	 * order all pairs of values consistently.
+	 */
+	static void checkConsistentOrder(Comparable[] values, boolean ascending) throws IOException {
+		checkConsistentOrder(new FieldTypeInfo(), values, ascending);
+	}
+
+	static void checkConsistentOrder(FieldTypeInfo typeInfo, Comparable[] values, boolean ascending) throws IOException {
+
+		ExecutionConfig config = new ExecutionConfig();
+		TypeComparator<Comparable> comp = typeInfo.createComparator(ascending, config);
+		TypeComparator<Comparable> other = comp.duplicate();
+		TypeSerializer<Comparable> serializer = typeInfo.createSerializer(config);
+		int keyLen = comp.getNormalizeKeyLen();
+
+		for(Comparable v1 : values) {
+			for(Comparable v2 : values) {
+
+				String pair = v1 + " (" + v1.getClass().getSimpleName() + "), " +
+						v2 + " (" + v2.getClass().getSimpleName() + ")";
+
+				int cmp = Integer.signum(comp.compare(v1, v2));
+				assertEquals(pair, -cmp, Integer.signum(comp.compare(v2, v1)));
+				if(v1.getClass() == v2.getClass()) {
+					int expected = Integer.signum(v1.compareTo(v2));
+					assertEquals(pair, ascending ? expected : -expected, cmp);
+				}
+
+				comp.setReference(v1);
+				other.setReference(v2);
+				assertEquals(pair, cmp, Integer.signum(other.compareToReference(comp)));
+
+				int serializedCmp = Integer.signum(comp.compareSerialized(
+						serialize(serializer, v1), serialize(serializer, v2)));
+				assertEquals(pair, cmp, serializedCmp);
+
+				int keyCmp = Integer.signum(compareKeys(normalizedKey(comp, v1), normalizedKey(comp, v2)));
+				if(comp.invertNormalizedKey()) {
+					keyCmp = -keyCmp;
+				}
+				if(keyCmp != 0) {
+					assertEquals(pair, cmp, keyCmp);
+				}
+				else if(!comp.isNormalizedKeyPrefixOnly(keyLen)) {
+					assertEquals(pair, 0, cmp);
+				}
+			}
+		}
+	}
+
+	static DataInputDeserializer serialize(TypeSerializer<Comparable> serializer, Comparable value) throws IOException {
+		DataOutputSerializer out = new DataOutputSerializer(64);
+		serializer.serialize(value, out);
+		return new DataInputDeserializer(out.getByteArray(), 0, out.length());
+	}
+
+	static byte[] normalizedKey(TypeComparator<Comparable> comp, Comparable value) {
+		byte[] key = new byte[comp.getNormalizeKeyLen()];
+		MemorySegment segment = MemorySegmentFactory.wrap(key);
+		comp.putNormalizedKey(value, segment, 0, key.length);
+		return key;
+	}
+
+	static int compareKeys(byte[] key1, byte[] key2) {
+		for(int i = 0; i < key1.length && i < key2.length; i++) {
+			int cmp = (key1[i] & 0xFF) - (key2[i] & 0xFF);
+			if(cmp != 0) {
+				return cmp;
+			}
+		}
+		return key1.length - key2.length;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.field;
+
+import com.dataartisans.flink.cascading.types.tuple.TupleWireFormat;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.util.DataInputDeserializer;
+import org.apache.flink.runtime.util.DataOutputSerializer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FieldSerializerTest {
+
+	private static final int END_MARKER = 0x5EA1ED;
+
+	private static final Comparable[] VALUES = new Comparable[] {
+			0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE,
+			0L, -1L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE,
+			1.5d, -0.0d, Double.NaN, 2.5f, "", "a", "\u00e9t\u00e9 \u4e2d\u6587", 'c', (short)-3, (byte)7, true, false,
+			new Text("abc"), new IntWritable(-3), new BigDecimal("1.50000000000000000001"), new Date(1000L)
+	};
+
+	private static final Integer[] INTS = new Integer[] {
+			0, 1, -1, 63, -64, 64, -65, 8191, -8192, Integer.MAX_VALUE, Integer.MIN_VALUE
+	};
+
+	private static final Long[] LONGS = new Long[] {
+			0L, 1L, -1L, 63L, -64L, (long) Integer.MAX_VALUE + 1, (long) Integer.MIN_VALUE - 1, Long.MAX_VALUE, Long.MIN_VALUE
+	};
+
+	@Test
+	public void testTaggedFieldsV1() throws IOException {
+		checkRoundTrip(new TaggedFieldSerializer(new ExecutionConfig()), VALUES);
+	}
+
+	@Test
+	public void testTaggedFieldsV2() throws IOException {
+		checkRoundTrip(new TaggedFieldSerializer(compactConfig()), VALUES);
+	}
+
+	@Test
+	public void testTaggedSmallIntsAreShorterInV2() throws IOException {
+		TaggedFieldSerializer v1 = new TaggedFieldSerializer(new ExecutionConfig());
+		TaggedFieldSerializer v2 = new TaggedFieldSerializer(compactConfig());
+
+		assertTrue(serialize(v2, 1).length < serialize(v1, 1).length);
+		assertTrue(serialize(v2, -1L).length < serialize(v1, -1L).length);
+	}
+
+	@Test
+	public void testZigZagInts() throws IOException {
+		checkRoundTrip((TypeSerializer) ZigZagIntSerializer.INSTANCE, INTS);
+		assertEquals(1, serialize((TypeSerializer) ZigZagIntSerializer.INSTANCE, -64).length);
+		assertEquals(2, serialize((TypeSerializer) ZigZagIntSerializer.INSTANCE, 64).length);
+	}
+
+	@Test
+	public void testZigZagLongs() throws IOException {
+		checkRoundTrip((TypeSerializer) ZigZagLongSerializer.INSTANCE, LONGS);
+		assertEquals(1, serialize((TypeSerializer) ZigZagLongSerializer.INSTANCE, -1L).length);
+		assertEquals(10, serialize((TypeSerializer) ZigZagLongSerializer.INSTANCE, Long.MIN_VALUE).length);
+	}
+
+	@Test
+	public void testFieldTypeSerializers() throws IOException {
+		for(ExecutionConfig config : new ExecutionConfig[] {new ExecutionConfig(), compactConfig()}) {
+			checkRoundTrip(new FieldTypeInfo(Integer.class).createSerializer(config), INTS);
+			checkRoundTrip(new FieldTypeInfo(Integer.TYPE).createSerializer(config), INTS);
+			checkRoundTrip(new FieldTypeInfo(Long.class).createSerializer(config), LONGS);
+			checkRoundTrip(new FieldTypeInfo(Long.TYPE).createSerializer(config), LONGS);
+			checkRoundTrip(new FieldTypeInfo().createSerializer(config), VALUES);
+		}
+	}
+
+	static ExecutionConfig compactConfig() {
+		ExecutionConfig config = new ExecutionConfig();
+		TupleWireFormat.setVersion(config, TupleWireFormat.VERSION_2);
+		return config;
+	}
+
+	/**
+	 * Checks that each value survives serialization, copying of its serialized form, and object copying,
+	 * and that a sequence of serialized values is read back completely.
+	 */
+	static void checkRoundTrip(TypeSerializer<Comparable> serializer, Comparable[] values) throws IOException {
+
+		DataOutputSerializer all = new DataOutputSerializer(64);
+
+		for(Comparable value : values) {
+			String msg = value + " (" + value.getClass().getSimpleName() + ")";
+			byte[] bytes = serialize(serializer, value);
+
+			assertEquals(msg, value, serializer.deserialize(new DataInputDeserializer(bytes, 0, bytes.length)));
+			assertEquals(msg, value, serializer.duplicate().deserialize(
+					serializer.createInstance(), new DataInputDeserializer(bytes, 0, bytes.length)));
+			assertEquals(msg, value, serializer.copy(value));
+
+			DataOutputSerializer copy = new DataOutputSerializer(64);
+			serializer.copy(new DataInputDeserializer(bytes, 0, bytes.length), copy);
+			assertArrayEquals(msg, bytes, copy.getCopyOfBuffer());
+
+			serializer.serialize(value, all);
+		}
+		all.writeInt(END_MARKER);
+
+		DataInputDeserializer in = new DataInputDeserializer(all.getByteArray(), 0, all.length());
+		for(Comparable value : values) {
+			assertEquals(value, serializer.deserialize(in));
+		}
+		assertEquals(END_MARKER, in.readInt());
+	}
+
+	static byte[] serialize(TypeSerializer<Comparable> serializer, Comparable value) throws IOException {
+		DataOutputSerializer out = new DataOutputSerializer(64);
+		serializer.serialize(value, out);
+		return out.getCopyOfBuffer();
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.tuple;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.types.field.FieldTypeInfo;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.operators.Order;
+import org.apache.flink.api.common.typeutils.TypeComparator;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.runtime.util.DataInputDeserializer;
+import org.apache.flink.runtime.util.DataOutputSerializer;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TupleComparatorTest {
+
+	private static final Tuple[] SHARED_PREFIX_TUPLES = new Tuple[] {
+			new Tuple("abcdefghijklmnopqrstuvwxyz", 1), new Tuple("abcdefghijklmnopqrstuvwxyy", 2),
+			new Tuple("abcdefghijklmnop", 3), new Tuple("abcdefghijklmnoq", 4), new Tuple("\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9a", 5),
+			new Tuple("\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9b", 6), new Tuple("a", 7), new Tuple(null, 8)
+	};
+
+	private static final Fields BOXED = new Fields("a", "b", "c").applyTypes(Integer.class, String.class, Long.class);
+
+	private static final Tuple[] BOXED_TUPLES = new Tuple[] {
+			new Tuple(1, "a", 1L), new Tuple(1, "a", -1L), new Tuple(1, null, 2L), new Tuple(null, "a", 3L),
+			new Tuple(null, null, null), new Tuple(-1, "b", null), new Tuple(Integer.MIN_VALUE, "", Long.MAX_VALUE),
+			new Tuple(Integer.MAX_VALUE, "abcdefghijklmnopq", Long.MIN_VALUE), new Tuple(64, "abcdefghijklmnopr", 64L),
+			new Tuple(-65, "\u4e2d\u6587", -65L)
+	};
+
+	private static final Fields PRIMITIVE = new Fields("a", "b").applyTypes(Integer.TYPE, Long.TYPE);
+
+	private static final Tuple[] PRIMITIVE_TUPLES = new Tuple[] {
+			new Tuple(0, 0L), new Tuple(0, -1L), new Tuple(-1, 1L), new Tuple(1, 1L), new Tuple(63, 64L), new Tuple(-64, -65L),
+			new Tuple(Integer.MIN_VALUE, Long.MAX_VALUE), new Tuple(Integer.MAX_VALUE, Long.MIN_VALUE)
+	};
+
+	private static final Tuple[] UNTYPED_TUPLES = new Tuple[] {
+			new Tuple("a", 1, 2L), new Tuple("a", null, 2L), new Tuple(null, 1, null), new Tuple(null, null, null),
+			new Tuple("b", -1, -2L), new Tuple("abcdefghijklmnopq", 3, 1L), new Tuple("abcdefghijklmnopr", 3, 1L),
+			new Tuple("", Integer.MAX_VALUE, Long.MIN_VALUE)
+	};
+
+	private static final int MAX_NORMALIZED_KEY_LEN = 16;
+
+	private static final int[][] KEYS = new int[][] {{0}, {1}, {2}, {0, 1}, {2, 0}, {1, 2, 0}};
+
+	@Test
+	public void testUntypedDefinedKeyIsPrefixOnly() throws IOException {
+		for(boolean ascending : new boolean[] {true, false}) {
+			ExecutionConfig config = new ExecutionConfig();
+			TupleTypeInfo typeInfo = new TupleTypeInfo(new Fields("a", "b"));
+			TypeComparator<Tuple> comp = typeInfo.createComparator(new int[] {0}, new boolean[] {ascending}, 0, config);
+
+			assertTrue(comp.supportsNormalizedKey());
+			assertTrue(comp.isNormalizedKeyPrefixOnly(comp.getNormalizeKeyLen()));
+			checkConsistentOrder(comp, typeInfo.createSerializer(config), SHARED_PREFIX_TUPLES);
+		}
+	}
+
+	@Test
+	public void testUntypedUnknownKeyIsPrefixOnly() throws IOException {
+		for(boolean ascending : new boolean[] {true, false}) {
+			ExecutionConfig config = new ExecutionConfig();
+			FieldTypeInfo fieldType = new FieldTypeInfo();
+			TypeComparator<Tuple> comp = new UnknownTupleComparator(new int[] {0},
+					new TypeComparator[] {fieldType.createComparator(ascending, config)},
+					fieldType.createSerializer(config));
+
+			assertTrue(comp.supportsNormalizedKey());
+			assertTrue(comp.isNormalizedKeyPrefixOnly(comp.getNormalizeKeyLen()));
+			checkConsistentOrder(comp, new UnknownTupleSerializer(fieldType.createSerializer(config)), SHARED_PREFIX_TUPLES);
+		}
+	}
+
+	@Test
+	public void testTypedIntKeyIsNotPrefixOnly() {
+		ExecutionConfig config = new ExecutionConfig();
+		TupleTypeInfo typeInfo = new TupleTypeInfo(new Fields("a", "b").applyTypes(Integer.TYPE, Integer.TYPE));
+		TypeComparator<Tuple> comp = typeInfo.createComparator(new int[] {0}, new boolean[] {true}, 0, config);
+
+		assertTrue(comp.supportsNormalizedKey());
+		assertFalse(comp.isNormalizedKeyPrefixOnly(comp.getNormalizeKeyLen()));
+	}
+
+	@Test
+	public void testBoxedKeysAgree() throws IOException {
+		for(ExecutionConfig config : TupleSerializerTest.configs()) {
+			checkKeys(BOXED, BOXED_TUPLES, KEYS, config);
+		}
+	}
+
+	@Test
+	public void testPrimitiveKeysAgree() throws IOException {
+		for(ExecutionConfig config : TupleSerializerTest.configs()) {
+			checkKeys(PRIMITIVE, PRIMITIVE_TUPLES, new int[][] {{0}, {1}, {1, 0}}, config);
+		}
+	}
+
+	@Test
+	public void testUntypedKeysAgree() throws IOException {
+		for(ExecutionConfig config : TupleSerializerTest.configs()) {
+			checkKeys(new Fields("a", "b", "c"), UNTYPED_TUPLES, KEYS, config);
+		}
+	}
+
+	@Test
+	public void testUnknownKeysAgree() throws IOException {
+		for(ExecutionConfig config : TupleSerializerTest.configs()) {
+			FieldTypeInfo fieldType = new FieldTypeInfo();
+			TypeSerializer<Tuple> serializer = new TupleTypeInfo(Fields.UNKNOWN).createSerializer(config);
+			boolean compact = TupleWireFormat.isCompact(config);
+
+			for(int[] keys : KEYS) {
+				for(boolean ascending : new boolean[] {true, false}) {
+					TypeComparator[] keyComps = new TypeComparator[keys.length];
+					for(int i = 0; i < keys.length; i++) {
+						keyComps[i] = fieldType.createComparator(ascending, config);
+					}
+					TypeComparator<Tuple> comp = new UnknownTupleComparator(keys, keyComps,
+							fieldType.createSerializer(config), compact);
+					checkConsistentOrder(comp, serializer, UNTYPED_TUPLES);
+					checkFieldOrder(comp, keys, ascending, UNTYPED_TUPLES);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDescendingKeysAreReversed() throws IOException {
+		for(ExecutionConfig config : TupleSerializerTest.configs()) {
+			for(Fields keyFields : new Fields[] {new Fields("a"), new Fields("c", "b")}) {
+				TupleTypeInfo ascendingType = new TupleTypeInfo(BOXED);
+				TupleTypeInfo descendingType = new TupleTypeInfo(BOXED);
+				ascendingType.registerKeyFields(keyFields);
+				descendingType.registerKeyFields(keyFields, Order.DESCENDING);
+
+				int[] keys = BOXED.getPos(keyFields);
+				boolean[] orders = orders(keys.length, true);
+				TypeComparator<Tuple> ascending = ascendingType.createComparator(keys, orders, 0, config);
+				TypeComparator<Tuple> descending = descendingType.createComparator(keys, orders, 0, config);
+				checkConsistentOrder(descending, descendingType.createSerializer(config), BOXED_TUPLES);
+
+				for(Tuple t1 : BOXED_TUPLES) {
+					for(Tuple t2 : BOXED_TUPLES) {
+						assertEquals(t1 + ", " + t2, -Integer.signum(ascending.compare(t1, t2)),
+								Integer.signum(descending.compare(t1, t2)));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks all key combinations of a schema in ascending and descending order.
+	 */
+	private static void checkKeys(Fields schema, Tuple[] tuples, int[][] keyCombinations, ExecutionConfig config)
+			throws IOException {
+
+		TupleTypeInfo typeInfo = new TupleTypeInfo(schema);
+		TypeSerializer<Tuple> serializer = typeInfo.createSerializer(config);
+
+		for(int[] keys : keyCombinations) {
+			for(boolean ascending : new boolean[] {true, false}) {
+				TypeComparator<Tuple> comp = typeInfo.createComparator(keys, orders(keys.length, ascending), 0, config);
+				checkConsistentOrder(comp, serializer, tuples);
+				checkFieldOrder(comp, keys, ascending, tuples);
+			}
+		}
+	}
+
+	/**
+	 * Checks that tuples are ordered by their key fields, with nulls first in ascending order.
+	 */
+	private static void checkFieldOrder(TypeComparator<Tuple> comp, int[] keys, boolean ascending, Tuple[] tuples) {
+
+		for(Tuple t1 : tuples) {
+			for(Tuple t2 : tuples) {
+				int expected = 0;
+				for(int i = 0; i < keys.length && expected == 0; i++) {
+					Comparable v1 = (Comparable) t1.getObject(keys[i]);
+					Comparable v2 = (Comparable) t2.getObject(keys[i]);
+					if(v1 == null || v2 == null) {
+						expected = (v1 == null ? 0 : 1) - (v2 == null ? 0 : 1);
+					}
+					else {
+						expected = Integer.signum(v1.compareTo(v2));
+					}
+				}
+				assertEquals(t1 + ", " + t2, ascending ? expected : -expected, Integer.signum(comp.compare(t1, t2)));
+			}
+		}
+	}
+
+	private static boolean[] orders(int numKeys, boolean ascending) {
+		boolean[] orders = new boolean[numKeys];
+		for(int i = 0; i < numKeys; i++) {
+			orders[i] = ascending;
+		}
+		return orders;
+	}
+
+	/**
+	 * Checks that object comparison, binary comparison, and normalized keys order all pairs of tuples consistently
+	 * and that the normalized key decides the order only if it is not a prefix.
+	 */
+	static void checkConsistentOrder(TypeComparator<Tuple> comp, TypeSerializer<Tuple> serializer, Tuple[] tuples)
+			throws IOException {
+
+		// sorters use at most 16 bytes of a normalized key
+		int keyLen = Math.min(comp.getNormalizeKeyLen(), MAX_NORMALIZED_KEY_LEN);
+
+		for(Tuple t1 : tuples) {
+			for(Tuple t2 : tuples) {
+
+				String pair = t1 + ", " + t2;
+
+				int cmp = Integer.signum(comp.compare(t1, t2));
+				assertEquals(pair, -cmp, Integer.signum(comp.compare(t2, t1)));
+
+				TypeComparator<Tuple> other = comp.duplicate();
+				comp.setReference(t1);
+				other.setReference(t2);
+				assertEquals(pair, cmp, Integer.signum(other.compareToReference(comp)));
+				assertEquals(pair, cmp, Integer.signum(comp.compareSerialized(serialize(serializer, t1), serialize(serializer, t2))));
+
+				if(!comp.supportsNormalizedKey()) {
+					continue;
+				}
+				int keyCmp = Integer.signum(compareKeys(normalizedKey(comp, t1, keyLen), normalizedKey(comp, t2, keyLen)));
+				if(comp.invertNormalizedKey()) {
+					keyCmp = -keyCmp;
+				}
+				if(keyCmp != 0) {
+					assertEquals(pair, cmp, keyCmp);
+				}
+				else if(!comp.isNormalizedKeyPrefixOnly(keyLen)) {
+					assertEquals(pair, 0, cmp);
+				}
+			}
+		}
+	}
+
+	static DataInputDeserializer serialize(TypeSerializer<Tuple> serializer, Tuple tuple) throws IOException {
+		DataOutputSerializer out = new DataOutputSerializer(64);
+		serializer.serialize(tuple, out);
+		return new DataInputDeserializer(out.getByteArray(), 0, out.length());
+	}
+
+	static byte[] normalizedKey(TypeComparator<Tuple> comp, Tuple tuple, int keyLen) {
+		byte[] key = new byte[keyLen];
+		MemorySegment segment = MemorySegmentFactory.wrap(key);
+		comp.putNormalizedKey(tuple, segment, 0, keyLen);
+		return key;
+	}
+
+	static int compareKeys(byte[] key1, byte[] key2) {
+		for(int i = 0; i < key1.length && i < key2.length; i++) {
+			int cmp = (key1[i] & 0xFF) - (key2[i] & 0xFF);
+			if(cmp != 0) {
+				return cmp;
+			}
+		}
+		return key1.length - key2.length;
+	}
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2015 data Artisans GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dataartisans.flink.cascading.types.tuple;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import com.dataartisans.flink.cascading.types.tuplearray.TupleArraySerializer;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.runtime.util.DataInputDeserializer;
+import org.apache.flink.runtime.util.DataOutputSerializer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TupleSerializerTest {
+
+	private static final int END_MARKER = 0x5EA1ED;
+
+	private static final int WIDE_ARITY = 70;
+
+	private static final Fields UNTYPED = new Fields("a", "b", "c", "d");
+
+	private static final Tuple[] UNTYPED_TUPLES = new Tuple[] {
+			new Tuple("a", 1, 2L, 1.5d), new Tuple(null, null, null, null), new Tuple("", -1, null, new Date(1000L)),
+			new Tuple(null, Integer.MIN_VALUE, Long.MAX_VALUE, "\u00e9t\u00e9"), new Tuple(true, 'c', (short) 3, null)
+	};
+
+	private static final Fields BOXED = new Fields("a", "b", "c").applyTypes(Integer.class, Long.class, String.class);
+
+	private static final Tuple[] BOXED_TUPLES = new Tuple[] {
+			new Tuple(1, 2L, "a"), new Tuple(null, null, null), new Tuple(-1, null, ""),
+			new Tuple(Integer.MAX_VALUE, Long.MIN_VALUE, null), new Tuple(null, 64L, "\u4e2d\u6587")
+	};
+
+	private static final Fields PRIMITIVE = new Fields("a", "b").applyTypes(Integer.TYPE, Long.TYPE);
+
+	private static final Tuple[] PRIMITIVE_TUPLES = new Tuple[] {
+			new Tuple(0, 0L), new Tuple(-1, 1L), new Tuple(Integer.MIN_VALUE, Long.MAX_VALUE),
+			new Tuple(Integer.MAX_VALUE, Long.MIN_VALUE), new Tuple(64, -65L)
+	};
+
+	@Test
+	public void testUntypedTuples() throws IOException {
+		for(ExecutionConfig config : configs()) {
+			checkRoundTrip(new TupleTypeInfo(UNTYPED).createSerializer(config), UNTYPED_TUPLES);
+		}
+	}
+
+	@Test
+	public void testBoxedTuples() throws IOException {
+		for(ExecutionConfig config : configs()) {
+			checkRoundTrip(new TupleTypeInfo(BOXED).createSerializer(config), BOXED_TUPLES);
+		}
+	}
+
+	@Test
+	public void testPrimitiveTuples() throws IOException {
+		for(ExecutionConfig config : configs()) {
+			checkRoundTrip(new TupleTypeInfo(PRIMITIVE).createSerializer(config), PRIMITIVE_TUPLES);
+		}
+
+		// the compact format omits the null mask and writes small numbers in a single byte
+		Tuple tuple = new Tuple(1, -1L);
+		int v1Length = serialize(new TupleTypeInfo(PRIMITIVE).createSerializer(new ExecutionConfig()), tuple).length;
+		int v2Length = serialize(new TupleTypeInfo(PRIMITIVE).createSerializer(compactConfig()), tuple).length;
+		assertEquals(2, v2Length);
+		assertTrue(v2Length < v1Length);
+	}
+
+	@Test
+	public void testWideTuples() throws IOException {
+		Comparable[] names = new Comparable[WIDE_ARITY];
+		for(int i = 0; i < names.length; i++) {
+			names[i] = "f" + i;
+		}
+		for(ExecutionConfig config : configs()) {
+			checkRoundTrip(new TupleTypeInfo(new Fields(names)).createSerializer(config), wideTuples());
+		}
+	}
+
+	@Test
+	public void testUnknownTuples() throws IOException {
+		Tuple[] wide = wideTuples();
+		Tuple[] tuples = new Tuple[] {
+				new Tuple(), new Tuple((Object) null), new Tuple("a", null, 3), wide[0], new Tuple(1L), wide[1], wide[2]
+		};
+
+		for(ExecutionConfig config : configs()) {
+			// tuples of growing and shrinking arity are read with the same serializer
+			checkRoundTrip(new TupleTypeInfo(Fields.UNKNOWN).createSerializer(config), tuples);
+		}
+	}
+
+	@Test
+	public void testTupleArrays() throws IOException {
+		for(ExecutionConfig config : configs()) {
+			TypeSerializer<Tuple>[] tupleSers = new TypeSerializer[] {
+					new TupleTypeInfo(BOXED).createSerializer(config), new TupleTypeInfo(UNTYPED).createSerializer(config)
+			};
+			TupleArraySerializer serializer = new TupleArraySerializer(2, tupleSers);
+
+			for(int i = 0; i < BOXED_TUPLES.length; i++) {
+				Tuple[] array = new Tuple[] {BOXED_TUPLES[i], i % 2 == 0 ? UNTYPED_TUPLES[i] : null};
+
+				DataOutputSerializer out = new DataOutputSerializer(64);
+				serializer.serialize(array, out);
+				byte[] bytes = out.getCopyOfBuffer();
+				assertTupleArrayEquals(array, serializer.deserialize(new DataInputDeserializer(bytes, 0, bytes.length)));
+
+				DataOutputSerializer copy = new DataOutputSerializer(64);
+				serializer.copy(new DataInputDeserializer(bytes, 0, bytes.length), copy);
+				assertArrayEquals(bytes, copy.getCopyOfBuffer());
+			}
+		}
+	}
+
+	@Test
+	public void testVarInts() throws IOException {
+		int[] ints = new int[] {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+		long[] longs = new long[] {0L, 127L, 128L, 1L << 35, Long.MAX_VALUE, -1L, Long.MIN_VALUE};
+
+		DataOutputSerializer out = new DataOutputSerializer(64);
+		for(int value : ints) {
+			VarIntSerDeUtils.writeVarInt(value, out);
+			VarIntSerDeUtils.writeZigZagInt(value, out);
+		}
+		for(long value : longs) {
+			VarIntSerDeUtils.writeVarLong(value, out);
+			VarIntSerDeUtils.writeZigZagLong(value, out);
+		}
+		out.writeInt(END_MARKER);
+
+		DataInputDeserializer in = new DataInputDeserializer(out.getByteArray(), 0, out.length());
+		for(int value : ints) {
+			assertEquals(value, VarIntSerDeUtils.readVarInt(in));
+			assertEquals(value, VarIntSerDeUtils.readZigZagInt(in));
+		}
+		for(long value : longs) {
+			assertEquals(value, VarIntSerDeUtils.readVarLong(in));
+			assertEquals(value, VarIntSerDeUtils.readZigZagLong(in));
+		}
+		assertEquals(END_MARKER, in.readInt());
+	}
+
+	@Test
+	public void testNullMasks() throws IOException {
+		for(int length : new int[] {0, 1, 7, 8, 9, 63, 64, 65, 128, 130}) {
+			Object[] fields = new Object[length];
+			for(int i = 0; i < length; i++) {
+				fields[i] = (i % 3 == 0 || i == length - 1) ? null : i;
+			}
+
+			DataOutputSerializer out = new DataOutputSerializer(64);
+			NullMaskSerDeUtils.writeNullMask(fields, length, out);
+			NullMaskSerDeUtils.writeNullMask(new Tuple(fields), out);
+			assertEquals(2 * ((length + 7) / 8), out.length());
+			out.writeInt(END_MARKER);
+
+			long[] mask = NullMaskSerDeUtils.newMask(length);
+			long[] copiedMask = NullMaskSerDeUtils.newMask(length);
+			DataOutputSerializer copy = new DataOutputSerializer(64);
+			DataInputDeserializer in = new DataInputDeserializer(out.getByteArray(), 0, out.length());
+			NullMaskSerDeUtils.readNullMask(mask, length, in);
+			NullMaskSerDeUtils.readAndCopyNullMask(copiedMask, length, in, copy);
+			assertEquals(END_MARKER, in.readInt());
+
+			for(int i = 0; i < length; i++) {
+				assertEquals("field " + i + " of " + length, fields[i] == null, NullMaskSerDeUtils.isNull(mask, i));
+				assertEquals("field " + i + " of " + length, fields[i] == null, NullMaskSerDeUtils.isNull(copiedMask, i));
+			}
+			assertEquals((length + 7) / 8, copy.length());
+		}
+
+		long[] mask = NullMaskSerDeUtils.newMask(64);
+		assertTrue(mask == NullMaskSerDeUtils.ensureCapacity(mask, 64));
+		assertFalse(mask == NullMaskSerDeUtils.ensureCapacity(mask, 65));
+	}
+
+	static ExecutionConfig[] configs() {
+		ExecutionConfig compact = new ExecutionConfig();
+		TupleWireFormat.setVersion(compact, TupleWireFormat.VERSION_2);
+		return new ExecutionConfig[] {new ExecutionConfig(), compact};
+	}
+
+	static ExecutionConfig compactConfig() {
+		return configs()[1];
+	}
+
+	static Tuple[] wideTuples() {
+		Tuple[] tuples = new Tuple[3];
+		for(int t = 0; t < tuples.length; t++) {
+			tuples[t] = Tuple.size(WIDE_ARITY);
+			for(int i = 0; i < WIDE_ARITY; i++) {
+				tuples[t].set(i, (i + t) % (t + 2) == 0 ? null : "v" + i);
+			}
+		}
+		return tuples;
+	}
+
+	/**
+	 * Checks that each tuple survives serialization, copying of its serialized form, and object copying,
+	 * and that a sequence of serialized tuples is read back completely, also into reused tuples.
+	 */
+	static void checkRoundTrip(TypeSerializer<Tuple> serializer, Tuple[] tuples) throws IOException {
+
+		DataOutputSerializer all = new DataOutputSerializer(64);
+
+		for(Tuple tuple : tuples) {
+			byte[] bytes = serialize(serializer, tuple);
+
+			assertEquals(tuple.toString(), tuple, serializer.deserialize(new DataInputDeserializer(bytes, 0, bytes.length)));
+			assertEquals(tuple.toString(), tuple, serializer.copy(tuple));
+
+			DataOutputSerializer copy = new DataOutputSerializer(64);
+			serializer.copy(new DataInputDeserializer(bytes, 0, bytes.length), copy);
+			assertArrayEquals(tuple.toString(), bytes, copy.getCopyOfBuffer());
+
+			serializer.serialize(tuple, all);
+		}
+		all.writeInt(END_MARKER);
+
+		DataInputDeserializer in = new DataInputDeserializer(all.getByteArray(), 0, all.length());
+		Tuple reuse = serializer.createInstance();
+		for(Tuple tuple : tuples) {
+			reuse = serializer.deserialize(reuse, in);
+			assertEquals(tuple.toString(), tuple, reuse);
+		}
+		assertEquals(END_MARKER, in.readInt());
+	}
+
+	static byte[] serialize(TypeSerializer<Tuple> serializer, Tuple tuple) throws IOException {
+		DataOutputSerializer out = new DataOutputSerializer(64);
+		serializer.serialize(tuple, out);
+		return out.getCopyOfBuffer();
+	}
+
+	private static void assertTupleArrayEquals(Tuple[] expected, Tuple[] actual) {
+		assertEquals(expected.length, actual.length);
+		for(int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i]);
+		}
+	}
+}